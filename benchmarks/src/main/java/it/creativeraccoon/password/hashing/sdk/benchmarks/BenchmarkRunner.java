@@ -0,0 +1,48 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar, it accepts the same arguments of the JMH command line. <br>
+ * Unless specified differently in the arguments, the GC profiler (allocation rate and bytes per operation) is enabled
+ * and the results are written in JSON in the file <code>jmh-result-&lt;sdk version&gt;.json</code>,
+ * so that the results of two versions of the SDK can be compared.
+ *
+ * @author ZeroBrushV2
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListProfilers()
+				|| commandLineOptions.shouldListResultFormats() || commandLineOptions.shouldListWithParams()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+
+		boolean gcProfiler = commandLineOptions.getProfilers().stream()
+				.anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+		if (!gcProfiler)
+			options.addProfiler(GCProfiler.class);
+
+		if (!commandLineOptions.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+
+		if (!commandLineOptions.getResult().hasValue())
+			options.result("jmh-result-" + getSdkVersion() + "." + commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON).toString().toLowerCase());
+
+		new Runner(options.build()).run();
+	}
+
+	private static String getSdkVersion() {
+		String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+		return version == null ? "dev" : version;
+	}
+}
@@ -0,0 +1,80 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationPropertiesUtil;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of obtaining a hasher or a verifier from the factories, the operation is executed for every login.
+ *
+ * @author ZeroBrushV2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactoryBenchmark {
+
+	/**
+	 * Hash of "testpassword" with the default properties (m=8000, i=180, t=4, 16 bytes of salt)
+	 */
+	private static final String HASHED_PASSWORD = "$a=argon2,$v=19,$m=8000,$i=180,$t=4$a2JmeGlxZ3pWcW95d3FuMTZMN0QzZz09JHFaRzZiOFlNU2VYbzVMYnQ3eCtUT21DaEJjYkpGMXFISEpyQTVRZzVNUEE9";
+
+	private Map<HashingConfigurationProperties, String> properties;
+	private ParsedPasswordHash parsedHash;
+
+	@Setup
+	public void setup() {
+		// a mutable copy, as the callers usually build their own map
+		properties = new HashMap<>(new HashingConfigurationPropertiesUtil().getDefaultProperties());
+		parsedHash = PasswordEncodingUtils.parse(HASHED_PASSWORD);
+	}
+
+	@Benchmark
+	public PasswordHasher hasherDefaultInstance() throws PasswordHasherInstantiationException {
+		return PasswordHashersFactory.getDefaultInstance();
+	}
+
+	@Benchmark
+	public PasswordHasher hasherByAlgorithm() throws PasswordHasherInstantiationException {
+		return PasswordHashersFactory.getInstance(PasswordAlgorithms.ARGON2);
+	}
+
+	@Benchmark
+	public PasswordHasher hasherByProperties() throws PasswordHasherInstantiationException {
+		return PasswordHashersFactory.getInstance(properties);
+	}
+
+	@Benchmark
+	public PasswordVerifier verifierByString() throws PasswordHasherInstantiationException {
+		return PasswordVerifiersFactory.getInstance(HASHED_PASSWORD);
+	}
+
+	@Benchmark
+	public PasswordVerifier verifierByParsedHash() throws PasswordHasherInstantiationException {
+		return PasswordVerifiersFactory.getInstance(parsedHash);
+	}
+}
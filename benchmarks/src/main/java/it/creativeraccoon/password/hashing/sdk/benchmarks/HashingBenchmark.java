@@ -0,0 +1,106 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing and verification of a password with different combinations of memory cost, iterations, threads and salt size,
+ * both from a single thread and from as many threads as the available processors.
+ * <br><br>
+ * The iterations are much lower than the production ones (180) so that the whole matrix of parameters can be run in a reasonable time,
+ * the cost grows linearly with the iterations.
+ *
+ * @author ZeroBrushV2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class HashingBenchmark {
+
+	private static final String PASSWORD = "testpassword";
+
+	@Param({ "1024", "8000" })
+	private int memoryCost;
+
+	@Param({ "2", "10" })
+	private int iterations;
+
+	@Param({ "1", "4" })
+	private int threads;
+
+	@Param({ "16", "32" })
+	private int saltSize;
+
+	private PasswordHasher hasher;
+	private PasswordVerifier verifier;
+	private String hashedPassword;
+	private ParsedPasswordHash parsedHash;
+
+	@Setup
+	public void setup() throws PasswordHasherInstantiationException {
+		Map<HashingConfigurationProperties, String> properties = new EnumMap<>(HashingConfigurationProperties.class);
+		properties.put(HashingConfigurationProperties.ALGORITHM, PasswordAlgorithms.ARGON2.getLabel());
+		properties.put(HashingConfigurationProperties.MEMORY_COST, String.valueOf(memoryCost));
+		properties.put(HashingConfigurationProperties.ITERATIONS, String.valueOf(iterations));
+		properties.put(HashingConfigurationProperties.THREADS, String.valueOf(threads));
+		properties.put(HashingConfigurationProperties.SALT_SIZE, String.valueOf(saltSize));
+
+		hasher = PasswordHashersFactory.getInstance(properties);
+		hashedPassword = hasher.hash(PASSWORD);
+		parsedHash = PasswordEncodingUtils.parse(hashedPassword);
+		verifier = PasswordVerifiersFactory.getInstance(parsedHash);
+	}
+
+	@Benchmark
+	public String hash() {
+		return hasher.hash(PASSWORD);
+	}
+
+	@Benchmark
+	public boolean verify() {
+		return verifier.verify(PASSWORD, parsedHash);
+	}
+
+	@Benchmark
+	public boolean verifyString() {
+		return verifier.verify(PASSWORD, hashedPassword);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String hashMultiThreaded() {
+		return hasher.hash(PASSWORD);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean verifyMultiThreaded() {
+		return verifier.verify(PASSWORD, parsedHash);
+	}
+}
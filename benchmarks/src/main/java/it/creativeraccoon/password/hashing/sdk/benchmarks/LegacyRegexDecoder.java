@@ -0,0 +1,63 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
+import org.apache.commons.lang3.StringUtils;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copy of the regex-based decoding used by PasswordEncodingUtils before the single-pass parser, kept only as baseline for the benchmarks.
+ *
+ * @author ZeroBrushV2
+ */
+final class LegacyRegexDecoder {
+
+    private static final String base64Pattern = "(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?+";
+    private static final String hashPattern = "^\\$a=(?<algorithm>\\S+),(?:\\$v=(?<version>\\d+),)\\$m=(?<memory>\\d+),\\$i=(?<iterations>\\d+),\\$t=(?<threads>\\d+)\\$(?<password>%s)$";
+
+    private LegacyRegexDecoder() {}
+
+    static Map<PasswordProperties, String> decode(String hashedPassword) {
+        Pattern pattern = Pattern.compile(StringUtils.replace(hashPattern, "%s", base64Pattern));
+        Matcher matcher = pattern.matcher(hashedPassword);
+
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid hash '" + hashedPassword + "'");
+        }
+
+        String saltedPassword = new String(Base64.decode(matcher.group("password")));
+        String[] decodedSaltedPassword = StringUtils.split(saltedPassword, "$");
+
+        String salt = decodedSaltedPassword[0];
+        String password = decodedSaltedPassword[1];
+
+        Map<PasswordProperties, String> map = new HashMap<>();
+
+        map.put(PasswordProperties.ALGORITHM, matcher.group("algorithm"));
+        if (matcher.group("version") != null)
+            map.put(PasswordProperties.VERSION, matcher.group("version"));
+        map.put(PasswordProperties.MEMORY_COST, matcher.group("memory"));
+        map.put(PasswordProperties.ITERATIONS, matcher.group("iterations"));
+        map.put(PasswordProperties.THREADS, matcher.group("threads"));
+        map.put(PasswordProperties.SALT, salt);
+        map.put(PasswordProperties.SALT_SIZE, String.valueOf(Base64.decode(salt).length));
+        map.put(PasswordProperties.PASSWORD, password);
+
+        return map;
+    }
+
+    /**
+     * Reproduces the work done by a verification with the regex-based decoding: decode in the factory, decode in the verifier and decode of salt and password
+     */
+    static int decodeForVerification(String hashedPassword) {
+        LegacyRegexDecoder.decode(hashedPassword);
+        Map<PasswordProperties, String> map = LegacyRegexDecoder.decode(hashedPassword);
+        byte[] salt = Base64.decode(map.get(PasswordProperties.SALT));
+        byte[] password = Base64.decode(map.get(PasswordProperties.PASSWORD));
+        return salt.length + password.length + Integer.parseInt(map.get(PasswordProperties.MEMORY_COST));
+    }
+}
@@ -0,0 +1,103 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison between the regex-based decoding of the hashed passwords and the single-pass parser of {@link PasswordEncodingUtils}.
+ *
+ * @author ZeroBrushV2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordEncodingBenchmark {
+
+	/**
+	 * Hash of "testpassword" with the default properties (m=8000, i=180, t=4, 16 bytes of salt)
+	 */
+	private static final String HASHED_PASSWORD = "$a=argon2,$v=19,$m=8000,$i=180,$t=4$a2JmeGlxZ3pWcW95d3FuMTZMN0QzZz09JHFaRzZiOFlNU2VYbzVMYnQ3eCtUT21DaEJjYkpGMXFISEpyQTVRZzVNUEE9";
+
+	private String hashedPassword;
+	private String phcHashedPassword;
+	private ParsedPasswordHash parsedHash;
+	private byte[] binaryHashedPassword;
+	private Map<PasswordProperties, String> decodedProperties;
+
+	@Setup
+	public void setup() {
+		hashedPassword = new String(HASHED_PASSWORD.toCharArray());
+		parsedHash = PasswordEncodingUtils.parse(hashedPassword);
+		phcHashedPassword = PasswordEncodingUtils.encode(parsedHash, HashEncodingFormat.PHC);
+		binaryHashedPassword = PasswordEncodingUtils.encodeBinary(parsedHash);
+		decodedProperties = PasswordEncodingUtils.decode(hashedPassword);
+	}
+
+	@Benchmark
+	public Map<PasswordProperties, String> legacyRegexDecode() {
+		return LegacyRegexDecoder.decode(hashedPassword);
+	}
+
+	@Benchmark
+	public int legacyRegexVerificationPath() {
+		return LegacyRegexDecoder.decodeForVerification(hashedPassword);
+	}
+
+	@Benchmark
+	public Map<PasswordProperties, String> decode() {
+		return PasswordEncodingUtils.decode(hashedPassword);
+	}
+
+	@Benchmark
+	public ParsedPasswordHash parse() {
+		return PasswordEncodingUtils.parse(hashedPassword);
+	}
+
+	@Benchmark
+	public ParsedPasswordHash parsePhc() {
+		return PasswordEncodingUtils.parse(phcHashedPassword);
+	}
+
+	@Benchmark
+	public String encode() {
+		return PasswordEncodingUtils.encode(decodedProperties);
+	}
+
+	@Benchmark
+	public String encodeLegacy() {
+		return PasswordEncodingUtils.encode(parsedHash, HashEncodingFormat.LEGACY);
+	}
+
+	@Benchmark
+	public String encodePhc() {
+		return PasswordEncodingUtils.encode(parsedHash, HashEncodingFormat.PHC);
+	}
+
+	@Benchmark
+	public ParsedPasswordHash decodeBinary() {
+		return PasswordEncodingUtils.decodeBinary(binaryHashedPassword);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return PasswordEncodingUtils.encodeBinary(parsedHash);
+	}
+}
@@ -0,0 +1,51 @@
+package it.creativeraccoon.password.hashing.sdk.benchmarks;
+
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison, with 64 concurrent threads, between a new {@link SecureRandom} for every salt (the previous behaviour of the hashers)
+ * and the shared {@link RandomSource}.
+ *
+ * @author ZeroBrushV2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(1)
+public class SaltGenerationBenchmark {
+
+	@Param({ "16", "32" })
+	private int saltSize;
+
+	@Benchmark
+	public byte[] newSecureRandomSalt() {
+		SecureRandom secureRandom = new SecureRandom();
+		byte[] salt = new byte[saltSize];
+		secureRandom.nextBytes(salt);
+		return salt;
+	}
+
+	@Benchmark
+	public byte[] randomSourceSalt() {
+		byte[] salt = new byte[saltSize];
+		RandomSource.getDefault().nextBytes(salt);
+		return salt;
+	}
+}
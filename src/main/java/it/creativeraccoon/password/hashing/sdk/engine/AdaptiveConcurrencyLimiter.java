@@ -0,0 +1,300 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limiter that adapts the number of Argon2 computations running at the same time to the latency measured on the machine,
+ * instead of a fixed number of threads that is too small on one host and too large on another (or on a noisy shared host).
+ * <br><br>
+ * The limiter works like TCP Vegas: the lowest latency observed recently is the latency without load (baseline),
+ * and the ratio between the baseline and the average latency of the last round of operations estimates how many
+ * of the running operations are actually waiting for a core:
+ * <ul>
+ * <li>less than <i>alpha</i> operations waiting: the cores are not saturated, the limit is increased by 1</li>
+ * <li>more than <i>beta</i> operations waiting: the limit is decreased by 1</li>
+ * <li>latency above <i>tolerance</i> times the baseline (for example the host has been taken by another process):
+ * the limit is multiplied by <i>backoffRatio</i></li>
+ * </ul>
+ * The limit is never increased while less than half of it is used, so a quiet period does not grow it without a measure.
+ * The baseline is the minimum of the last two windows of <i>baselineWindow</i> operations, so it follows the changes of the hashing configuration.
+ * <br><br>
+ * The limiter is used by the {@link PasswordHashingExecutor}:
+ * <pre>
+ * PasswordHashingExecutor.setDefault(PasswordHashingExecutor.builder()
+ *         .concurrencyLimiter(AdaptiveConcurrencyLimiter.builder()
+ *                 .maxLimit(32)
+ *                 .listener((previous, limit) -&gt; ...)
+ *                 .build())
+ *         .build());
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final int alpha;
+	private final int beta;
+	private final double tolerance;
+	private final double backoffRatio;
+	private final int baselineWindow;
+	private final LimitListener listener;
+
+	private volatile int limit;
+	private long baselineNanos = Long.MAX_VALUE;
+	private long windowMinNanos = Long.MAX_VALUE;
+	private long previousWindowMinNanos = Long.MAX_VALUE;
+	private int windowSamples;
+	private long roundLatencySum;
+	private int roundSamples;
+	private int roundMaxInFlight;
+	private volatile long lastLatencyNanos;
+	private volatile long limitChangeCount;
+
+	/**
+	 * Listener notified every time the limit changes
+	 */
+	@FunctionalInterface
+	public interface LimitListener {
+
+		/**
+		 * Method invoked by the thread that has completed the round of operations, it must not block
+		 *
+		 * @param previousLimit limit before the change
+		 * @param newLimit limit after the change
+		 */
+		void onLimitChange(int previousLimit, int newLimit);
+	}
+
+	private AdaptiveConcurrencyLimiter(Builder builder) {
+		this.minLimit = builder.minLimit;
+		this.maxLimit = builder.maxLimit;
+		this.alpha = builder.alpha;
+		this.beta = builder.beta;
+		this.tolerance = builder.tolerance;
+		this.backoffRatio = builder.backoffRatio;
+		this.baselineWindow = builder.baselineWindow;
+		this.listener = builder.listener;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+
+		if (minLimit > maxLimit)
+			throw new IllegalArgumentException("The minimum limit cannot be greater than the maximum one");
+		if (alpha >= beta)
+			throw new IllegalArgumentException("Alpha must be lower than beta");
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Method that records the latency of a completed operation and, at the end of every round (as many operations as the limit), updates the limit
+	 *
+	 * @param latencyNanos time spent computing the operation, without the time in queue
+	 * @param inFlight operations running when the operation has been started, itself included
+	 * @return the limit after the measure
+	 */
+	public int onSample(long latencyNanos, int inFlight) {
+		if (latencyNanos <= 0)
+			return limit;
+
+		int previousLimit;
+		int newLimit;
+		synchronized (this) {
+			lastLatencyNanos = latencyNanos;
+
+			windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+			if (++windowSamples >= baselineWindow) {
+				previousWindowMinNanos = windowMinNanos;
+				windowMinNanos = Long.MAX_VALUE;
+				windowSamples = 0;
+			}
+			baselineNanos = Math.min(windowMinNanos, previousWindowMinNanos);
+
+			roundLatencySum += latencyNanos;
+			roundMaxInFlight = Math.max(roundMaxInFlight, inFlight);
+			if (++roundSamples < limit)
+				return limit;
+
+			double latency = (double) roundLatencySum / roundSamples;
+			int maxInFlight = roundMaxInFlight;
+			roundLatencySum = 0;
+			roundSamples = 0;
+			roundMaxInFlight = 0;
+
+			previousLimit = limit;
+			double waiting = previousLimit * (1 - baselineNanos / latency);
+			if (latency > tolerance * baselineNanos)
+				newLimit = (int) (previousLimit * backoffRatio);
+			else if (waiting > beta)
+				newLimit = previousLimit - 1;
+			else if (waiting < alpha && maxInFlight * 2 >= previousLimit)
+				newLimit = previousLimit + 1;
+			else
+				newLimit = previousLimit;
+
+			newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+			if (newLimit == previousLimit)
+				return newLimit;
+
+			limit = newLimit;
+			limitChangeCount++;
+		}
+
+		logger.debug("Concurrency limit changed from {} to {}", previousLimit, newLimit);
+		if (listener != null)
+			listener.onLimitChange(previousLimit, newLimit);
+		return newLimit;
+	}
+
+	/**
+	 * @return number of operations that can be computed at the same time
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * @return lowest latency observed recently (in nanoseconds), 0 before the first operation
+	 */
+	public synchronized long getBaselineNanos() {
+		return baselineNanos == Long.MAX_VALUE ? 0 : baselineNanos;
+	}
+
+	/**
+	 * @return latency of the last operation (in nanoseconds)
+	 */
+	public long getLastLatencyNanos() {
+		return lastLatencyNanos;
+	}
+
+	/**
+	 * @return number of times the limit has changed
+	 */
+	public long getLimitChangeCount() {
+		return limitChangeCount;
+	}
+
+	/**
+	 * Builder of the {@link AdaptiveConcurrencyLimiter}
+	 */
+	public static final class Builder {
+
+		private int minLimit = 1;
+		private int maxLimit = Runtime.getRuntime().availableProcessors() * 4;
+		private int initialLimit = Runtime.getRuntime().availableProcessors();
+		private int alpha = 1;
+		private int beta = 2;
+		private double tolerance = 3.0;
+		private double backoffRatio = 0.9;
+		private int baselineWindow = 500;
+		private LimitListener listener;
+
+		private Builder() {}
+
+		/**
+		 * @param minLimit lowest limit, default 1
+		 */
+		public Builder minLimit(int minLimit) {
+			if (minLimit <= 0)
+				throw new IllegalArgumentException("The minimum limit must be positive");
+			this.minLimit = minLimit;
+			return this;
+		}
+
+		/**
+		 * @param maxLimit highest limit, default 4 times the number of cores
+		 */
+		public Builder maxLimit(int maxLimit) {
+			if (maxLimit <= 0)
+				throw new IllegalArgumentException("The maximum limit must be positive");
+			this.maxLimit = maxLimit;
+			return this;
+		}
+
+		/**
+		 * @param initialLimit limit used before the first measures, default the number of cores
+		 */
+		public Builder initialLimit(int initialLimit) {
+			if (initialLimit <= 0)
+				throw new IllegalArgumentException("The initial limit must be positive");
+			this.initialLimit = initialLimit;
+			return this;
+		}
+
+		/**
+		 * @param alpha estimated operations waiting for a core below which the limit is increased, default 1
+		 */
+		public Builder alpha(int alpha) {
+			if (alpha < 0)
+				throw new IllegalArgumentException("Alpha cannot be negative");
+			this.alpha = alpha;
+			return this;
+		}
+
+		/**
+		 * @param beta estimated operations waiting for a core above which the limit is decreased, default 2
+		 */
+		public Builder beta(int beta) {
+			if (beta <= 0)
+				throw new IllegalArgumentException("Beta must be positive");
+			this.beta = beta;
+			return this;
+		}
+
+		/**
+		 * @param tolerance ratio between latency and baseline above which the limit is reduced multiplicatively, default 3
+		 */
+		public Builder tolerance(double tolerance) {
+			if (!(tolerance > 1))
+				throw new IllegalArgumentException("The tolerance must be greater than 1");
+			this.tolerance = tolerance;
+			return this;
+		}
+
+		/**
+		 * @param backoffRatio factor applied to the limit when the latency exceeds the tolerance, default 0.9
+		 */
+		public Builder backoffRatio(double backoffRatio) {
+			if (!(backoffRatio > 0 && backoffRatio < 1))
+				throw new IllegalArgumentException("The backoff ratio must be between 0 and 1");
+			this.backoffRatio = backoffRatio;
+			return this;
+		}
+
+		/**
+		 * @param baselineWindow number of operations after which the oldest measures of the baseline are forgotten, default 500
+		 */
+		public Builder baselineWindow(int baselineWindow) {
+			if (baselineWindow <= 0)
+				throw new IllegalArgumentException("The baseline window must be positive");
+			this.baselineWindow = baselineWindow;
+			return this;
+		}
+
+		/**
+		 * @param listener listener notified every time the limit changes
+		 */
+		public Builder listener(@NonNull LimitListener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		public AdaptiveConcurrencyLimiter build() {
+			return new AdaptiveConcurrencyLimiter(this);
+		}
+	}
+}
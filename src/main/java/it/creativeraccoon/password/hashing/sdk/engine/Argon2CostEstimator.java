@@ -0,0 +1,145 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import it.creativeraccoon.password.hashing.sdk.hashers.ParallelArgon2Engine;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import lombok.NonNull;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+/**
+ * Estimator of the memory and of the time required by an Argon2 hash with the given parameters. <br>
+ * The time is predicted from the time needed by this machine to fill a block of 1 KB, measured once by {@link #calibrate()}:
+ * Argon2 fills every block of the memory once per iteration, and the lanes are filled in parallel up to the number of cores.
+ * <pre>
+ * long nanos = Argon2CostEstimator.getDefault().estimateTimeNanos(8000, 180, 4);
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class Argon2CostEstimator {
+
+	private static final int CALIBRATION_MEMORY_KB = 8192;
+	private static final int CALIBRATION_ITERATIONS = 2;
+	private static final int CALIBRATION_RUNS = 3;
+
+	private static volatile Argon2CostEstimator defaultInstance;
+
+	private final double nanosPerBlock;
+	private final int cores;
+
+	/**
+	 * @param nanosPerBlock time (in nanoseconds) to fill a block of 1 KB on one lane
+	 * @param cores number of lanes filled at the same time
+	 */
+	public Argon2CostEstimator(double nanosPerBlock, int cores) {
+		if (!(nanosPerBlock > 0))
+			throw new IllegalArgumentException("The time per block must be positive");
+		if (cores <= 0)
+			throw new IllegalArgumentException("The number of cores must be positive");
+		this.nanosPerBlock = nanosPerBlock;
+		this.cores = cores;
+	}
+
+	/**
+	 * Method that measures the speed of Argon2 on this machine, computing a few small hashes (8 MB, a few tens of milliseconds in total)
+	 * with the {@link ParallelArgon2Engine#getDefault()}
+	 *
+	 * @return the estimator calibrated for this machine
+	 */
+	public static Argon2CostEstimator calibrate() {
+		Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+				.withVersion(Argon2Parameters.ARGON2_VERSION_13)
+				.withIterations(CALIBRATION_ITERATIONS)
+				.withMemoryAsKB(CALIBRATION_MEMORY_KB)
+				.withParallelism(1)
+				.withSalt(new byte[16])
+				.build();
+		byte[] password = new byte[16];
+		byte[] out = new byte[32];
+
+		// the first run warms up the code and the block pool
+		long best = Long.MAX_VALUE;
+		for (int run = 0; run <= CALIBRATION_RUNS; run++) {
+			long start = System.nanoTime();
+			ParallelArgon2Engine.getDefault().generateBytes(parameters, password, out, 0, out.length);
+			long elapsed = System.nanoTime() - start;
+			if (run > 0)
+				best = Math.min(best, elapsed);
+		}
+
+		long blocks = MemoryBudgetScheduler.argon2MemoryKb(CALIBRATION_MEMORY_KB, 1) * CALIBRATION_ITERATIONS;
+		return new Argon2CostEstimator(Math.max(1, best) / (double) blocks, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Method that returns the estimator of this machine, calibrated at the first use
+	 *
+	 * @return the default estimator
+	 */
+	public static Argon2CostEstimator getDefault() {
+		Argon2CostEstimator estimator = defaultInstance;
+		if (estimator == null) {
+			synchronized (Argon2CostEstimator.class) {
+				estimator = defaultInstance;
+				if (estimator == null) {
+					estimator = calibrate();
+					defaultInstance = estimator;
+				}
+			}
+		}
+		return estimator;
+	}
+
+	/**
+	 * Method that replaces the default estimator, for example with one calibrated earlier
+	 *
+	 * @param estimator the new default estimator
+	 */
+	public static void setDefault(@NonNull Argon2CostEstimator estimator) {
+		defaultInstance = estimator;
+	}
+
+	/**
+	 * @param memoryCost memory cost (in KB) of the hash
+	 * @param threads parallelism of the hash
+	 * @return memory (in KB) allocated by the hash
+	 */
+	public long estimateMemoryKb(int memoryCost, int threads) {
+		return MemoryBudgetScheduler.argon2MemoryKb(memoryCost, threads);
+	}
+
+	/**
+	 * @param memoryCost memory cost (in KB) of the hash
+	 * @param iterations iterations of the hash
+	 * @param threads parallelism of the hash
+	 * @return time (in nanoseconds) predicted for the hash on an idle machine
+	 */
+	public long estimateTimeNanos(int memoryCost, int iterations, int threads) {
+		double blocks = (double) estimateMemoryKb(memoryCost, threads) * Math.max(iterations, 1);
+		double time = blocks * nanosPerBlock / Math.max(1, Math.min(threads, cores));
+		return time >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) time;
+	}
+
+	/**
+	 * @param parsedHash the saved hash
+	 * @return time (in nanoseconds) predicted for the verification of the hash on an idle machine
+	 */
+	public long estimateTimeNanos(@NonNull ParsedPasswordHash parsedHash) {
+		return estimateTimeNanos(parsedHash.getMemoryCost(), parsedHash.getIterations(), parsedHash.getThreads());
+	}
+
+	/**
+	 * @return time (in nanoseconds) to fill a block of 1 KB on one lane
+	 */
+	public double getNanosPerBlock() {
+		return nanosPerBlock;
+	}
+
+	public int getCores() {
+		return cores;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Argon2CostEstimator[nanosPerBlock=%.1f, cores=%d]", nanosPerBlock, cores);
+	}
+}
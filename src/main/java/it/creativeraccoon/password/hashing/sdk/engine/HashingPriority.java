@@ -0,0 +1,17 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+/**
+ *
+ * Enum which represents the priority lanes of the {@link PasswordHashingExecutor}
+ * @author ZeroBrushV2
+ */
+public enum HashingPriority {
+	/**
+	 * Operations waited by a user, for example the verification of the password during the login
+	 */
+	INTERACTIVE,
+	/**
+	 * Bulk operations without a user waiting for them, for example imports, provisioning and rehash of the passwords with new parameters
+	 */
+	BACKGROUND
+}
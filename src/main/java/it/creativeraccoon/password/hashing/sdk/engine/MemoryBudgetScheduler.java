@@ -0,0 +1,299 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException;
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Execution engine shared by all the hashers and verifiers that admits the Argon2 operations against a total memory budget. <br>
+ * Each operation declares the quantity of memory (in KB) that it will allocate, it is executed immediately if the budget allows it,
+ * otherwise it is queued (FIFO) until enough memory is released by the operations in progress.
+ * <br><br>
+ * When the queue is full, or when an operation waits longer than the configured time, the request is refused with a
+ * {@link PasswordHashingOverloadException}: in this way the memory used by Argon2 remains bounded regardless of the number of callers.
+ * <br><br>
+ * The default instance uses half of the maximum heap as budget, it can be replaced through {@link #setDefault(MemoryBudgetScheduler)}:
+ * <pre>
+ * MemoryBudgetScheduler.setDefault(MemoryBudgetScheduler.builder()
+ *         .memoryBudgetKb(2 * 1024 * 1024)
+ *         .maxQueueLength(500)
+ *         .maxQueueWait(5, TimeUnit.SECONDS)
+ *         .build());
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class MemoryBudgetScheduler {
+
+	private static volatile MemoryBudgetScheduler defaultInstance = builder().build();
+
+	private final long memoryBudgetKb;
+	private final int maxQueueLength;
+	private final long maxQueueWaitNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Deque<Waiter> waiters = new ArrayDeque<>();
+	private long availableKb;
+	private int inFlight;
+	private long rejectedCount;
+
+	private MemoryBudgetScheduler(Builder builder) {
+		this.memoryBudgetKb = builder.memoryBudgetKb;
+		this.maxQueueLength = builder.maxQueueLength;
+		this.maxQueueWaitNanos = builder.maxQueueWaitNanos;
+		this.availableKb = builder.memoryBudgetKb;
+	}
+
+	/**
+	 * Method that returns the scheduler shared by all the hashers and verifiers
+	 *
+	 * @return the default scheduler
+	 */
+	public static MemoryBudgetScheduler getDefault() {
+		return defaultInstance;
+	}
+
+	/**
+	 * Method that replaces the scheduler shared by all the hashers and verifiers. <br>
+	 * The operations already admitted by the previous scheduler are completed on it.
+	 *
+	 * @param scheduler the new default scheduler
+	 */
+	public static void setDefault(@NonNull MemoryBudgetScheduler scheduler) {
+		defaultInstance = scheduler;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Method that returns the memory (in KB) actually allocated by Argon2 for the given parameters,
+	 * the memory is rounded in the same way of the Argon2 specification (at least 8 blocks for each lane, multiple of 4 blocks for each lane).
+	 *
+	 * @param memoryCost memory cost (in KB) required
+	 * @param parallelism number of lanes
+	 * @return memory (in KB) allocated by a single Argon2 operation
+	 */
+	public static long argon2MemoryKb(int memoryCost, int parallelism) {
+		int lanes = Math.max(parallelism, 1);
+		long blocks = Math.max(memoryCost, 8L * lanes);
+		return (blocks / (4L * lanes)) * 4L * lanes;
+	}
+
+	/**
+	 * Method that executes an operation once the memory that it requires has been admitted by the budget
+	 *
+	 * @param memoryKb memory (in KB) that the operation will allocate
+	 * @param operation the operation to be executed
+	 * @return the result of the operation
+	 * @throws PasswordHashingOverloadException if the operation cannot be admitted
+	 */
+	public <T> T execute(long memoryKb, @NonNull Supplier<T> operation) {
+		acquire(memoryKb);
+		try {
+			return operation.get();
+		} finally {
+			release(memoryKb);
+		}
+	}
+
+	/**
+	 * Method that reserves the memory for an operation, waiting in queue if the budget is exhausted. <br>
+	 * Each successful call must be followed by a call to {@link #release(long)} with the same quantity.
+	 *
+	 * @param memoryKb memory (in KB) that the operation will allocate
+	 * @throws PasswordHashingOverloadException if the queue is full, the maximum wait is exceeded or the operation requires more than the whole budget
+	 */
+	public void acquire(long memoryKb) {
+		if (memoryKb <= 0)
+			throw new IllegalArgumentException("The memory required by the operation must be positive");
+
+		lock.lock();
+		try {
+			if (memoryKb > memoryBudgetKb) {
+				rejectedCount++;
+				throw new PasswordHashingOverloadException(String.format("The operation requires %d KB, more than the whole memory budget of %d KB", memoryKb, memoryBudgetKb));
+			}
+
+			if (waiters.isEmpty() && availableKb >= memoryKb) {
+				grant(memoryKb);
+				return;
+			}
+
+			if (waiters.size() >= maxQueueLength) {
+				rejectedCount++;
+				throw new PasswordHashingOverloadException(String.format("Too many operations waiting for memory (%d)", waiters.size()));
+			}
+
+			Waiter waiter = new Waiter(memoryKb, lock.newCondition());
+			waiters.addLast(waiter);
+			await(waiter);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method that returns to the budget the memory reserved with {@link #acquire(long)}
+	 *
+	 * @param memoryKb memory (in KB) previously reserved
+	 */
+	public void release(long memoryKb) {
+		lock.lock();
+		try {
+			availableKb += memoryKb;
+			inFlight--;
+			dispatch();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void await(Waiter waiter) {
+		long remaining = maxQueueWaitNanos;
+		try {
+			while (!waiter.granted) {
+				if (remaining <= 0) {
+					waiters.remove(waiter);
+					rejectedCount++;
+					dispatch();
+					throw new PasswordHashingOverloadException(String.format("Memory for the operation not available within %d ms", TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos)));
+				}
+				remaining = waiter.condition.awaitNanos(remaining);
+			}
+		} catch (InterruptedException e) {
+			if (waiter.granted) {
+				availableKb += waiter.memoryKb;
+				inFlight--;
+			} else {
+				waiters.remove(waiter);
+			}
+			dispatch();
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingOverloadException("Interrupted while waiting for memory", e);
+		}
+	}
+
+	/**
+	 * Admits the waiters in arrival order while the budget allows it, a large operation at the head of the queue is never overtaken
+	 */
+	private void dispatch() {
+		Waiter head;
+		while ((head = waiters.peekFirst()) != null && availableKb >= head.memoryKb) {
+			waiters.pollFirst();
+			grant(head.memoryKb);
+			head.granted = true;
+			head.condition.signal();
+		}
+	}
+
+	private void grant(long memoryKb) {
+		availableKb -= memoryKb;
+		inFlight++;
+	}
+
+	public long getMemoryBudgetKb() {
+		return memoryBudgetKb;
+	}
+
+	public long getAvailableKb() {
+		lock.lock();
+		try {
+			return availableKb;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getQueueLength() {
+		lock.lock();
+		try {
+			return waiters.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getRejectedCount() {
+		lock.lock();
+		try {
+			return rejectedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Waiter {
+		private final long memoryKb;
+		private final Condition condition;
+		private boolean granted;
+
+		private Waiter(long memoryKb, Condition condition) {
+			this.memoryKb = memoryKb;
+			this.condition = condition;
+		}
+	}
+
+	/**
+	 * Builder of the {@link MemoryBudgetScheduler}
+	 */
+	public static final class Builder {
+
+		private long memoryBudgetKb = Runtime.getRuntime().maxMemory() / 2 / 1024;
+		private int maxQueueLength = Integer.MAX_VALUE;
+		private long maxQueueWaitNanos = TimeUnit.SECONDS.toNanos(30);
+
+		private Builder() {}
+
+		/**
+		 * @param memoryBudgetKb total memory (in KB) that can be used by all the operations in progress, default half of the maximum heap
+		 */
+		public Builder memoryBudgetKb(long memoryBudgetKb) {
+			if (memoryBudgetKb <= 0)
+				throw new IllegalArgumentException("The memory budget must be positive");
+			this.memoryBudgetKb = memoryBudgetKb;
+			return this;
+		}
+
+		/**
+		 * @param maxQueueLength maximum number of operations waiting for memory, beyond which the operations are refused, default unbounded
+		 */
+		public Builder maxQueueLength(int maxQueueLength) {
+			if (maxQueueLength < 0)
+				throw new IllegalArgumentException("The maximum queue length cannot be negative");
+			this.maxQueueLength = maxQueueLength;
+			return this;
+		}
+
+		/**
+		 * @param maxQueueWait maximum time that an operation can wait for memory, default 30 seconds
+		 * @param unit unit of the time
+		 */
+		public Builder maxQueueWait(long maxQueueWait, @NonNull TimeUnit unit) {
+			if (maxQueueWait < 0)
+				throw new IllegalArgumentException("The maximum queue wait cannot be negative");
+			this.maxQueueWaitNanos = unit.toNanos(maxQueueWait);
+			return this;
+		}
+
+		public MemoryBudgetScheduler build() {
+			return new MemoryBudgetScheduler(this);
+		}
+	}
+}
@@ -0,0 +1,761 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException;
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Executor of the asynchronous hashing and verification operations ({@link it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher#hashAsync(String)},
+ * {@link it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier#verifyAsync(String, String)}). <br>
+ * The operations are queued in a bounded queue and computed by a fixed number of platform threads, by default one for each core,
+ * so the thread of the caller (an event loop or a request thread) is released immediately and the Argon2 computations in progress never exceed the cores.
+ * <br><br>
+ * The futures are completed on a different executor, so the continuations of the caller never run on the threads dedicated to Argon2:
+ * by default the virtual threads when the JVM supports them (Java 21+), otherwise the common {@link ForkJoinPool}.
+ * <br><br>
+ * When the queue is full the operation is handled according to the {@link RejectionPolicy}.
+ * <br><br>
+ * The operations can have a deadline: the executor measures the average service time of the operations and drops,
+ * with a {@link PasswordHashingDeadlineException}, the operations that would end after their deadline,
+ * both when they are submitted (estimating the wait from the length of the queue) and when they are taken from the queue.
+ * In this way the CPU is not spent on hashes whose callers have already given up.
+ * <br><br>
+ * The operations are divided in two priority lanes ({@link HashingPriority}), each one with its own queue:
+ * when both lanes have operations waiting, the interactive ones are taken <i>interactiveWeight</i> times for every background one,
+ * and some threads are reserved to the interactive operations, so a bulk rehash or import never takes all the cores used by the logins.
+ * The lanes apply only to the operations submitted to the executor: the synchronous <code>hash</code> and <code>verify</code> run on the thread of the caller,
+ * the logins that must take precedence over the bulk operations are verified with <code>verifyAsync</code> or through {@link #invoke(Supplier, long, TimeUnit)}.
+ * <br><br>
+ * Instead of a fixed number of threads the operations running at the same time can be decided by an {@link AdaptiveConcurrencyLimiter},
+ * that measures the latency of the operations: in this case the threads are the upper bound of the limit.
+ * <br><br>
+ * The default executor can be replaced through {@link #setDefault(PasswordHashingExecutor)}:
+ * <pre>
+ * PasswordHashingExecutor.setDefault(PasswordHashingExecutor.builder()
+ *         .threads(8)
+ *         .queueCapacity(200)
+ *         .rejectionPolicy(RejectionPolicy.ABORT)
+ *         .build());
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class PasswordHashingExecutor {
+
+	private static volatile PasswordHashingExecutor defaultInstance;
+
+	/**
+	 * Weight of the last measure in the moving averages of service time and queue wait
+	 */
+	private static final double EWMA_WEIGHT = 0.2;
+	private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	/**
+	 * Time in queue of the operation running on the current thread, read by the metrics of the hashers and verifiers
+	 */
+	private static final ThreadLocal<long[]> currentQueueWait = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final int threads;
+	private final int queueCapacity;
+	private final RejectionPolicy rejectionPolicy;
+	private final Executor completionExecutor;
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Deque<Task<?>> interactiveQueue = new ArrayDeque<>();
+	private final Deque<Task<?>> backgroundQueue = new ArrayDeque<>();
+	private final int interactiveWeight;
+	private final int reservedInteractiveThreads;
+	private final Thread[] workers;
+	private int active;
+	private int activeBackground;
+	private int interactiveStreak;
+	private long completedCount;
+	private long rejectedCount;
+	private long shedCount;
+	private double serviceTimeNanos;
+	private double queueWaitNanos;
+	private long maxQueueWaitNanos;
+	private boolean shutdown;
+
+	/**
+	 * Policy applied to an operation submitted when the queue is full
+	 */
+	public enum RejectionPolicy {
+		/**
+		 * The future of the new operation is completed immediately with a {@link PasswordHashingOverloadException}
+		 */
+		ABORT,
+		/**
+		 * The new operation is computed by the thread that submits it, this slows down the caller instead of refusing the operation
+		 */
+		CALLER_RUNS,
+		/**
+		 * The oldest operation in queue is refused with a {@link PasswordHashingOverloadException} to make room for the new one
+		 */
+		DISCARD_OLDEST
+	}
+
+	private PasswordHashingExecutor(Builder builder) {
+		this.concurrencyLimiter = builder.concurrencyLimiter;
+		this.threads = builder.threads > 0 ? builder.threads
+				: (concurrencyLimiter != null ? concurrencyLimiter.getMaxLimit() : Runtime.getRuntime().availableProcessors());
+		this.queueCapacity = builder.queueCapacity;
+		this.rejectionPolicy = builder.rejectionPolicy;
+		this.interactiveWeight = builder.interactiveWeight;
+		this.reservedInteractiveThreads = builder.reservedInteractiveThreads >= 0 ? builder.reservedInteractiveThreads
+				: (threads > 1 ? Math.max(1, threads / 4) : 0);
+		if (reservedInteractiveThreads >= threads && threads > 0)
+			throw new IllegalArgumentException("At least one thread must be available for the background operations");
+		this.completionExecutor = builder.completionExecutor != null ? builder.completionExecutor : defaultCompletionExecutor();
+
+		this.workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(this::work, builder.threadNamePrefix + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * Method that returns the executor used by the asynchronous methods of the hashers and verifiers, created at the first use
+	 *
+	 * @return the default executor
+	 */
+	public static PasswordHashingExecutor getDefault() {
+		PasswordHashingExecutor executor = defaultInstance;
+		if (executor == null) {
+			synchronized (PasswordHashingExecutor.class) {
+				executor = defaultInstance;
+				if (executor == null) {
+					executor = builder().build();
+					defaultInstance = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Method that replaces the executor used by the asynchronous methods of the hashers and verifiers. <br>
+	 * The previous executor is not shut down, the operations already submitted to it are completed.
+	 *
+	 * @param executor the new default executor
+	 */
+	public static void setDefault(@NonNull PasswordHashingExecutor executor) {
+		defaultInstance = executor;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Uses the virtual threads when the JVM provides them, the method is looked up by reflection because the library is compiled for Java 8
+	 */
+	private static Executor defaultCompletionExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return ForkJoinPool.commonPool();
+		}
+	}
+
+	/**
+	 * Method that queues an operation, the method never blocks (apart from the policy {@link RejectionPolicy#CALLER_RUNS})
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @return the future completed with the result of the operation, or with a {@link PasswordHashingOverloadException} if the operation has been refused
+	 */
+	public <T> CompletableFuture<T> submit(@NonNull Supplier<T> operation) {
+		return submit(operation, HashingPriority.INTERACTIVE);
+	}
+
+	/**
+	 * Method that queues an operation in the given priority lane, the method never blocks (apart from the policy {@link RejectionPolicy#CALLER_RUNS})
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @param priority lane of the operation
+	 * @return the future completed with the result of the operation, or with a {@link PasswordHashingOverloadException} if the operation has been refused
+	 */
+	public <T> CompletableFuture<T> submit(@NonNull Supplier<T> operation, @NonNull HashingPriority priority) {
+		return enqueue(new Task<>(operation, priority, System.nanoTime(), NO_DEADLINE));
+	}
+
+	/**
+	 * Method that queues an operation that must be completed within the given time, the method never blocks (apart from the policy {@link RejectionPolicy#CALLER_RUNS})
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @param timeout maximum time from now within which the operation must be completed
+	 * @param unit unit of the timeout
+	 * @return the future completed with the result of the operation, with a {@link PasswordHashingDeadlineException} if the operation
+	 * cannot be completed in time, or with a {@link PasswordHashingOverloadException} if the operation has been refused
+	 */
+	public <T> CompletableFuture<T> submit(@NonNull Supplier<T> operation, long timeout, @NonNull TimeUnit unit) {
+		return submit(operation, HashingPriority.INTERACTIVE, timeout, unit);
+	}
+
+	/**
+	 * Method that queues an operation in the given priority lane, the operation must be completed within the given time
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @param priority lane of the operation
+	 * @param timeout maximum time from now within which the operation must be completed
+	 * @param unit unit of the timeout
+	 * @return the future completed with the result of the operation, with a {@link PasswordHashingDeadlineException} if the operation
+	 * cannot be completed in time, or with a {@link PasswordHashingOverloadException} if the operation has been refused
+	 * @see #submit(Supplier, long, TimeUnit)
+	 */
+	public <T> CompletableFuture<T> submit(@NonNull Supplier<T> operation, @NonNull HashingPriority priority, long timeout, @NonNull TimeUnit unit) {
+		long now = System.nanoTime();
+		return enqueue(new Task<>(operation, priority, now, deadline(now, timeout, unit)));
+	}
+
+	/**
+	 * Method that computes an operation on the executor and waits for its result, at most for the given time. <br>
+	 * When the time expires the caller stops waiting, the operation is dropped if it has not been started yet.
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @param timeout maximum time within which the result is expected
+	 * @param unit unit of the timeout
+	 * @return the result of the operation
+	 * @throws PasswordHashingDeadlineException if the result is not available in time
+	 * @throws PasswordHashingOverloadException if the operation has been refused
+	 */
+	public <T> T invoke(@NonNull Supplier<T> operation, long timeout, @NonNull TimeUnit unit) {
+		return invoke(operation, HashingPriority.INTERACTIVE, timeout, unit);
+	}
+
+	/**
+	 * Method that computes an operation in the given priority lane and waits for its result, at most for the given time
+	 *
+	 * @param operation the operation to be computed, typically a hash or a verification
+	 * @param priority lane of the operation
+	 * @param timeout maximum time within which the result is expected
+	 * @param unit unit of the timeout
+	 * @return the result of the operation
+	 * @throws PasswordHashingDeadlineException if the result is not available in time
+	 * @throws PasswordHashingOverloadException if the operation has been refused
+	 * @see #invoke(Supplier, long, TimeUnit)
+	 */
+	public <T> T invoke(@NonNull Supplier<T> operation, @NonNull HashingPriority priority, long timeout, @NonNull TimeUnit unit) {
+		long now = System.nanoTime();
+		long deadline = deadline(now, timeout, unit);
+		CompletableFuture<T> future = enqueue(new Task<>(operation, priority, now, deadline));
+
+		try {
+			return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// the future is marked as done, so a worker that has not started it yet drops it
+			future.cancel(false);
+			throw new PasswordHashingDeadlineException(String.format("Result not available within %d ms", unit.toMillis(timeout)));
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingOverloadException("Interrupted while waiting for the operation", e);
+		}
+	}
+
+	private static long deadline(long now, long timeout, TimeUnit unit) {
+		if (timeout < 0)
+			throw new IllegalArgumentException("The timeout cannot be negative");
+		long nanos = unit.toNanos(timeout);
+		return nanos >= NO_DEADLINE - now ? NO_DEADLINE : now + nanos;
+	}
+
+	private <T> CompletableFuture<T> enqueue(Task<T> task) {
+		Task<?> discarded = null;
+		Deque<Task<?>> queue = task.priority == HashingPriority.INTERACTIVE ? interactiveQueue : backgroundQueue;
+
+		lock.lock();
+		try {
+			if (shutdown) {
+				rejectedCount++;
+				task.future.completeExceptionally(new PasswordHashingOverloadException("The executor has been shut down"));
+				return task.future;
+			}
+
+			if (task.deadlineNanos != NO_DEADLINE && serviceTimeNanos > 0) {
+				// the operations ahead are computed concurrency limit at a time, then this one
+				int ahead = interactiveQueue.size() + active + (task.priority == HashingPriority.BACKGROUND ? backgroundQueue.size() : 0);
+				long expectedEnd = task.enqueuedNanos + (long) ((ahead / concurrencyLimit() + 1) * serviceTimeNanos);
+				if (expectedEnd - task.deadlineNanos > 0) {
+					shedCount++;
+					task.future.completeExceptionally(new PasswordHashingDeadlineException(String.format(
+							"The operation cannot be completed in time, %d operations ahead and %d ms of average service time", ahead, (long) serviceTimeNanos / 1_000_000)));
+					return task.future;
+				}
+			}
+
+			if (queue.size() >= queueCapacity) {
+				switch (rejectionPolicy) {
+					case CALLER_RUNS:
+						break;
+					case DISCARD_OLDEST:
+						discarded = queue.pollFirst();
+						if (discarded != null)
+							rejectedCount++;
+						queue.addLast(task);
+						notEmpty.signal();
+						break;
+					case ABORT:
+					default:
+						rejectedCount++;
+						task.future.completeExceptionally(new PasswordHashingOverloadException(String.format("Too many operations in queue (%d)", queue.size())));
+						return task.future;
+				}
+			} else {
+				queue.addLast(task);
+				notEmpty.signal();
+				return task.future;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (discarded != null) {
+			complete(discarded, null, new PasswordHashingOverloadException("Operation discarded to make room for a newer one"));
+			return task.future;
+		}
+
+		// CALLER_RUNS
+		run(task);
+		return task.future;
+	}
+
+	private void work() {
+		while (true) {
+			Task<?> task;
+			int inFlight;
+			long queueWait;
+			lock.lock();
+			try {
+				while ((task = nextTask()) == null) {
+					if (shutdown && interactiveQueue.isEmpty() && backgroundQueue.isEmpty())
+						return;
+					notEmpty.awaitUninterruptibly();
+				}
+
+				long now = System.nanoTime();
+				queueWait = now - task.enqueuedNanos;
+				recordQueueWait(queueWait);
+
+				if (task.future.isDone()) {
+					// the caller has stopped waiting
+					shedCount++;
+					continue;
+				}
+				if (task.deadlineNanos != NO_DEADLINE && now + (long) serviceTimeNanos - task.deadlineNanos > 0) {
+					shedCount++;
+					complete(task, null, new PasswordHashingDeadlineException(String.format(
+							"The operation cannot be completed in time, it has waited %d ms in queue", TimeUnit.NANOSECONDS.toMillis(now - task.enqueuedNanos))));
+					continue;
+				}
+				active++;
+				if (task.priority == HashingPriority.BACKGROUND)
+					activeBackground++;
+				inFlight = active;
+			} finally {
+				lock.unlock();
+			}
+
+			long[] currentWait = currentQueueWait.get();
+			currentWait[0] = queueWait;
+			long start = System.nanoTime();
+			try {
+				run(task);
+			} finally {
+				currentWait[0] = 0;
+				long serviceTime = System.nanoTime() - start;
+				int previousLimit = concurrencyLimit();
+				if (concurrencyLimiter != null)
+					concurrencyLimiter.onSample(serviceTime, inFlight);
+
+				lock.lock();
+				try {
+					active--;
+					if (concurrencyLimit() > previousLimit)
+						notEmpty.signalAll();
+					if (task.priority == HashingPriority.BACKGROUND) {
+						activeBackground--;
+						// a background operation could be waiting for this thread
+						notEmpty.signal();
+					}
+					completedCount++;
+					serviceTimeNanos = serviceTimeNanos == 0 ? serviceTime : serviceTimeNanos + EWMA_WEIGHT * (serviceTime - serviceTimeNanos);
+				} finally {
+					lock.unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Chooses the next operation: while both lanes have operations waiting an interactive operation is taken <i>interactiveWeight</i> times
+	 * for every background one, the background operations never take the threads reserved to the interactive ones.
+	 * No operation is started while the operations running have reached the concurrency limit
+	 *
+	 * @return the next operation, null if no operation can be started now
+	 */
+	private Task<?> nextTask() {
+		int limit = concurrencyLimit();
+		if (active >= limit)
+			return null;
+
+		boolean backgroundAllowed = !backgroundQueue.isEmpty() && activeBackground < Math.max(1, limit - reservedInteractiveThreads);
+
+		if (interactiveQueue.isEmpty())
+			return backgroundAllowed ? backgroundQueue.pollFirst() : null;
+
+		if (backgroundAllowed) {
+			if (interactiveStreak >= interactiveWeight) {
+				interactiveStreak = 0;
+				return backgroundQueue.pollFirst();
+			}
+			interactiveStreak++;
+		}
+		return interactiveQueue.pollFirst();
+	}
+
+	private int concurrencyLimit() {
+		return concurrencyLimiter == null ? threads : Math.min(threads, concurrencyLimiter.getLimit());
+	}
+
+	private void recordQueueWait(long wait) {
+		queueWaitNanos = queueWaitNanos == 0 ? wait : queueWaitNanos + EWMA_WEIGHT * (wait - queueWaitNanos);
+		maxQueueWaitNanos = Math.max(maxQueueWaitNanos, wait);
+	}
+
+	/**
+	 * Method that returns the time that the operation running on the current thread has waited in the queue of an executor
+	 *
+	 * @return time in queue (in nanoseconds), 0 if the current thread is not a thread of an executor
+	 */
+	public static long getCurrentQueueWaitNanos() {
+		return currentQueueWait.get()[0];
+	}
+
+	private <T> void run(Task<T> task) {
+		T result;
+		try {
+			result = task.operation.get();
+		} catch (Throwable t) {
+			complete(task, null, t);
+			return;
+		}
+		complete(task, result, null);
+	}
+
+	private <T> void complete(Task<T> task, T result, Throwable error) {
+		Runnable completion = () -> {
+			if (error == null)
+				task.future.complete(result);
+			else
+				task.future.completeExceptionally(error);
+		};
+
+		try {
+			completionExecutor.execute(completion);
+		} catch (RejectedExecutionException e) {
+			completion.run();
+		}
+	}
+
+	/**
+	 * Stops accepting new operations, the operations already in queue are completed
+	 */
+	public void shutdown() {
+		lock.lock();
+		try {
+			shutdown = true;
+			notEmpty.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public RejectionPolicy getRejectionPolicy() {
+		return rejectionPolicy;
+	}
+
+	/**
+	 * @return number of operations that can be computed at the same time, it changes over time when the executor has an {@link AdaptiveConcurrencyLimiter}
+	 */
+	public int getConcurrencyLimit() {
+		return concurrencyLimit();
+	}
+
+	/**
+	 * @return the limiter of the executor, null if the number of operations computed at the same time is fixed
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	public int getInteractiveWeight() {
+		return interactiveWeight;
+	}
+
+	public int getReservedInteractiveThreads() {
+		return reservedInteractiveThreads;
+	}
+
+	/**
+	 * @return number of operations waiting for a thread
+	 */
+	public int getQueueLength() {
+		lock.lock();
+		try {
+			return interactiveQueue.size() + backgroundQueue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param priority lane of the operations
+	 * @return number of operations of the lane waiting for a thread
+	 */
+	public int getQueueLength(@NonNull HashingPriority priority) {
+		lock.lock();
+		try {
+			return priority == HashingPriority.INTERACTIVE ? interactiveQueue.size() : backgroundQueue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param priority lane of the operations
+	 * @return number of operations of the lane being computed
+	 */
+	public int getActiveCount(@NonNull HashingPriority priority) {
+		lock.lock();
+		try {
+			return priority == HashingPriority.INTERACTIVE ? active - activeBackground : activeBackground;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of operations being computed
+	 */
+	public int getActiveCount() {
+		lock.lock();
+		try {
+			return active;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getCompletedCount() {
+		lock.lock();
+		try {
+			return completedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getRejectedCount() {
+		lock.lock();
+		try {
+			return rejectedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of operations dropped because they could not be completed before their deadline
+	 */
+	public long getShedCount() {
+		lock.lock();
+		try {
+			return shedCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return moving average of the time spent computing an operation (in nanoseconds), 0 before the first operation
+	 */
+	public long getServiceTimeNanos() {
+		lock.lock();
+		try {
+			return (long) serviceTimeNanos;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return moving average of the time spent by the operations in queue (in nanoseconds)
+	 */
+	public long getQueueWaitNanos() {
+		lock.lock();
+		try {
+			return (long) queueWaitNanos;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return longest time spent by an operation in queue (in nanoseconds)
+	 */
+	public long getMaxQueueWaitNanos() {
+		lock.lock();
+		try {
+			return maxQueueWaitNanos;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class Task<T> {
+		private final Supplier<T> operation;
+		private final HashingPriority priority;
+		private final long enqueuedNanos;
+		private final long deadlineNanos;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		private Task(Supplier<T> operation, HashingPriority priority, long enqueuedNanos, long deadlineNanos) {
+			this.operation = operation;
+			this.priority = priority;
+			this.enqueuedNanos = enqueuedNanos;
+			this.deadlineNanos = deadlineNanos;
+		}
+	}
+
+	/**
+	 * Builder of the {@link PasswordHashingExecutor}
+	 */
+	public static final class Builder {
+
+		private int threads = -1;
+		private int queueCapacity = 1024;
+		private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+		private int interactiveWeight = 4;
+		private int reservedInteractiveThreads = -1;
+		private Executor completionExecutor;
+		private AdaptiveConcurrencyLimiter concurrencyLimiter;
+		private String threadNamePrefix = "password-hashing-";
+
+		private Builder() {}
+
+		/**
+		 * @param threads number of operations computed at the same time, default the number of cores
+		 *                (with a concurrency limiter the maximum number, default the maximum limit of the limiter)
+		 */
+		public Builder threads(int threads) {
+			if (threads <= 0)
+				throw new IllegalArgumentException("The number of threads must be positive");
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * @param queueCapacity maximum number of operations waiting for a thread in each priority lane, default 1024.
+		 *                      Every operation passes through the queue, even when a thread is idle, so the capacity must be positive
+		 */
+		public Builder queueCapacity(int queueCapacity) {
+			if (queueCapacity <= 0)
+				throw new IllegalArgumentException("The capacity of the queue must be positive");
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * @param rejectionPolicy policy applied when the queue is full, default {@link RejectionPolicy#ABORT}
+		 */
+		public Builder rejectionPolicy(@NonNull RejectionPolicy rejectionPolicy) {
+			this.rejectionPolicy = rejectionPolicy;
+			return this;
+		}
+
+		/**
+		 * @param interactiveWeight number of interactive operations started for every background one when both lanes have operations waiting, default 4
+		 */
+		public Builder interactiveWeight(int interactiveWeight) {
+			if (interactiveWeight <= 0)
+				throw new IllegalArgumentException("The weight of the interactive lane must be positive");
+			this.interactiveWeight = interactiveWeight;
+			return this;
+		}
+
+		/**
+		 * @param reservedInteractiveThreads threads that are never used by the background operations, default a quarter of the threads (at least 1 when there are more threads)
+		 */
+		public Builder reservedInteractiveThreads(int reservedInteractiveThreads) {
+			if (reservedInteractiveThreads < 0)
+				throw new IllegalArgumentException("The reserved threads cannot be negative");
+			this.reservedInteractiveThreads = reservedInteractiveThreads;
+			return this;
+		}
+
+		/**
+		 * @param concurrencyLimiter limiter that adapts the number of operations computed at the same time to the measured latency,
+		 *                           by default the number is fixed to the threads
+		 */
+		public Builder concurrencyLimiter(@NonNull AdaptiveConcurrencyLimiter concurrencyLimiter) {
+			this.concurrencyLimiter = concurrencyLimiter;
+			return this;
+		}
+
+		/**
+		 * @param completionExecutor executor on which the futures are completed (and therefore the continuations of the caller are executed),
+		 *                           default the virtual threads when available, otherwise the common {@link ForkJoinPool}
+		 */
+		public Builder completionExecutor(@NonNull Executor completionExecutor) {
+			this.completionExecutor = completionExecutor;
+			return this;
+		}
+
+		/**
+		 * @param threadNamePrefix prefix of the names of the threads, default "password-hashing-"
+		 */
+		public Builder threadNamePrefix(@NonNull String threadNamePrefix) {
+			this.threadNamePrefix = threadNamePrefix;
+			return this;
+		}
+
+		public PasswordHashingExecutor build() {
+			return new PasswordHashingExecutor(this);
+		}
+	}
+}
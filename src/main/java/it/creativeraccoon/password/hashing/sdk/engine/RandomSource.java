@@ -0,0 +1,69 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import lombok.NonNull;
+
+/**
+ * Source of the random bytes used by the hashers for the salts and the generated passwords. <br>
+ * The implementations must be thread-safe and cryptographically secure.
+ * <br><br>
+ * The source used by all the hashers is {@link #getDefault()} (a {@link StripedDrbgRandomSource}), it can be replaced through {@link #setDefault(RandomSource)}.
+ *
+ * @author ZeroBrushV2
+ */
+public interface RandomSource {
+
+	/**
+	 * Fills the array with random bytes
+	 *
+	 * @param target array to be filled
+	 */
+	default void nextBytes(byte[] target) {
+		nextBytes(target, 0, target.length);
+	}
+
+	/**
+	 * Fills a portion of the array with random bytes
+	 *
+	 * @param target array to be filled
+	 * @param offset position of the first byte to be filled
+	 * @param length number of bytes to be filled
+	 */
+	void nextBytes(byte[] target, int offset, int length);
+
+	/**
+	 * @param bound upper bound (exclusive), must be positive
+	 * @return a uniformly distributed number between 0 (inclusive) and bound (exclusive)
+	 */
+	default int nextInt(int bound) {
+		if (bound <= 0)
+			throw new IllegalArgumentException("The bound must be positive");
+
+		byte[] bytes = new byte[4];
+		// the values above the largest multiple of bound are discarded, so that all the results have the same probability
+		int limit = Integer.MAX_VALUE - (Integer.MAX_VALUE % bound);
+		int value;
+		do {
+			nextBytes(bytes);
+			value = ((bytes[0] & 0x7F) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+		} while (value >= limit);
+		return value % bound;
+	}
+
+	/**
+	 * Method that returns the source shared by all the hashers
+	 *
+	 * @return the default source
+	 */
+	static RandomSource getDefault() {
+		return RandomSourceHolder.defaultInstance;
+	}
+
+	/**
+	 * Method that replaces the source shared by all the hashers
+	 *
+	 * @param source the new default source
+	 */
+	static void setDefault(@NonNull RandomSource source) {
+		RandomSourceHolder.defaultInstance = source;
+	}
+}
@@ -0,0 +1,13 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+/**
+ * Holder of the default {@link RandomSource}, created only at the first use
+ *
+ * @author ZeroBrushV2
+ */
+final class RandomSourceHolder {
+
+	static volatile RandomSource defaultInstance = StripedDrbgRandomSource.builder().build();
+
+	private RandomSourceHolder() {}
+}
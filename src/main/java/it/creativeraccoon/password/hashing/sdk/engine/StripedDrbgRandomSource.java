@@ -0,0 +1,189 @@
+package it.creativeraccoon.password.hashing.sdk.engine;
+
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.bouncycastle.crypto.prng.SP800SecureRandom;
+import org.bouncycastle.crypto.prng.SP800SecureRandomBuilder;
+import org.bouncycastle.util.Pack;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RandomSource} made up of several independent Hash-DRBG (SP 800-90A, SHA-512) instances, called stripes. <br>
+ * Each thread always uses the same stripe, so the threads that generate salts at the same time rarely wait for each other,
+ * and the DRBGs are seeded only once instead of creating a new {@link SecureRandom} for every salt.
+ * <br><br>
+ * Every stripe generates the random bytes in bulk in a buffer and serves the following requests from it,
+ * the bytes are overwritten with zeros as soon as they have been copied. After a configurable quantity of bytes the stripe is reseeded
+ * with new entropy taken from <code>generateSeed</code> of a default {@link SecureRandom}: on Linux, with the default NativePRNG,
+ * it reads <code>/dev/random</code>, that can block on kernels older than 5.6 while the entropy pool is low.
+ * <br><br>
+ * A Hash-DRBG generates at most 262144 bits (32 KB) per request, the larger requests are served in several requests.
+ *
+ * @author ZeroBrushV2
+ */
+public class StripedDrbgRandomSource implements RandomSource {
+
+	/**
+	 * Highest number of bytes generated by a Hash-DRBG in a single request (SP 800-90A, 2^18 bits)
+	 */
+	public static final int MAX_REQUEST_BYTES = 32 * 1024;
+
+	private final Stripe[] stripes;
+	private final int mask;
+	private final int bufferSize;
+	private final long reseedIntervalBytes;
+	private final AtomicLong reseedCount = new AtomicLong();
+
+	private StripedDrbgRandomSource(Builder builder) {
+		this.bufferSize = builder.bufferSize;
+		this.reseedIntervalBytes = builder.reseedIntervalBytes;
+
+		int stripeCount = 1;
+		while (stripeCount < builder.stripes)
+			stripeCount <<= 1;
+		this.mask = stripeCount - 1;
+
+		SecureRandom entropySource = new SecureRandom();
+		this.stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++)
+			stripes[i] = new Stripe(entropySource, i, bufferSize);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@Override
+	public void nextBytes(byte[] target, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > target.length)
+			throw new IllegalArgumentException("Invalid portion of the array");
+
+		Stripe stripe = stripes[(int) mix(Thread.currentThread().getId()) & mask];
+		synchronized (stripe) {
+			if (length >= bufferSize && length <= MAX_REQUEST_BYTES && offset == 0 && length == target.length) {
+				// large requests are generated directly in the array of the caller, within the limit of a single request of the DRBG
+				stripe.generate(target);
+			} else {
+				while (length > 0) {
+					if (stripe.position == stripe.buffer.length)
+						stripe.generate(stripe.buffer);
+
+					int count = Math.min(length, stripe.buffer.length - stripe.position);
+					System.arraycopy(stripe.buffer, stripe.position, target, offset, count);
+					Arrays.fill(stripe.buffer, stripe.position, stripe.position + count, (byte) 0);
+					stripe.position += count;
+					offset += count;
+					length -= count;
+				}
+			}
+		}
+	}
+
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+		return value ^ (value >>> 33);
+	}
+
+	public int getStripes() {
+		return stripes.length;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public long getReseedIntervalBytes() {
+		return reseedIntervalBytes;
+	}
+
+	/**
+	 * @return number of times a stripe has been reseeded with new entropy
+	 */
+	public long getReseedCount() {
+		return reseedCount.get();
+	}
+
+	private final class Stripe {
+
+		private final SP800SecureRandom drbg;
+		private final byte[] buffer;
+		private int position;
+		private long generatedSinceReseed;
+
+		private Stripe(SecureRandom entropySource, int index, int bufferSize) {
+			byte[] nonce = new byte[32];
+			entropySource.nextBytes(nonce);
+
+			// the personalization string makes the stripes different even if the entropy source returned the same bytes
+			byte[] personalization = Arrays.copyOf(Pack.longToBigEndian(System.nanoTime()), 12);
+			Pack.intToBigEndian(index, personalization, 8);
+
+			this.drbg = new SP800SecureRandomBuilder(entropySource, false)
+					.setPersonalizationString(personalization)
+					.buildHash(new SHA512Digest(), nonce, false);
+			this.buffer = new byte[bufferSize];
+			this.position = bufferSize;
+		}
+
+		private void generate(byte[] bytes) {
+			if (generatedSinceReseed >= reseedIntervalBytes) {
+				drbg.reseed((byte[]) null);
+				generatedSinceReseed = 0;
+				reseedCount.incrementAndGet();
+			}
+
+			drbg.nextBytes(bytes);
+			generatedSinceReseed += bytes.length;
+			if (bytes == buffer)
+				position = 0;
+		}
+	}
+
+	/**
+	 * Builder of the {@link StripedDrbgRandomSource}
+	 */
+	public static final class Builder {
+
+		private int stripes = Runtime.getRuntime().availableProcessors() * 2;
+		private int bufferSize = 4096;
+		private long reseedIntervalBytes = 1024 * 1024;
+
+		private Builder() {}
+
+		/**
+		 * @param stripes number of independent DRBGs, rounded up to a power of 2, default twice the number of processors
+		 */
+		public Builder stripes(int stripes) {
+			if (stripes <= 0)
+				throw new IllegalArgumentException("The number of stripes must be positive");
+			this.stripes = stripes;
+			return this;
+		}
+
+		/**
+		 * @param bufferSize bytes generated in bulk by every stripe, default 4 KB, at most {@link StripedDrbgRandomSource#MAX_REQUEST_BYTES}
+		 */
+		public Builder bufferSize(int bufferSize) {
+			if (bufferSize <= 0 || bufferSize > MAX_REQUEST_BYTES)
+				throw new IllegalArgumentException("The size of the buffer must be between 1 and " + MAX_REQUEST_BYTES);
+			this.bufferSize = bufferSize;
+			return this;
+		}
+
+		/**
+		 * @param reseedIntervalBytes bytes generated by a stripe before it is reseeded with new entropy, default 1 MB
+		 */
+		public Builder reseedIntervalBytes(long reseedIntervalBytes) {
+			if (reseedIntervalBytes <= 0)
+				throw new IllegalArgumentException("The reseed interval must be positive");
+			this.reseedIntervalBytes = reseedIntervalBytes;
+			return this;
+		}
+
+		public StripedDrbgRandomSource build() {
+			return new StripedDrbgRandomSource(this);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package it.creativeraccoon.password.hashing.sdk.exceptions;
+
+/**
+ * Custom exception that identifies a saved hash refused by the {@link it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy},
+ * because its parameters would require more memory or time than allowed.
+ * <br>
+ * No Argon2 computation has been started: the hash is corrupted or has been written by an attacker.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+public class PasswordHashPolicyException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = -2291047765012934413L;
+
+	public PasswordHashPolicyException(String message) {
+        super(message);
+	}
+}
@@ -0,0 +1,22 @@
+package it.creativeraccoon.password.hashing.sdk.exceptions;
+
+/**
+ * Custom exception that identifies a hashing or verification request dropped because it could not be completed before its deadline.
+ * <br>
+ * The request has been refused before computing Argon2 (or the caller stopped waiting for it), so the CPU is left to the requests that can still be answered in time.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+public class PasswordHashingDeadlineException extends PasswordHashingOverloadException {
+
+	private static final long serialVersionUID = -6243019857329104128L;
+
+	public PasswordHashingDeadlineException(String message) {
+        super(message);
+	}
+
+	public PasswordHashingDeadlineException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
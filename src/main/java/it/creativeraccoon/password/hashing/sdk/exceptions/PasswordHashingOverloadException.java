@@ -0,0 +1,22 @@
+package it.creativeraccoon.password.hashing.sdk.exceptions;
+
+/**
+ * Custom exception that identifies a hashing or verification request refused because the engine is overloaded.
+ * <br>
+ * The request has not been computed and can be retried later (or answered with a "service unavailable" to the client).
+ *
+ * @author ZeroBrushV2
+ *
+ */
+public class PasswordHashingOverloadException extends RuntimeException {
+
+	private static final long serialVersionUID = 3184529940127795610L;
+
+	public PasswordHashingOverloadException(String message) {
+        super(message);
+	}
+
+	public PasswordHashingOverloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
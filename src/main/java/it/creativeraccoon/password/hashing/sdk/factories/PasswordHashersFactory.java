@@ -3,19 +3,28 @@ package it.creativeraccoon.password.hashing.sdk.factories;
 import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
 import it.creativeraccoon.password.hashing.sdk.hashers.Argon2PasswordHasher;
 import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingEvents;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfiguration;
 import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
-import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationPropertiesUtil;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationSource;
 import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 
  * Factory that returns an application for the current hashing method set in the Security file.properties
+ * <br><br>
+ * The hashers are immutable and thread-safe, so every instance is created by reflection only once and then kept in a registry
+ * keyed by the algorithm and by the full set of properties: the following requests with the same parameters are a lock-free read of a map.
  * @author ZeroBrushV2
  */
 public abstract class PasswordHashersFactory {
@@ -34,28 +43,49 @@ public abstract class PasswordHashersFactory {
 			}
 		
 		};
+
+	/**
+	 * Hashers already created with the properties of the algorithm, by type of hasher
+	 */
+	private static final ConcurrentMap<PasswordAlgorithms, PasswordHasher> defaultHashers = new ConcurrentHashMap<>();
+
+	/**
+	 * Hashers already created, by type of hasher and by map of properties
+	 */
+	private static final ConcurrentMap<PasswordAlgorithms, ConcurrentMap<Map<HashingConfigurationProperties, String>, PasswordHasher>> hashers = new ConcurrentHashMap<>();
+
+	private static volatile DefaultHasher defaultInstance;
  
 	/**
 	 * 
-	 * Method that allows you to obtain a default Hasher instance indicated in the Security-Default file. Properties
+	 * Method that allows you to obtain a default Hasher instance indicated in the Security-Default file. Properties,
+	 * the hasher follows the current configuration of the {@link HashingConfigurationSource#getDefault()}
 	 * 
 	 * @return Default Hasher instance
 	 * @throws PasswordHasherInstantiationException Error during the initialization of the Hasher
 	 */
 	public static PasswordHasher getDefaultInstance() throws PasswordHasherInstantiationException {
-		
+		Object event = HashingEvents.beginLookup();
+		PasswordAlgorithms algorithm = null;
+		boolean created = false;
 		try {
-			HashingConfigurationPropertiesUtil propsUtils = new HashingConfigurationPropertiesUtil();
-			Map<HashingConfigurationProperties, String> defaultProperties = propsUtils.getDefaultProperties();
-			
-			String hashingAlgorytm = defaultProperties.get(HashingConfigurationProperties.ALGORITHM);
-			PasswordAlgorithms hasherType = PasswordAlgorithms.getByLabel(hashingAlgorytm);
-			
-			
-			return getInstance(hasherType, defaultProperties);
+			HashingConfiguration configuration = HashingConfigurationSource.getDefault().get();
+			algorithm = configuration.getAlgorithm();
+
+			// the hasher is created again only when the configuration has been changed
+			DefaultHasher defaultHasher = defaultInstance;
+			if (defaultHasher != null && defaultHasher.configuration == configuration)
+				return defaultHasher.hasher;
+
+			PasswordHasher hasher = getInstance(configuration.getAlgorithm(), configuration.toProperties());
+			defaultInstance = new DefaultHasher(configuration, hasher);
+			created = true;
+			return hasher;
 		} catch (Throwable t) {
 			logger.error(t.getMessage(), t);
 			throw new PasswordHasherInstantiationException("Error during the initialization of the default Hasher", t);
+		} finally {
+			HashingEvents.commitLookup(event, "default hasher", algorithm, created);
 		}
 	}
 	
@@ -68,13 +98,26 @@ public abstract class PasswordHashersFactory {
 	 * @throws PasswordHasherInstantiationException Error during the initialization of the Hasher
 	 */
 	public static PasswordHasher getInstance(@NonNull PasswordAlgorithms passwordHasher) throws PasswordHasherInstantiationException {
-		Class<?> hasherClazz = instances.get(passwordHasher);
-		
+		Object event = HashingEvents.beginLookup();
+		boolean created = false;
 		try {
-			return (PasswordHasher) hasherClazz.getConstructor().newInstance();
-		} catch (Throwable t) {
-			logger.error(t.getMessage(), t);
-			throw new PasswordHasherInstantiationException(String.format("Error during the initialization of the Hasher '%s'", passwordHasher.name()), t);
+			PasswordHasher hasher = defaultHashers.get(passwordHasher);
+			if (hasher != null)
+				return hasher;
+
+			Class<?> hasherClazz = instances.get(passwordHasher);
+			
+			try {
+				hasher = (PasswordHasher) hasherClazz.getConstructor().newInstance();
+				PasswordHasher existing = defaultHashers.putIfAbsent(passwordHasher, hasher);
+				created = existing == null;
+				return existing == null ? hasher : existing;
+			} catch (Throwable t) {
+				logger.error(t.getMessage(), t);
+				throw new PasswordHasherInstantiationException(String.format("Error during the initialization of the Hasher '%s'", passwordHasher.name()), t);
+			}
+		} finally {
+			HashingEvents.commitLookup(event, "hasher", passwordHasher, created);
 		}
 	}
 	
@@ -113,15 +156,47 @@ public abstract class PasswordHashersFactory {
 
 		if (hashingProperties == null || hashingProperties.isEmpty())
 			throw new IllegalArgumentException("The map of properties for the hasher cannot be empty");
-		
-		Class<?> hasherClazz = instances.get(passwordHasher);
-		
+
+		Object event = HashingEvents.beginLookup();
+		boolean created = false;
 		try {
-			return (PasswordHasher) hasherClazz.getConstructor(Map.class).newInstance(hashingProperties);
-		} catch (Throwable t) {
-			logger.error(t.getMessage(), t);
-			throw new PasswordHasherInstantiationException(String.format("Error during the initialization of the Hasher '%s'", passwordHasher.name()), t);
+			ConcurrentMap<Map<HashingConfigurationProperties, String>, PasswordHasher> algorithmHashers = hashers.get(passwordHasher);
+			if (algorithmHashers == null)
+				algorithmHashers = hashers.computeIfAbsent(passwordHasher, type -> new ConcurrentHashMap<>());
+
+			// maps with the same entries are equal whatever the implementation, so the map of the caller can be used for the lookup
+			PasswordHasher hasher = algorithmHashers.get(hashingProperties);
+			if (hasher != null)
+				return hasher;
+			
+			Class<?> hasherClazz = instances.get(passwordHasher);
+			
+			try {
+				hasher = (PasswordHasher) hasherClazz.getConstructor(Map.class).newInstance(hashingProperties);
+				// the key is a copy, the map of the caller could be modified later
+				PasswordHasher existing = algorithmHashers.putIfAbsent(Collections.unmodifiableMap(new EnumMap<>(hashingProperties)), hasher);
+				created = existing == null;
+				return existing == null ? hasher : existing;
+			} catch (Throwable t) {
+				logger.error(t.getMessage(), t);
+				throw new PasswordHasherInstantiationException(String.format("Error during the initialization of the Hasher '%s'", passwordHasher.name()), t);
+			}
+		} finally {
+			HashingEvents.commitLookup(event, "hasher", passwordHasher, created);
 		}
 	}
 
+	/**
+	 * Default hasher together with the configuration from which it has been created
+	 */
+	private static final class DefaultHasher {
+
+		private final HashingConfiguration configuration;
+		private final PasswordHasher hasher;
+
+		private DefaultHasher(HashingConfiguration configuration, PasswordHasher hasher) {
+			this.configuration = configuration;
+			this.hasher = hasher;
+		}
+	}
 }
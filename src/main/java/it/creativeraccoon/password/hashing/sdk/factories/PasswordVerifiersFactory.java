@@ -1,11 +1,13 @@
 package it.creativeraccoon.password.hashing.sdk.factories;
 
 import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingEvents;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
 import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
 import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
-import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
 import it.creativeraccoon.password.hashing.sdk.verifiers.Argon2PasswordVerifier;
 import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,10 +15,15 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 
  * Factory returning a check method to be used
+ * <br><br>
+ * The verifiers are immutable and thread-safe, so every instance is created by reflection only once and then kept in a registry
+ * keyed by algorithm, since a verifier reads the version and the other parameters from the hash: the following requests are a lock-free read of a map.
  * @author ZeroBrushV2
  */
 public abstract class PasswordVerifiersFactory {
@@ -32,6 +39,11 @@ public abstract class PasswordVerifiersFactory {
 				}
 			
 	};
+
+	/**
+	 * Verifiers already created, by algorithm
+	 */
+	private static final ConcurrentMap<PasswordAlgorithms, PasswordVerifier> verifiers = new ConcurrentHashMap<>();
 	
 	/**
 	 * Method that restores the request of the verifier based on the string that represents the hashing of a user's password
@@ -46,16 +58,42 @@ public abstract class PasswordVerifiersFactory {
 			throw new IllegalArgumentException("The password cannot be empty");
 		
 		try {
-			Map<PasswordProperties, String> passwordProperties = PasswordEncodingUtils.decode(hashedPassword);
-			String hashingAlgorytm = passwordProperties.get(PasswordProperties.ALGORITHM);
-			PasswordAlgorithms hasherType = PasswordAlgorithms.getByLabel(hashingAlgorytm);
-			
-			Class<?> hasherClazz = instances.get(hasherType);
-		
-			return (PasswordVerifier) hasherClazz.getConstructor().newInstance();
-		} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+			return getInstance(PasswordEncodingUtils.parse(hashedPassword));
+		} catch (IllegalArgumentException e) {
 			logger.error(e.getMessage(), e);
 			throw new PasswordHasherInstantiationException("Error during the initialization of the verifier", e);
 		}
 	}
+	
+	/**
+	 * Method that restores the request of the verifier based on the hashed password already parsed,
+	 * the same {@link ParsedPasswordHash} can then be passed to {@link PasswordVerifier#verify(String, ParsedPasswordHash)} so that the string is parsed only once
+	 * 
+	 * @param parsedHash properties of the hashed password
+	 * @return Instance of a PasswordVerifier
+	 * @throws PasswordHasherInstantiationException Error during the instantiation of the verifier
+	 */
+	public static PasswordVerifier getInstance(@NonNull ParsedPasswordHash parsedHash) throws PasswordHasherInstantiationException {
+		Object event = HashingEvents.beginLookup();
+		boolean created = false;
+		try {
+			PasswordVerifier verifier = verifiers.get(parsedHash.getAlgorithm());
+			if (verifier != null)
+				return verifier;
+			
+			try {
+				Class<?> hasherClazz = instances.get(parsedHash.getAlgorithm());
+			
+				verifier = (PasswordVerifier) hasherClazz.getConstructor().newInstance();
+				PasswordVerifier existing = verifiers.putIfAbsent(parsedHash.getAlgorithm(), verifier);
+				created = existing == null;
+				return existing == null ? verifier : existing;
+			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+				logger.error(e.getMessage(), e);
+				throw new PasswordHasherInstantiationException("Error during the initialization of the verifier", e);
+			}
+		} finally {
+			HashingEvents.commitLookup(event, "verifier", parsedHash.getAlgorithm(), created);
+		}
+	}
 }
@@ -0,0 +1,166 @@
+package it.creativeraccoon.password.hashing.sdk.hashers;
+
+import org.bouncycastle.util.Arrays;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Memory matrix of Argon2, made up of blocks of 1024 bytes (128 words of 64 bits). <br>
+ * The engine never accesses the words directly but always through operations on whole blocks,
+ * in this way the matrix can be kept both on the heap and outside of it.
+ *
+ * @author ZeroBrushV2
+ */
+abstract class Argon2BlockMatrix {
+
+	static final int QWORDS_IN_BLOCK = 128;
+	static final int BLOCK_SIZE = QWORDS_IN_BLOCK * 8;
+
+	private final int blocks;
+
+	Argon2BlockMatrix(int blocks) {
+		this.blocks = blocks;
+	}
+
+	static Argon2BlockMatrix allocate(int blocks, boolean offHeap) {
+		return offHeap ? new OffHeap(blocks) : new Heap(blocks);
+	}
+
+	int getBlocks() {
+		return blocks;
+	}
+
+	long getSizeInBytes() {
+		return (long) blocks * BLOCK_SIZE;
+	}
+
+	/**
+	 * @return the word of the block at the given position
+	 */
+	abstract long getWord(int block, int word);
+
+	/**
+	 * target[targetOff..] = block a ^ block b
+	 */
+	abstract void xorBlocks(int a, int b, long[] target, int targetOff);
+
+	/**
+	 * block = source[sourceOff..], or block ^= source[sourceOff..] when withXor is true
+	 */
+	abstract void storeBlock(int block, long[] source, int sourceOff, boolean withXor);
+
+	/**
+	 * target[targetOff..] ^= block
+	 */
+	abstract void xorInto(int block, long[] target, int targetOff);
+
+	/**
+	 * Overwrites with zeros the whole matrix
+	 */
+	abstract void wipe();
+
+	private static final class Heap extends Argon2BlockMatrix {
+
+		private final long[] memory;
+
+		private Heap(int blocks) {
+			super(blocks);
+			long words = (long) blocks * QWORDS_IN_BLOCK;
+			if (words > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("The heap matrix cannot be larger than 16 GB");
+			this.memory = new long[(int) words];
+		}
+
+		@Override
+		long getWord(int block, int word) {
+			return memory[block * QWORDS_IN_BLOCK + word];
+		}
+
+		@Override
+		void xorBlocks(int a, int b, long[] target, int targetOff) {
+			int offsetA = a * QWORDS_IN_BLOCK;
+			int offsetB = b * QWORDS_IN_BLOCK;
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				target[targetOff + i] = memory[offsetA + i] ^ memory[offsetB + i];
+		}
+
+		@Override
+		void storeBlock(int block, long[] source, int sourceOff, boolean withXor) {
+			int offset = block * QWORDS_IN_BLOCK;
+			if (withXor) {
+				for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+					memory[offset + i] ^= source[sourceOff + i];
+			} else {
+				System.arraycopy(source, sourceOff, memory, offset, QWORDS_IN_BLOCK);
+			}
+		}
+
+		@Override
+		void xorInto(int block, long[] target, int targetOff) {
+			int offset = block * QWORDS_IN_BLOCK;
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				target[targetOff + i] ^= memory[offset + i];
+		}
+
+		@Override
+		void wipe() {
+			Arrays.fill(memory, 0L);
+		}
+	}
+
+	/**
+	 * Matrix allocated in a direct buffer, the content of the matrix is never copied on the heap except for the blocks being processed
+	 */
+	private static final class OffHeap extends Argon2BlockMatrix {
+
+		private final LongBuffer memory;
+
+		private OffHeap(int blocks) {
+			super(blocks);
+			if ((long) blocks * BLOCK_SIZE > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("The off-heap matrix cannot be larger than 2 GB");
+			this.memory = ByteBuffer.allocateDirect(blocks * BLOCK_SIZE).order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+
+		@Override
+		long getWord(int block, int word) {
+			return memory.get(block * QWORDS_IN_BLOCK + word);
+		}
+
+		@Override
+		void xorBlocks(int a, int b, long[] target, int targetOff) {
+			int offsetA = a * QWORDS_IN_BLOCK;
+			int offsetB = b * QWORDS_IN_BLOCK;
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				target[targetOff + i] = memory.get(offsetA + i) ^ memory.get(offsetB + i);
+		}
+
+		@Override
+		void storeBlock(int block, long[] source, int sourceOff, boolean withXor) {
+			int offset = block * QWORDS_IN_BLOCK;
+			if (withXor) {
+				for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+					memory.put(offset + i, memory.get(offset + i) ^ source[sourceOff + i]);
+			} else {
+				for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+					memory.put(offset + i, source[sourceOff + i]);
+			}
+		}
+
+		@Override
+		void xorInto(int block, long[] target, int targetOff) {
+			int offset = block * QWORDS_IN_BLOCK;
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				target[targetOff + i] ^= memory.get(offset + i);
+		}
+
+		@Override
+		void wipe() {
+			int size = memory.capacity();
+			for (int i = 0; i < size; i++)
+				memory.put(i, 0L);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package it.creativeraccoon.password.hashing.sdk.hashers;
+
+import it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of the Argon2 memory matrices used by the {@link ParallelArgon2Engine}. <br>
+ * The matrices are grouped by number of blocks: a hash with the same parameters of a previous one reuses its matrix
+ * instead of allocating again <i>memory_cost</i> KB, avoiding a large short-lived allocation for every hash.
+ * <br><br>
+ * Every matrix is overwritten with zeros when it is returned to the pool, the matrices that exceed the maximum idle size are discarded.
+ * The idle matrices are not operations admitted by the {@link MemoryBudgetScheduler}, so they are kept only within the memory
+ * of its budget not reserved by the operations in progress: when the scheduler gets close to its limit the pool is trimmed,
+ * and the memory of the idle and leased matrices together remains within the budget.
+ * Optionally the matrices can be allocated outside of the heap (direct buffers), in this case the memory of Argon2 is never seen by the garbage collector.
+ * <br><br>
+ * The hit rate and the bytes kept by the pool are exposed for monitoring.
+ *
+ * @author ZeroBrushV2
+ */
+public class Argon2BlockPool {
+
+	private final boolean offHeap;
+	private final long maxIdleBytes;
+
+	private final ConcurrentMap<Integer, Deque<Argon2BlockMatrix>> idleMatrices = new ConcurrentHashMap<>();
+	private final AtomicLong idleBytes = new AtomicLong();
+	private final AtomicLong leasedBytes = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong trimmed = new AtomicLong();
+
+	private Argon2BlockPool(Builder builder) {
+		this.offHeap = builder.offHeap;
+		this.maxIdleBytes = builder.maxIdleBytes;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns a matrix with the requested number of blocks, reusing an idle one when available
+	 */
+	Argon2BlockMatrix lease(int blocks) {
+		Deque<Argon2BlockMatrix> matrices = idleMatrices.get(blocks);
+		Argon2BlockMatrix matrix = matrices == null ? null : matrices.pollFirst();
+
+		if (matrix != null) {
+			hits.incrementAndGet();
+			idleBytes.addAndGet(-matrix.getSizeInBytes());
+		} else {
+			misses.incrementAndGet();
+			// the memory of the new matrix has been reserved by the caller, the idle matrices must leave room for it
+			trim(idleLimit(0));
+			matrix = Argon2BlockMatrix.allocate(blocks, offHeap);
+		}
+
+		leasedBytes.addAndGet(matrix.getSizeInBytes());
+		return matrix;
+	}
+
+	/**
+	 * Wipes the matrix and keeps it for the next hashes, if the maximum idle size allows it
+	 */
+	void release(Argon2BlockMatrix matrix) {
+		long size = matrix.getSizeInBytes();
+		leasedBytes.addAndGet(-size);
+		matrix.wipe();
+
+		// the memory of the matrix is still reserved by the caller, that releases it right after
+		long limit = idleLimit(size);
+		long current;
+		do {
+			current = idleBytes.get();
+			if (current + size > limit) {
+				trimmed.incrementAndGet();
+				return;
+			}
+		} while (!idleBytes.compareAndSet(current, current + size));
+
+		idleMatrices.computeIfAbsent(matrix.getBlocks(), blocks -> new ConcurrentLinkedDeque<>()).offerFirst(matrix);
+	}
+
+	/**
+	 * @param releasingBytes bytes of a matrix whose memory is about to be returned to the budget
+	 * @return the bytes that the idle matrices can occupy: the maximum idle size, at most the memory not reserved in the scheduler
+	 */
+	private long idleLimit(long releasingBytes) {
+		long availableBytes = MemoryBudgetScheduler.getDefault().getAvailableKb() * 1024;
+		return Math.min(maxIdleBytes, Math.max(0, availableBytes) + releasingBytes);
+	}
+
+	/**
+	 * Discards the least recently returned matrices until the idle ones occupy at most the given bytes
+	 */
+	private void trim(long limit) {
+		for (Deque<Argon2BlockMatrix> matrices : idleMatrices.values()) {
+			while (idleBytes.get() > limit) {
+				Argon2BlockMatrix matrix = matrices.pollLast();
+				if (matrix == null)
+					break;
+				idleBytes.addAndGet(-matrix.getSizeInBytes());
+				trimmed.incrementAndGet();
+			}
+			if (idleBytes.get() <= limit)
+				return;
+		}
+	}
+
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	public long getMaxIdleBytes() {
+		return maxIdleBytes;
+	}
+
+	/**
+	 * @return number of matrices reused from the pool
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of matrices allocated because the pool did not have one of the requested size
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of matrices discarded because of the maximum idle size or of the memory budget
+	 */
+	public long getTrimmed() {
+		return trimmed.get();
+	}
+
+	/**
+	 * @return fraction (between 0 and 1) of the requests satisfied by the pool
+	 */
+	public double getHitRate() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * @return bytes of the matrices kept in the pool and not used by any hash
+	 */
+	public long getIdleBytes() {
+		return idleBytes.get();
+	}
+
+	/**
+	 * @return bytes of the matrices used by the hashes in progress
+	 */
+	public long getLeasedBytes() {
+		return leasedBytes.get();
+	}
+
+	/**
+	 * @return bytes of all the matrices allocated through the pool and still reachable, idle or in use
+	 */
+	public long getResidentBytes() {
+		return idleBytes.get() + leasedBytes.get();
+	}
+
+	/**
+	 * Builder of the {@link Argon2BlockPool}
+	 */
+	public static final class Builder {
+
+		private boolean offHeap = false;
+		private long maxIdleBytes = 128L * 1024 * 1024;
+
+		private Builder() {}
+
+		/**
+		 * @param offHeap true to allocate the matrices in direct buffers outside of the heap, default false
+		 */
+		public Builder offHeap(boolean offHeap) {
+			this.offHeap = offHeap;
+			return this;
+		}
+
+		/**
+		 * @param maxIdleBytes maximum bytes of the matrices kept in the pool when not used, default 128 MB
+		 */
+		public Builder maxIdleBytes(long maxIdleBytes) {
+			if (maxIdleBytes < 0)
+				throw new IllegalArgumentException("The maximum idle size cannot be negative");
+			this.maxIdleBytes = maxIdleBytes;
+			return this;
+		}
+
+		public Argon2BlockPool build() {
+			return new Argon2BlockPool(this);
+		}
+	}
+}
@@ -1,12 +1,14 @@
 package it.creativeraccoon.password.hashing.sdk.hashers;
 
+import it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingEvents;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingMetrics;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingOperation;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingOutcome;
 import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
 import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
-import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
-import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
 import org.bouncycastle.crypto.params.Argon2Parameters;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 
@@ -26,8 +28,6 @@ import java.util.Map;
  */
 public class Argon2PasswordHasher extends PasswordHasherBase {
 
-	private static final Logger logger = LoggerFactory.getLogger(Argon2PasswordHasher.class);
-
 	public Argon2PasswordHasher(Map<HashingConfigurationProperties, String> securityProperties) {
 		super(securityProperties);
 		this.algorithm = PasswordAlgorithms.ARGON2.getLabel();
@@ -45,21 +45,35 @@ public class Argon2PasswordHasher extends PasswordHasherBase {
 
 	
 	@Override
-	public String hash(String userPassword) {
-		logger.info("hashing password...");
-		char[] password = userPassword.toCharArray();
-		
-		byte[] salt = generateRandomSalt(saltSize);
-		
+	protected byte[] hash(byte[] userPassword, byte[] salt) {
 		Argon2Parameters.Builder builder = initArgon(salt);
-		Argon2BytesGenerator gen = new Argon2BytesGenerator();
-
-        gen.init(builder.build());
 
         byte[] hashedPassword = new byte[DEFAULT_OUTPUTLEN];
-        gen.generateBytes(password, hashedPassword, 0, hashedPassword.length);
+        long memoryKb = MemoryBudgetScheduler.argon2MemoryKb(memoryCost, threads);
+        MemoryBudgetScheduler scheduler = MemoryBudgetScheduler.getDefault();
+        HashingOutcome outcome = HashingOutcome.FAILURE;
+        Object event = HashingEvents.beginHash();
+        long start = System.nanoTime();
+        long computeStart = start;
+        try {
+        	try {
+        		scheduler.acquire(memoryKb);
+        	} finally {
+        		computeStart = System.nanoTime();
+        	}
+        	try {
+        		ParallelArgon2Engine.getDefault().generateBytes(builder.build(), userPassword, hashedPassword, 0, hashedPassword.length);
+        	} finally {
+        		scheduler.release(memoryKb);
+        	}
+        	outcome = HashingOutcome.SUCCESS;
+        } finally {
+        	long queueWait = PasswordHashingExecutor.getCurrentQueueWaitNanos() + computeStart - start;
+        	HashingMetrics.record(HashingOperation.HASH, memoryCost, iterations, threads, queueWait, System.nanoTime() - computeStart, outcome);
+        	HashingEvents.commitHash(event, memoryCost, iterations, threads, salt.length, encoding, queueWait, outcome);
+        }
         
-        return PasswordEncodingUtils.encode(generateMap(hashedPassword, salt));
+        return hashedPassword;
 	}
 
 	private Argon2Parameters.Builder initArgon(byte[] salt) {
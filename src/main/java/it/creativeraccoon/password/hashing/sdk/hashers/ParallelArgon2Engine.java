@@ -0,0 +1,564 @@
+package it.creativeraccoon.password.hashing.sdk.hashers;
+
+import lombok.NonNull;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Pack;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implementation of Argon2 that fills the lanes of each segment at the same time. <br>
+ * The output is byte-identical to the {@link org.bouncycastle.crypto.generators.Argon2BytesGenerator} of BouncyCastle
+ * (same specification, RFC 9106), therefore the passwords already hashed continue to be verified.
+ * <br><br>
+ * Argon2 divides the memory in <i>p</i> lanes and every pass in 4 slices: inside a slice the segments of the different lanes
+ * do not depend on each other, so they are filled in parallel on the pool of the engine, with a synchronization point
+ * at the end of each slice as required by the specification.
+ * <br><br>
+ * The thread calling the engine always takes part in the filling: if the pool is busy (for example with many hashes in progress)
+ * the calling thread fills all the lanes by itself, so the engine never waits for a free thread of the pool.
+ * <br><br>
+ * The memory matrix is leased from an {@link Argon2BlockPool} and returned to it (wiped) at the end of the hash,
+ * apart from the pool the engine does not keep any state between the calls and can be shared by all the threads.
+ *
+ * @author ZeroBrushV2
+ */
+public class ParallelArgon2Engine {
+
+	private static final int BLOCK_SIZE = Argon2BlockMatrix.BLOCK_SIZE;
+	private static final int QWORDS_IN_BLOCK = Argon2BlockMatrix.QWORDS_IN_BLOCK;
+	private static final int ADDRESSES_IN_BLOCK = 128;
+	private static final int PREHASH_DIGEST_LENGTH = 64;
+	private static final int PREHASH_SEED_LENGTH = 72;
+	private static final int SYNC_POINTS = 4;
+	private static final int MIN_OUTLEN = 4;
+	private static final long M32L = 0xFFFFFFFFL;
+
+	/**
+	 * Scratch space of every lane: R, Z, address block and input block
+	 */
+	private static final int SCRATCH_R = 0;
+	private static final int SCRATCH_Z = QWORDS_IN_BLOCK;
+	private static final int SCRATCH_ADDRESS = 2 * QWORDS_IN_BLOCK;
+	private static final int SCRATCH_INPUT = 3 * QWORDS_IN_BLOCK;
+	private static final int SCRATCH_SIZE = 4 * QWORDS_IN_BLOCK;
+
+	private static final ForkJoinPool defaultPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+	private static volatile ParallelArgon2Engine defaultInstance = new ParallelArgon2Engine(defaultPool, Argon2BlockPool.builder().build());
+
+	private final Executor executor;
+	private final int maxHelpers;
+	private final Argon2BlockPool blockPool;
+
+	/**
+	 * @param pool pool on which the lanes are filled, at most one task for each thread of the pool is submitted for every slice
+	 * @param blockPool pool from which the memory matrices are leased
+	 */
+	public ParallelArgon2Engine(@NonNull ForkJoinPool pool, @NonNull Argon2BlockPool blockPool) {
+		this(pool, pool.getParallelism(), blockPool);
+	}
+
+	/**
+	 * @param executor pool on which the lanes are filled, its threads should not be used for blocking operations
+	 * @param maxHelpers maximum number of tasks submitted to the pool for every slice, in addition to the calling thread
+	 * @param blockPool pool from which the memory matrices are leased
+	 */
+	public ParallelArgon2Engine(@NonNull Executor executor, int maxHelpers, @NonNull Argon2BlockPool blockPool) {
+		if (maxHelpers < 0)
+			throw new IllegalArgumentException("The number of helpers cannot be negative");
+		this.executor = executor;
+		this.maxHelpers = maxHelpers;
+		this.blockPool = blockPool;
+	}
+
+	/**
+	 * Method that returns the engine shared by the hashers and verifiers, the lanes are filled on a pool with as many threads as the cores
+	 *
+	 * @return the default engine
+	 */
+	public static ParallelArgon2Engine getDefault() {
+		return defaultInstance;
+	}
+
+	/**
+	 * Method that replaces the engine shared by the hashers and verifiers, for example to use a pool of off-heap matrices:
+	 * <pre>
+	 * ParallelArgon2Engine.setDefault(ParallelArgon2Engine.withBlockPool(Argon2BlockPool.builder().offHeap(true).build()));
+	 * </pre>
+	 *
+	 * @param engine the new default engine
+	 */
+	public static void setDefault(@NonNull ParallelArgon2Engine engine) {
+		defaultInstance = engine;
+	}
+
+	/**
+	 * Method that creates an engine that fills the lanes on the default pool of threads and leases the matrices from the given pool
+	 *
+	 * @param blockPool pool from which the memory matrices are leased
+	 * @return a new engine
+	 */
+	public static ParallelArgon2Engine withBlockPool(@NonNull Argon2BlockPool blockPool) {
+		return new ParallelArgon2Engine(defaultPool, blockPool);
+	}
+
+	public Argon2BlockPool getBlockPool() {
+		return blockPool;
+	}
+
+	/**
+	 * Method that generates the hash of a password, the password is converted with the converter of the parameters
+	 *
+	 * @param parameters Argon2 parameters
+	 * @param password password to be hashed
+	 * @param out array on which the hash is written
+	 * @param outOff offset of the hash in the array
+	 * @param outLen length of the hash
+	 * @return the length of the hash
+	 */
+	public int generateBytes(@NonNull Argon2Parameters parameters, @NonNull char[] password, byte[] out, int outOff, int outLen) {
+		byte[] passwordBytes = parameters.getCharToByteConverter().convert(password);
+		try {
+			return generateBytes(parameters, passwordBytes, out, outOff, outLen);
+		} finally {
+			Arrays.fill(passwordBytes, (byte) 0);
+		}
+	}
+
+	/**
+	 * Method that generates the hash of a password
+	 *
+	 * @param parameters Argon2 parameters
+	 * @param password password to be hashed
+	 * @param out array on which the hash is written
+	 * @param outOff offset of the hash in the array
+	 * @param outLen length of the hash
+	 * @return the length of the hash
+	 */
+	public int generateBytes(@NonNull Argon2Parameters parameters, @NonNull byte[] password, @NonNull byte[] out, int outOff, int outLen) {
+		validate(parameters, outLen);
+
+		Instance instance = new Instance(parameters, blockPool);
+		try {
+			byte[] tmpBlockBytes = new byte[BLOCK_SIZE];
+			instance.initialize(tmpBlockBytes, password, outLen);
+			fillMemoryBlocks(instance);
+			instance.digest(tmpBlockBytes, out, outOff, outLen);
+			Arrays.fill(tmpBlockBytes, (byte) 0);
+		} finally {
+			instance.release();
+		}
+		return outLen;
+	}
+
+	private static void validate(Argon2Parameters parameters, int outLen) {
+		if (parameters.getVersion() != Argon2Parameters.ARGON2_VERSION_10 && parameters.getVersion() != Argon2Parameters.ARGON2_VERSION_13)
+			throw new IllegalArgumentException("Unknown Argon2 version " + parameters.getVersion());
+
+		if (parameters.getType() != Argon2Parameters.ARGON2_d && parameters.getType() != Argon2Parameters.ARGON2_i && parameters.getType() != Argon2Parameters.ARGON2_id)
+			throw new IllegalArgumentException("Unknown Argon2 type " + parameters.getType());
+
+		if (parameters.getLanes() < 1 || parameters.getLanes() > (1 << 24) - 1)
+			throw new IllegalArgumentException("Invalid number of lanes " + parameters.getLanes());
+
+		if (parameters.getIterations() < 1)
+			throw new IllegalArgumentException("Iterations must be at least 1");
+
+		if (outLen < MIN_OUTLEN)
+			throw new IllegalArgumentException("Output length must be at least " + MIN_OUTLEN);
+	}
+
+	private void fillMemoryBlocks(Instance instance) {
+		for (int pass = 0; pass < instance.iterations; pass++) {
+			for (int slice = 0; slice < SYNC_POINTS; slice++) {
+				if (instance.lanes == 1 || maxHelpers == 0) {
+					for (int lane = 0; lane < instance.lanes; lane++)
+						instance.fillSegment(pass, lane, slice);
+				} else {
+					fillSliceInParallel(instance, pass, slice);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills all the segments of a slice, the method returns only when every lane has been filled (synchronization point)
+	 */
+	private void fillSliceInParallel(Instance instance, int pass, int slice) {
+		SliceTask task = new SliceTask(instance, pass, slice, Thread.currentThread());
+
+		int helpers = Math.min(instance.lanes - 1, maxHelpers);
+		try {
+			for (int helper = 0; helper < helpers; helper++)
+				executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// a bounded executor is full: the lanes not taken by the helpers already submitted are filled by this thread
+		} finally {
+			task.run();
+			awaitLanes(task);
+		}
+
+		if (task.failure != null)
+			throw new IllegalStateException("Error during the filling of the Argon2 memory", task.failure);
+	}
+
+	/**
+	 * Waits until every lane of the slice has been filled. The helpers still write in the matrix, so the wait cannot end early:
+	 * an interrupt is cleared (park would return immediately while it is set) and restored when all the lanes are filled
+	 */
+	private static void awaitLanes(SliceTask task) {
+		boolean interrupted = false;
+		while (task.remaining.get() > 0) {
+			LockSupport.park(task);
+			if (Thread.interrupted())
+				interrupted = true;
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private static final class SliceTask implements Runnable {
+		private final Instance instance;
+		private final int pass;
+		private final int slice;
+		private final Thread waiter;
+		private final AtomicInteger nextLane = new AtomicInteger();
+		private final AtomicInteger remaining;
+		private volatile Throwable failure;
+
+		private SliceTask(Instance instance, int pass, int slice, Thread waiter) {
+			this.instance = instance;
+			this.pass = pass;
+			this.slice = slice;
+			this.waiter = waiter;
+			this.remaining = new AtomicInteger(instance.lanes);
+		}
+
+		@Override
+		public void run() {
+			int lane;
+			while ((lane = nextLane.getAndIncrement()) < instance.lanes) {
+				try {
+					instance.fillSegment(pass, lane, slice);
+				} catch (Throwable t) {
+					failure = t;
+				} finally {
+					if (remaining.decrementAndGet() == 0)
+						LockSupport.unpark(waiter);
+				}
+			}
+		}
+	}
+
+	/**
+	 * State of a single hash: memory matrix and scratch blocks of the lanes
+	 */
+	private static final class Instance {
+		private final Argon2Parameters parameters;
+		private final Argon2BlockPool blockPool;
+		private final int lanes;
+		private final int iterations;
+		private final int segmentLength;
+		private final int laneLength;
+		private final int memoryBlocks;
+		private final Argon2BlockMatrix memory;
+		private final long[][] scratch;
+
+		private Instance(Argon2Parameters parameters, Argon2BlockPool blockPool) {
+			this.blockPool = blockPool;
+			this.parameters = parameters;
+			this.lanes = parameters.getLanes();
+			this.iterations = parameters.getIterations();
+
+			// Minimum memoryBlocks = 8L blocks, where L is the number of lanes, all the segments have the same length
+			int blocks = Math.max(parameters.getMemory(), 2 * SYNC_POINTS * lanes);
+			this.segmentLength = blocks / (SYNC_POINTS * lanes);
+			this.laneLength = segmentLength * SYNC_POINTS;
+			this.memoryBlocks = lanes * laneLength;
+			this.memory = blockPool.lease(memoryBlocks);
+			this.scratch = new long[lanes][SCRATCH_SIZE];
+		}
+
+		private void release() {
+			blockPool.release(memory);
+			for (long[] laneScratch : scratch)
+				Arrays.fill(laneScratch, 0L);
+		}
+
+		/**
+		 * H0 = H64(p, τ, m, t, v, y, |P|, P, |S|, S, |K|, K, |X|, X), then the first two blocks of each lane
+		 */
+		private void initialize(byte[] tmpBlockBytes, byte[] password, int outputLength) {
+			Blake2bDigest blake = new Blake2bDigest(PREHASH_DIGEST_LENGTH * 8);
+
+			int[] values = { lanes, outputLength, parameters.getMemory(), iterations, parameters.getVersion(), parameters.getType() };
+			Pack.intToLittleEndian(values, tmpBlockBytes, 0);
+			blake.update(tmpBlockBytes, 0, values.length * 4);
+
+			addByteString(tmpBlockBytes, blake, password);
+			addByteString(tmpBlockBytes, blake, parameters.getSalt());
+			addByteString(tmpBlockBytes, blake, parameters.getSecret());
+			addByteString(tmpBlockBytes, blake, parameters.getAdditional());
+
+			byte[] initialHashWithZeros = new byte[PREHASH_SEED_LENGTH];
+			blake.doFinal(initialHashWithZeros, 0);
+
+			byte[] initialHashWithOnes = new byte[PREHASH_SEED_LENGTH];
+			System.arraycopy(initialHashWithZeros, 0, initialHashWithOnes, 0, PREHASH_DIGEST_LENGTH);
+			initialHashWithOnes[PREHASH_DIGEST_LENGTH] = 1;
+
+			long[] block = scratch[0];
+			for (int lane = 0; lane < lanes; lane++) {
+				Pack.intToLittleEndian(lane, initialHashWithZeros, PREHASH_DIGEST_LENGTH + 4);
+				Pack.intToLittleEndian(lane, initialHashWithOnes, PREHASH_DIGEST_LENGTH + 4);
+
+				hash(initialHashWithZeros, tmpBlockBytes, 0, BLOCK_SIZE);
+				Pack.littleEndianToLong(tmpBlockBytes, 0, block, 0, QWORDS_IN_BLOCK);
+				memory.storeBlock(lane * laneLength, block, 0, false);
+
+				hash(initialHashWithOnes, tmpBlockBytes, 0, BLOCK_SIZE);
+				Pack.littleEndianToLong(tmpBlockBytes, 0, block, 0, QWORDS_IN_BLOCK);
+				memory.storeBlock(lane * laneLength + 1, block, 0, false);
+			}
+
+			Arrays.fill(initialHashWithZeros, (byte) 0);
+			Arrays.fill(initialHashWithOnes, (byte) 0);
+		}
+
+		private void fillSegment(int pass, int lane, int slice) {
+			long[] laneScratch = scratch[lane];
+
+			boolean dataIndependentAddressing = parameters.getType() == Argon2Parameters.ARGON2_i
+					|| (parameters.getType() == Argon2Parameters.ARGON2_id && pass == 0 && slice < SYNC_POINTS / 2);
+			boolean firstSlice = pass == 0 && slice == 0;
+			// the first two blocks of each lane have already been generated
+			int startingIndex = firstSlice ? 2 : 0;
+			int currentOffset = lane * laneLength + slice * segmentLength + startingIndex;
+			int prevOffset = currentOffset % laneLength == 0 ? currentOffset + laneLength - 1 : currentOffset - 1;
+			boolean withXor = !(pass == 0 || parameters.getVersion() == Argon2Parameters.ARGON2_VERSION_10);
+
+			if (dataIndependentAddressing) {
+				Arrays.fill(laneScratch, SCRATCH_ADDRESS, SCRATCH_SIZE, 0L);
+				laneScratch[SCRATCH_INPUT] = pass & M32L;
+				laneScratch[SCRATCH_INPUT + 1] = lane & M32L;
+				laneScratch[SCRATCH_INPUT + 2] = slice & M32L;
+				laneScratch[SCRATCH_INPUT + 3] = memoryBlocks & M32L;
+				laneScratch[SCRATCH_INPUT + 4] = iterations & M32L;
+				laneScratch[SCRATCH_INPUT + 5] = parameters.getType() & M32L;
+
+				if (firstSlice)
+					nextAddresses(laneScratch);
+			}
+
+			for (int index = startingIndex; index < segmentLength; index++) {
+				long pseudoRandom;
+				if (dataIndependentAddressing) {
+					int addressIndex = index % ADDRESSES_IN_BLOCK;
+					if (addressIndex == 0)
+						nextAddresses(laneScratch);
+					pseudoRandom = laneScratch[SCRATCH_ADDRESS + addressIndex];
+				} else {
+					pseudoRandom = memory.getWord(prevOffset, 0);
+				}
+
+				// Can not reference other lanes in the first slice
+				int refLane = firstSlice ? lane : (int) ((pseudoRandom >>> 32) % lanes);
+				int refColumn = getRefColumn(pass, slice, index, pseudoRandom, refLane == lane);
+
+				fillBlock(laneScratch, prevOffset, laneLength * refLane + refColumn, currentOffset, withXor);
+
+				prevOffset = currentOffset;
+				currentOffset++;
+			}
+		}
+
+		private int getRefColumn(int pass, int slice, int index, long pseudoRandom, boolean sameLane) {
+			int referenceAreaSize;
+			int startPosition;
+
+			if (pass == 0) {
+				startPosition = 0;
+				referenceAreaSize = sameLane
+						? slice * segmentLength + index - 1
+						: slice * segmentLength + (index == 0 ? -1 : 0);
+			} else {
+				startPosition = ((slice + 1) * segmentLength) % laneLength;
+				referenceAreaSize = sameLane
+						? laneLength - segmentLength + index - 1
+						: laneLength - segmentLength + (index == 0 ? -1 : 0);
+			}
+
+			long relativePosition = pseudoRandom & M32L;
+			relativePosition = (relativePosition * relativePosition) >>> 32;
+			relativePosition = referenceAreaSize - 1 - ((referenceAreaSize * relativePosition) >>> 32);
+
+			return (int) (startPosition + relativePosition) % laneLength;
+		}
+
+		/**
+		 * current = (prev ^ ref) ^ G(prev ^ ref), xored with the previous content of current when required
+		 */
+		private void fillBlock(long[] laneScratch, int prev, int ref, int current, boolean withXor) {
+			memory.xorBlocks(prev, ref, laneScratch, SCRATCH_R);
+			System.arraycopy(laneScratch, SCRATCH_R, laneScratch, SCRATCH_Z, QWORDS_IN_BLOCK);
+
+			applyBlake(laneScratch, SCRATCH_Z);
+
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				laneScratch[SCRATCH_Z + i] ^= laneScratch[SCRATCH_R + i];
+
+			memory.storeBlock(current, laneScratch, SCRATCH_Z, withXor);
+		}
+
+		/**
+		 * address = G(G(0, input), 0) after having incremented the counter of the input block
+		 */
+		private static void nextAddresses(long[] laneScratch) {
+			laneScratch[SCRATCH_INPUT + 6]++;
+			compressInto(laneScratch, SCRATCH_INPUT, SCRATCH_ADDRESS);
+			compressInto(laneScratch, SCRATCH_ADDRESS, SCRATCH_ADDRESS);
+		}
+
+		private static void compressInto(long[] laneScratch, int source, int target) {
+			System.arraycopy(laneScratch, source, laneScratch, SCRATCH_Z, QWORDS_IN_BLOCK);
+			applyBlake(laneScratch, SCRATCH_Z);
+			for (int i = 0; i < QWORDS_IN_BLOCK; i++)
+				laneScratch[target + i] = laneScratch[source + i] ^ laneScratch[SCRATCH_Z + i];
+		}
+
+		private void digest(byte[] tmpBlockBytes, byte[] out, int outOff, int outLen) {
+			long[] finalBlock = scratch[0];
+			Arrays.fill(finalBlock, 0, QWORDS_IN_BLOCK, 0L);
+
+			// XOR the last blocks of the lanes
+			for (int lane = 0; lane < lanes; lane++)
+				memory.xorInto(lane * laneLength + (laneLength - 1), finalBlock, 0);
+
+			Pack.longToLittleEndian(finalBlock, 0, QWORDS_IN_BLOCK, tmpBlockBytes, 0);
+			hash(tmpBlockBytes, out, outOff, outLen);
+		}
+	}
+
+	private static void addByteString(byte[] tmpBlockBytes, Blake2bDigest digest, byte[] octets) {
+		int length = octets == null ? 0 : octets.length;
+		Pack.intToLittleEndian(length, tmpBlockBytes, 0);
+		digest.update(tmpBlockBytes, 0, 4);
+		if (octets != null)
+			digest.update(octets, 0, octets.length);
+	}
+
+	/**
+	 * H' - variable length hash function
+	 */
+	private static void hash(byte[] input, byte[] out, int outOff, int outLen) {
+		byte[] outLenBytes = Pack.intToLittleEndian(outLen);
+		int blake2bLength = 64;
+
+		if (outLen <= blake2bLength) {
+			Blake2bDigest blake = new Blake2bDigest(outLen * 8);
+			blake.update(outLenBytes, 0, outLenBytes.length);
+			blake.update(input, 0, input.length);
+			blake.doFinal(out, outOff);
+			return;
+		}
+
+		Blake2bDigest digest = new Blake2bDigest(blake2bLength * 8);
+		byte[] outBuffer = new byte[blake2bLength];
+
+		// V1
+		digest.update(outLenBytes, 0, outLenBytes.length);
+		digest.update(input, 0, input.length);
+		digest.doFinal(outBuffer, 0);
+
+		int halfLen = blake2bLength / 2;
+		int outPos = outOff;
+		System.arraycopy(outBuffer, 0, out, outPos, halfLen);
+		outPos += halfLen;
+
+		int r = ((outLen + 31) / 32) - 2;
+
+		// V2 to Vr
+		for (int i = 2; i <= r; i++, outPos += halfLen) {
+			digest.update(outBuffer, 0, outBuffer.length);
+			digest.doFinal(outBuffer, 0);
+			System.arraycopy(outBuffer, 0, out, outPos, halfLen);
+		}
+
+		// Vr+1
+		int lastLength = outLen - 32 * r;
+		digest = new Blake2bDigest(lastLength * 8);
+		digest.update(outBuffer, 0, outBuffer.length);
+		digest.doFinal(out, outPos);
+
+		Arrays.fill(outBuffer, (byte) 0);
+	}
+
+	/**
+	 * Applies the BlaMka round on the columns and then on the rows of the block that starts at the given offset
+	 */
+	private static void applyBlake(long[] v, int offset) {
+		// columns of 64-bit words: (0,1,...,15), then (16,17,..31)... finally (112,113,...127)
+		for (int i = 0; i < 8; i++) {
+			int i16 = offset + 16 * i;
+			roundFunction(v,
+					i16, i16 + 1, i16 + 2, i16 + 3,
+					i16 + 4, i16 + 5, i16 + 6, i16 + 7,
+					i16 + 8, i16 + 9, i16 + 10, i16 + 11,
+					i16 + 12, i16 + 13, i16 + 14, i16 + 15);
+		}
+
+		// rows of 64-bit words: (0,1,16,17,...112,113), then (2,3,18,19,...,114,115).. finally (14,15,30,31,...,126,127)
+		for (int i = 0; i < 8; i++) {
+			int i2 = offset + 2 * i;
+			roundFunction(v,
+					i2, i2 + 1, i2 + 16, i2 + 17,
+					i2 + 32, i2 + 33, i2 + 48, i2 + 49,
+					i2 + 64, i2 + 65, i2 + 80, i2 + 81,
+					i2 + 96, i2 + 97, i2 + 112, i2 + 113);
+		}
+	}
+
+	private static void roundFunction(long[] v,
+									  int v0, int v1, int v2, int v3,
+									  int v4, int v5, int v6, int v7,
+									  int v8, int v9, int v10, int v11,
+									  int v12, int v13, int v14, int v15) {
+		F(v, v0, v4, v8, v12);
+		F(v, v1, v5, v9, v13);
+		F(v, v2, v6, v10, v14);
+		F(v, v3, v7, v11, v15);
+
+		F(v, v0, v5, v10, v15);
+		F(v, v1, v6, v11, v12);
+		F(v, v2, v7, v8, v13);
+		F(v, v3, v4, v9, v14);
+	}
+
+	private static void F(long[] v, int a, int b, int c, int d) {
+		quarterRound(v, a, b, d, 32);
+		quarterRound(v, c, d, b, 24);
+		quarterRound(v, a, b, d, 16);
+		quarterRound(v, c, d, b, 63);
+	}
+
+	/**
+	 * a = a + b + 2 * aL * bL, c = (c ^ a) >>> s
+	 */
+	private static void quarterRound(long[] v, int x, int y, int z, int s) {
+		long a = v[x];
+		long b = v[y];
+		long c = v[z];
+
+		a += b + 2 * (a & M32L) * (b & M32L);
+		c = Long.rotateRight(c ^ a, s);
+
+		v[x] = a;
+		v[z] = c;
+	}
+}
@@ -1,8 +1,16 @@
 package it.creativeraccoon.password.hashing.sdk.hashers;
 
+import it.creativeraccoon.password.hashing.sdk.engine.HashingPriority;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 
@@ -19,13 +27,122 @@ public interface PasswordHasher {
 	 * @return a string that represents the protected password and that also includes all ownership with which it was generated
 	 */
 	public String hash(String userPassword);
+
+	/**
+	 * Method that carries out the User's password hashing without creating a string of the password. <br>
+	 * The array of the caller is not modified, the copies made for the hashing are wiped by the implementations of the SDK
+	 * (the default implementation creates a string for the hashers that do not support the arrays).
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @return a string that represents the protected password and that also includes all ownership with which it was generated
+	 */
+	public default String hash(char[] userPassword) {
+		return hash(new String(userPassword));
+	}
+
+	/**
+	 * Method that carries out the hashing of a password given as UTF-8 bytes, without creating a string of the password
+	 * 
+	 * @param userPassword UTF-8 bytes of the password inserted by UI or by a toolkit to record a user to the platform
+	 * @return a string that represents the protected password and that also includes all ownership with which it was generated
+	 */
+	public default String hash(byte[] userPassword) {
+		return hash(new String(userPassword, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Method that carries out the User's password hashing and appends the string to be saved in the DB to the builder of the caller
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @param target builder to which the hashed password is appended
+	 */
+	public default void hash(char[] userPassword, StringBuilder target) {
+		target.append(hash(userPassword));
+	}
+
+	/**
+	 * Method that carries out the User's password hashing and writes the binary format ({@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)})
+	 * at the current position of the buffer of the caller, the position is moved after the hash
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @param target buffer on which the hashed password is written
+	 * @return the number of bytes written
+	 */
+	public default int hash(char[] userPassword, ByteBuffer target) {
+		ParsedPasswordHash parsedHash = PasswordEncodingUtils.parse(hash(userPassword));
+		PasswordEncodingUtils.encodeBinary(parsedHash, target);
+		return PasswordEncodingUtils.binaryLength(parsedHash);
+	}
+
+	/**
+	 * Method that carries out the User's password hashing on the {@link PasswordHashingExecutor#getDefault()}, without blocking the calling thread
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @return the future completed with the string returned by {@link #hash(String)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException} if the executor refuses the operation
+	 */
+	public default CompletableFuture<String> hashAsync(String userPassword) {
+		return PasswordHashingExecutor.getDefault().submit(() -> hash(userPassword));
+	}
+
+	/**
+	 * Method that carries out the User's password hashing on the {@link PasswordHashingExecutor#getDefault()} in the given priority lane,
+	 * the bulk operations (imports, provisioning, rehash) should use {@link HashingPriority#BACKGROUND} to not slow down the logins
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @param priority lane of the operation
+	 * @return the future completed with the string returned by {@link #hash(String)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException} if the executor refuses the operation
+	 */
+	public default CompletableFuture<String> hashAsync(String userPassword, HashingPriority priority) {
+		return PasswordHashingExecutor.getDefault().submit(() -> hash(userPassword), priority);
+	}
+
+	/**
+	 * Method that carries out the User's password hashing on the {@link PasswordHashingExecutor#getDefault()}, waiting for the result at most for the given time. <br>
+	 * If the hash cannot be completed in time it is not computed at all.
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @param timeout maximum time within which the hash is expected
+	 * @param unit unit of the timeout
+	 * @return the string returned by {@link #hash(String)}
+	 * @throws it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException if the hash is not available in time
+	 */
+	public default String hash(String userPassword, long timeout, TimeUnit unit) {
+		return PasswordHashingExecutor.getDefault().invoke(() -> hash(userPassword), timeout, unit);
+	}
+
+	/**
+	 * Method that carries out the User's password hashing on the {@link PasswordHashingExecutor#getDefault()}, without blocking the calling thread
+	 * 
+	 * @param userPassword password inserted by UI or by a toolkit to record a user to the platform
+	 * @param timeout maximum time from now within which the hash must be completed
+	 * @param unit unit of the timeout
+	 * @return the future completed with the string returned by {@link #hash(String)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException} if the hash cannot be completed in time
+	 */
+	public default CompletableFuture<String> hashAsync(String userPassword, long timeout, TimeUnit unit) {
+		return PasswordHashingExecutor.getDefault().submit(() -> hash(userPassword), timeout, unit);
+	}
 	
 
 	/**
-	 * Generates an alphanumeric random password using {@link SecureRandom}. <br>
+	 * Method that checks if a saved hash has been created with parameters different from the ones of this hasher
+	 * (algorithm, version, memory cost, iterations, threads, salt size or hash size), both weaker and more expensive
+	 * 
+	 * @param parsedHash the hash saved in the DB
+	 * @return true if the password should be hashed again with this hasher, by default false
+	 */
+	public default boolean needsRehash(ParsedPasswordHash parsedHash) {
+		return false;
+	}
+
+	/**
+	 * Generates an alphanumeric random password using {@link RandomSource#getDefault()}. <br>
 	 * Length may not be inserted (the default value will be used); <br><br>
 	 * 
 	 * The random generation can be customized for each hasher through the override of this method.
+	 * To generate the passwords of many users in parallel use the {@link PasswordProvisioner}.
 	 * 
 	 * @param length Length of the password to be generated, default 16.
 	 * @return Pair, the string present in the pair Left is the light password (to be sent/showing the user concerned)
@@ -34,7 +151,7 @@ public interface PasswordHasher {
 	public default Pair<String, String> generateRandomPassword(Integer length) {
 		final String chars = "!@ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
 	     int len = length == null ? 16 : length;
-	     SecureRandom random = new SecureRandom();
+	     RandomSource random = RandomSource.getDefault();
 	     StringBuilder sb = new StringBuilder(); 
 	 
 	     for (int i = 0; i < len; i++){
@@ -1,15 +1,23 @@
 package it.creativeraccoon.password.hashing.sdk.hashers;
 
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
 import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
 import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
+import lombok.NonNull;
 import org.bouncycastle.util.encoders.Base64;
 
-import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Basic class that will have to be extended by all the hashers.
+ * The subclasses implement only {@link #hash(byte[], byte[])}, the encoding of the result and the handling of the password buffers are shared.
  * @author ZeroBrushV2
  */
 public abstract class PasswordHasherBase implements PasswordHasher {
@@ -21,16 +29,112 @@ public abstract class PasswordHasherBase implements PasswordHasher {
 	protected Integer iterations;
 	protected Integer threads;
 	protected Integer saltSize;
+	protected HashEncodingFormat encoding = HashEncodingFormat.LEGACY;
 	
 	public PasswordHasherBase(Map<HashingConfigurationProperties, String> securityProperties) {
 		this.memoryCost = Integer.valueOf(securityProperties.get(HashingConfigurationProperties.MEMORY_COST));
 		this.iterations = Integer.valueOf(securityProperties.get(HashingConfigurationProperties.ITERATIONS));
 		this.threads = Integer.valueOf(securityProperties.get(HashingConfigurationProperties.THREADS));
 		this.saltSize = Integer.valueOf(securityProperties.get(HashingConfigurationProperties.SALT_SIZE));
+
+		String encodingLabel = securityProperties.get(HashingConfigurationProperties.ENCODING);
+		if (encodingLabel != null) {
+			this.encoding = HashEncodingFormat.getByLabel(encodingLabel);
+			if (this.encoding == null || this.encoding == HashEncodingFormat.BINARY)
+				throw new IllegalArgumentException("Unknown encoding '" + encodingLabel + "'");
+		}
 	}
 	
 	public PasswordHasherBase() {}
 	
+	@Override
+	public String hash(String userPassword) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			return hash(password);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	@Override
+	public String hash(char[] userPassword) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			return hash(password);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	@Override
+	public String hash(byte[] userPassword) {
+		byte[] salt = generateRandomSalt(saltSize);
+		return encode(hash(userPassword, salt), salt);
+	}
+	
+	@Override
+	public void hash(char[] userPassword, StringBuilder target) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			byte[] salt = generateRandomSalt(saltSize);
+			PasswordEncodingUtils.encode(toParsedHash(hash(password, salt), salt), encoding, target);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	@Override
+	public int hash(char[] userPassword, ByteBuffer target) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			byte[] salt = generateRandomSalt(saltSize);
+			ParsedPasswordHash parsedHash = toParsedHash(hash(password, salt), salt);
+			PasswordEncodingUtils.encodeBinary(parsedHash, target);
+			return PasswordEncodingUtils.binaryLength(parsedHash);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	/**
+	 * Method that computes the hash of the password with the parameters of the hasher, implemented by every hasher
+	 * 
+	 * @param userPassword UTF-8 bytes of the password, they are not modified
+	 * @param salt the salt of the hash
+	 * @return the hashed password
+	 */
+	protected abstract byte[] hash(byte[] userPassword, byte[] salt);
+	
+	/**
+	 * Method that creates the string that represents the hashed password in the format set for the hasher
+	 * 
+	 * @param hashedPassword The byte array that represents the password
+	 * @param salt Board of the Salt Array used for the password generation
+	 * @return the string to be saved in the DB
+	 */
+	protected String encode(byte[] hashedPassword, byte[] salt) {
+		if (encoding == HashEncodingFormat.LEGACY)
+			return PasswordEncodingUtils.encode(generateMap(hashedPassword, salt));
+
+		return PasswordEncodingUtils.encode(toParsedHash(hashedPassword, salt), encoding);
+	}
+	
+	private ParsedPasswordHash toParsedHash(byte[] hashedPassword, byte[] salt) {
+		return new ParsedPasswordHash(PasswordAlgorithms.getByLabel(algorithm), version, memoryCost, iterations, threads, salt, hashedPassword, encoding);
+	}
+	
+	@Override
+	public boolean needsRehash(@NonNull ParsedPasswordHash parsedHash) {
+		return !parsedHash.getAlgorithm().getLabel().equals(algorithm)
+				|| parsedHash.getVersion() != version
+				|| parsedHash.getMemoryCost() != memoryCost
+				|| parsedHash.getIterations() != iterations
+				|| parsedHash.getThreads() != threads
+				|| parsedHash.getSaltSize() != saltSize
+				|| parsedHash.getHashSize() != DEFAULT_OUTPUTLEN;
+	}
+	
 	/**
 	 * Method that allows you to convert the password and Salt in a map that represents the properties with which the password hasshing was generated
 	 * 
@@ -52,10 +156,15 @@ public abstract class PasswordHasherBase implements PasswordHasher {
     	return result;
     }
 	
+	/**
+	 * Method that generates a salt with the {@link RandomSource#getDefault()}
+	 * 
+	 * @param saltSize number of bytes of the salt
+	 * @return the random salt
+	 */
 	protected static byte[] generateRandomSalt(Integer saltSize) {
-        SecureRandom secureRandom = new SecureRandom();
         byte[] salt = new byte[saltSize];
-        secureRandom.nextBytes(salt);
+        RandomSource.getDefault().nextBytes(salt);
         return salt;
 	}
 }
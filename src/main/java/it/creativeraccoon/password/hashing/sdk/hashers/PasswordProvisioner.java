@@ -0,0 +1,302 @@
+package it.creativeraccoon.password.hashing.sdk.hashers;
+
+import it.creativeraccoon.password.hashing.sdk.engine.HashingPriority;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Generator of batches of random passwords, for example to provision the users of a new tenant. <br>
+ * Unlike {@link PasswordHasher#generateRandomPassword(Integer)}, that generates and hashes one password at a time on the calling thread,
+ * the provisioner hashes the passwords in parallel on a {@link PasswordHashingExecutor} (so within its concurrency limit and within the
+ * memory budget of the {@link it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler}) and returns them as soon as they are completed.
+ * Only a limited number of passwords is in progress at the same time, so a batch of any size uses a constant memory.
+ * <pre>
+ * PasswordProvisioner provisioner = PasswordProvisioner.builder(PasswordHashersFactory.getDefaultInstance())
+ *         .length(20)
+ *         .build();
+ * provisioner.provision(50_000, provisioned -&gt; {
+ *     save(provisioned.getIndex(), provisioned.getHashedPassword());
+ *     send(provisioned.getIndex(), provisioned.getPassword());
+ *     provisioned.wipe();
+ * });
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class PasswordProvisioner {
+
+	/**
+	 * Same alphabet of {@link PasswordHasher#generateRandomPassword(Integer)}
+	 */
+	public static final String DEFAULT_ALPHABET = "!@ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+	private final PasswordHasher hasher;
+	private final char[] alphabet;
+	private final int length;
+	private final PasswordHashingExecutor executor;
+	private final HashingPriority priority;
+	private final int maxInFlight;
+	private final RandomSource randomSource;
+
+	private PasswordProvisioner(Builder builder) {
+		this.hasher = builder.hasher;
+		this.alphabet = builder.alphabet;
+		this.length = builder.length;
+		this.executor = builder.executor != null ? builder.executor : PasswordHashingExecutor.getDefault();
+		this.priority = builder.priority;
+		this.maxInFlight = builder.maxInFlight > 0 ? builder.maxInFlight : executor.getThreads() * 2;
+		this.randomSource = builder.randomSource != null ? builder.randomSource : RandomSource.getDefault();
+	}
+
+	/**
+	 * @param hasher hasher of the generated passwords
+	 */
+	public static Builder builder(@NonNull PasswordHasher hasher) {
+		return new Builder(hasher);
+	}
+
+	/**
+	 * Method that starts the generation of a batch, the passwords are generated while the batch is iterated
+	 *
+	 * @param count number of passwords to generate
+	 * @return the batch, to be closed if it is not iterated until the end
+	 */
+	public Batch provision(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("The number of passwords cannot be negative");
+		return new Batch(count);
+	}
+
+	/**
+	 * Method that generates a batch and passes each password to the callback, on the calling thread, as soon as it is completed
+	 *
+	 * @param count number of passwords to generate
+	 * @param callback consumer of the passwords
+	 */
+	public void provision(int count, @NonNull Consumer<ProvisionedPassword> callback) {
+		try (Batch batch = provision(count)) {
+			while (batch.hasNext())
+				callback.accept(batch.next());
+		}
+	}
+
+	private char[] generate() {
+		char[] password = new char[length];
+		for (int i = 0; i < length; i++)
+			password[i] = alphabet[randomSource.nextInt(alphabet.length)];
+		return password;
+	}
+
+	/**
+	 * The passwords of a closed batch that are still in queue are not generated
+	 */
+	private ProvisionedPassword provision(int index, Batch batch) {
+		if (batch.closed)
+			return null;
+		char[] password = generate();
+		try {
+			return new ProvisionedPassword(index, password, hasher.hash(password));
+		} catch (RuntimeException | Error e) {
+			Arrays.fill(password, '\0');
+			throw e;
+		}
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public String getAlphabet() {
+		return new String(alphabet);
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Batch of passwords that returns the passwords in order of completion. <br>
+	 * The iterator is not thread-safe; if an hashing fails {@link #next()} throws its exception and the batch can be continued or closed.
+	 */
+	public final class Batch implements Iterator<ProvisionedPassword>, Closeable {
+
+		private final int count;
+		private final BlockingQueue<CompletableFuture<ProvisionedPassword>> completed = new LinkedBlockingQueue<>();
+		private int submitted;
+		private int returned;
+		private volatile boolean closed;
+
+		private Batch(int count) {
+			this.count = count;
+			submit();
+		}
+
+		private void submit() {
+			while (!closed && submitted < count && submitted - returned < maxInFlight) {
+				int index = submitted++;
+				CompletableFuture<ProvisionedPassword> future = executor.submit(() -> provision(index, this), priority);
+				future.whenComplete((provisioned, error) -> onComplete(future, provisioned));
+			}
+		}
+
+		private void onComplete(CompletableFuture<ProvisionedPassword> future, ProvisionedPassword provisioned) {
+			synchronized (completed) {
+				if (!closed) {
+					completed.add(future);
+					return;
+				}
+			}
+			if (provisioned != null)
+				provisioned.wipe();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !closed && returned < count;
+		}
+
+		/**
+		 * Method that waits for the next completed password
+		 *
+		 * @throws NoSuchElementException if all the passwords have been returned or the batch has been closed
+		 * @throws IllegalStateException if the thread is interrupted while waiting
+		 */
+		@Override
+		public ProvisionedPassword next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			CompletableFuture<ProvisionedPassword> future;
+			try {
+				future = completed.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a password", e);
+			}
+			returned++;
+			submit();
+
+			try {
+				return future.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw e;
+			}
+		}
+
+		/**
+		 * @return number of passwords returned
+		 */
+		public int getReturnedCount() {
+			return returned;
+		}
+
+		/**
+		 * Stops the generation: the passwords not started are not generated and the ones completed and not returned are wiped
+		 */
+		@Override
+		public void close() {
+			synchronized (completed) {
+				closed = true;
+			}
+			CompletableFuture<ProvisionedPassword> future;
+			while ((future = completed.poll()) != null) {
+				ProvisionedPassword provisioned = future.exceptionally(error -> null).join();
+				if (provisioned != null)
+					provisioned.wipe();
+			}
+		}
+	}
+
+	/**
+	 * Builder of the {@link PasswordProvisioner}
+	 */
+	public static final class Builder {
+
+		private final PasswordHasher hasher;
+		private char[] alphabet = DEFAULT_ALPHABET.toCharArray();
+		private int length = 16;
+		private PasswordHashingExecutor executor;
+		private HashingPriority priority = HashingPriority.BACKGROUND;
+		private int maxInFlight = -1;
+		private RandomSource randomSource;
+
+		private Builder(PasswordHasher hasher) {
+			this.hasher = hasher;
+		}
+
+		/**
+		 * @param alphabet characters of the passwords, without duplicates (they would make some characters more likely), default {@link #DEFAULT_ALPHABET}
+		 */
+		public Builder alphabet(@NonNull String alphabet) {
+			if (alphabet.length() < 2)
+				throw new IllegalArgumentException("The alphabet must contain at least 2 characters");
+			if (alphabet.chars().distinct().count() != alphabet.length())
+				throw new IllegalArgumentException("The alphabet cannot contain duplicated characters");
+			if (alphabet.chars().anyMatch(c -> Character.isSurrogate((char) c) || Character.isISOControl(c)))
+				throw new IllegalArgumentException("The alphabet cannot contain control characters or surrogates");
+			this.alphabet = alphabet.toCharArray();
+			return this;
+		}
+
+		/**
+		 * @param length length of the passwords, default 16
+		 */
+		public Builder length(int length) {
+			if (length <= 0)
+				throw new IllegalArgumentException("The length must be positive");
+			this.length = length;
+			return this;
+		}
+
+		/**
+		 * @param executor executor of the hashes, default {@link PasswordHashingExecutor#getDefault()}
+		 */
+		public Builder executor(@NonNull PasswordHashingExecutor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * @param priority priority of the hashes on the executor, default {@link HashingPriority#BACKGROUND} so the logins are not slowed down
+		 */
+		public Builder priority(@NonNull HashingPriority priority) {
+			this.priority = priority;
+			return this;
+		}
+
+		/**
+		 * @param maxInFlight maximum number of passwords generated and not returned yet, default 2 times the threads of the executor
+		 */
+		public Builder maxInFlight(int maxInFlight) {
+			if (maxInFlight <= 0)
+				throw new IllegalArgumentException("The maximum number of passwords in flight must be positive");
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		/**
+		 * @param randomSource source of the characters, default {@link RandomSource#getDefault()}
+		 */
+		public Builder randomSource(@NonNull RandomSource randomSource) {
+			this.randomSource = randomSource;
+			return this;
+		}
+
+		public PasswordProvisioner build() {
+			return new PasswordProvisioner(this);
+		}
+	}
+}
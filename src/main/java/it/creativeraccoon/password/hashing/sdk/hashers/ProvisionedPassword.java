@@ -0,0 +1,50 @@
+package it.creativeraccoon.password.hashing.sdk.hashers;
+
+import java.util.Arrays;
+
+/**
+ * Random password generated by the {@link PasswordProvisioner} together with its hash. <br>
+ * The plaintext password is an array: once it has been delivered to the user it should be wiped with {@link #wipe()}.
+ *
+ * @author ZeroBrushV2
+ */
+public final class ProvisionedPassword {
+
+	private final int index;
+	private final char[] password;
+	private final String hashedPassword;
+
+	ProvisionedPassword(int index, char[] password, String hashedPassword) {
+		this.index = index;
+		this.password = password;
+		this.hashedPassword = hashedPassword;
+	}
+
+	/**
+	 * @return position of the password in the batch (from 0), the passwords are returned in order of completion
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the plaintext password, to be sent/shown to the user concerned
+	 */
+	public char[] getPassword() {
+		return password;
+	}
+
+	/**
+	 * @return the hashed password, to be saved in the database
+	 */
+	public String getHashedPassword() {
+		return hashedPassword;
+	}
+
+	/**
+	 * Overwrites the plaintext password with zeros
+	 */
+	public void wipe() {
+		Arrays.fill(password, '\0');
+	}
+}
@@ -0,0 +1,212 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diagnostics of the hashers and the verifiers, that replace the logging of every operation:
+ * <ul>
+ * <li>tracing: a structured line for every operation (type, parameters, queue wait, compute time, outcome), limited to a number of lines per second.
+ * It is disabled by default, while disabled an operation pays only the read of a volatile field</li>
+ * <li>summaries: a line every interval for each type of operation, with the counts by outcome and the percentiles of the interval,
+ * read from the {@link HashingMetricsRecorder}</li>
+ * </ul>
+ * Both are written at INFO level on the logger of this class.
+ * <pre>
+ * HashingDiagnostics.setTraceRate(10);
+ * HashingDiagnostics.startSummaries(1, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class HashingDiagnostics {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashingDiagnostics.class);
+
+	/**
+	 * Highest number of traces per second
+	 */
+	public static final int MAX_TRACE_RATE = 100_000;
+
+	/**
+	 * Bits of {@link #traceWindow} that count the traces of the current window, the others contain the window
+	 */
+	private static final int TRACE_COUNT_BITS = 20;
+	/**
+	 * A window of the rate lasts 2^30 ns, about a second
+	 */
+	private static final int TRACE_WINDOW_SHIFT = 30;
+
+	private static volatile int traceRate;
+	private static final AtomicLong traceWindow = new AtomicLong();
+
+	private static ScheduledExecutorService summaries;
+
+	private HashingDiagnostics() {}
+
+	/**
+	 * @return maximum number of operations traced per second, 0 if the tracing is disabled
+	 */
+	public static int getTraceRate() {
+		return traceRate;
+	}
+
+	/**
+	 * Method that enables the tracing of the operations, the operations beyond the rate are not traced
+	 *
+	 * @param tracesPerSecond maximum number of operations traced per second, 0 disables the tracing
+	 */
+	public static void setTraceRate(int tracesPerSecond) {
+		if (tracesPerSecond < 0 || tracesPerSecond > MAX_TRACE_RATE)
+			throw new IllegalArgumentException("The trace rate must be between 0 and " + MAX_TRACE_RATE);
+		traceRate = tracesPerSecond;
+	}
+
+	/**
+	 * Method used by {@link HashingMetrics} to trace an operation, if the tracing is enabled and the rate allows it
+	 */
+	static void trace(HashingOperation operation, int memoryCost, int iterations, int threads, long queueWaitNanos, long computeNanos, HashingOutcome outcome) {
+		int rate = traceRate;
+		if (rate == 0 || !logger.isInfoEnabled() || !acquireTrace(rate))
+			return;
+
+		logger.info("operation={} m={} t={} p={} queueWaitMicros={} computeMicros={} outcome={}", operation, memoryCost, iterations, threads,
+				queueWaitNanos / 1000, computeNanos / 1000, outcome);
+	}
+
+	/**
+	 * The window and the traces of the window are kept in a single long, updated with a compare and set
+	 */
+	private static boolean acquireTrace(int rate) {
+		long window = System.nanoTime() >>> TRACE_WINDOW_SHIFT;
+		while (true) {
+			long current = traceWindow.get();
+			long next;
+			if (current >>> TRACE_COUNT_BITS != window)
+				next = (window << TRACE_COUNT_BITS) | 1;
+			else if ((current & ((1 << TRACE_COUNT_BITS) - 1)) >= rate)
+				return false;
+			else
+				next = current + 1;
+
+			if (traceWindow.compareAndSet(current, next))
+				return true;
+		}
+	}
+
+	/**
+	 * Method that starts the periodic summaries of the {@link HashingMetricsRecorder#getDefault()}
+	 *
+	 * @see #startSummaries(HashingMetricsRecorder, long, TimeUnit)
+	 */
+	public static void startSummaries(long period, @NonNull TimeUnit unit) {
+		startSummaries(HashingMetricsRecorder.getDefault(), period, unit);
+	}
+
+	/**
+	 * Method that starts a daemon thread that writes, every period, a summary of the operations completed in the period. <br>
+	 * The recorder must be the listener of {@link HashingMetrics}, the types of operations without operations in the period are not written.
+	 *
+	 * @param recorder recorder from which the values are read
+	 * @param period time between two summaries
+	 * @param unit unit of the period
+	 * @throws IllegalStateException if the summaries are already started
+	 */
+	public static synchronized void startSummaries(@NonNull HashingMetricsRecorder recorder, long period, @NonNull TimeUnit unit) {
+		if (period <= 0)
+			throw new IllegalArgumentException("The period of the summaries must be greater than 0");
+		if (summaries != null)
+			throw new IllegalStateException("The summaries are already started");
+
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "hashing-diagnostics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Summary summary = new Summary(recorder, unit.toMillis(period));
+		executor.scheduleAtFixedRate(summary::write, period, period, unit);
+		summaries = executor;
+	}
+
+	/**
+	 * Method that stops the periodic summaries, if started
+	 */
+	public static synchronized void stopSummaries() {
+		if (summaries != null) {
+			summaries.shutdownNow();
+			summaries = null;
+		}
+	}
+
+	/**
+	 * Values of the recorder at the end of the previous period
+	 */
+	private static final class Summary {
+
+		private final HashingMetricsRecorder recorder;
+		private final long periodMillis;
+		private final Map<HashingOperation, LatencyHistogram.Snapshot> compute = new EnumMap<>(HashingOperation.class);
+		private final Map<HashingOperation, LatencyHistogram.Snapshot> queueWait = new EnumMap<>(HashingOperation.class);
+		private final Map<HashingOperation, long[]> counts = new EnumMap<>(HashingOperation.class);
+
+		private Summary(HashingMetricsRecorder recorder, long periodMillis) {
+			this.recorder = recorder;
+			this.periodMillis = periodMillis;
+			for (HashingOperation operation : HashingOperation.values()) {
+				compute.put(operation, recorder.getComputeSnapshot(operation));
+				queueWait.put(operation, recorder.getQueueWaitSnapshot(operation));
+				counts.put(operation, counts(operation));
+			}
+		}
+
+		private long[] counts(HashingOperation operation) {
+			long[] values = new long[HashingOutcome.values().length];
+			for (HashingOutcome outcome : HashingOutcome.values())
+				values[outcome.ordinal()] = recorder.getCount(operation, outcome);
+			return values;
+		}
+
+		private void write() {
+			try {
+				for (HashingOperation operation : HashingOperation.values())
+					write(operation);
+			} catch (RuntimeException e) {
+				// an exception would cancel the next summaries
+				logger.warn("Error writing the hashing summary: {}", e.getMessage());
+			}
+		}
+
+		private void write(HashingOperation operation) {
+			LatencyHistogram.Snapshot computeNow = recorder.getComputeSnapshot(operation);
+			LatencyHistogram.Snapshot queueWaitNow = recorder.getQueueWaitSnapshot(operation);
+			long[] countsNow = counts(operation);
+
+			LatencyHistogram.Snapshot computeInterval = computeNow.minus(compute.put(operation, computeNow));
+			LatencyHistogram.Snapshot queueWaitInterval = queueWaitNow.minus(queueWait.put(operation, queueWaitNow));
+			long[] previousCounts = counts.put(operation, countsNow);
+			// the counters can be reset in the meantime
+			long success = Math.max(0, countsNow[HashingOutcome.SUCCESS.ordinal()] - previousCounts[HashingOutcome.SUCCESS.ordinal()]);
+			long mismatch = Math.max(0, countsNow[HashingOutcome.MISMATCH.ordinal()] - previousCounts[HashingOutcome.MISMATCH.ordinal()]);
+			long failure = Math.max(0, countsNow[HashingOutcome.FAILURE.ordinal()] - previousCounts[HashingOutcome.FAILURE.ordinal()]);
+			if (success + mismatch + failure == 0)
+				return;
+
+			logger.info("summary operation={} periodMillis={} success={} mismatch={} failure={} computeP50Millis={} computeP99Millis={} queueWaitP99Millis={}",
+					operation, periodMillis, success, mismatch, failure, millis(computeInterval.getValueAtPercentile(50)),
+					millis(computeInterval.getValueAtPercentile(99)), millis(queueWaitInterval.getValueAtPercentile(99)));
+		}
+
+		private static String millis(long nanos) {
+			return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Custom events of the JDK Flight Recorder emitted around the hashes, the verifications, the decoding of the saved hashes and the lookups of the factories,
+ * so a continuous recording attributes the CPU bursts and the latency spikes to the single password operations. <br>
+ * The events are in the category "Password Hashing SDK":
+ * <ul>
+ * <li><code>it.creativeraccoon.password.hashing.sdk.Hash</code> and <code>...Verify</code>: parameters (m, t, p), salt size, format, queue wait and outcome</li>
+ * <li><code>it.creativeraccoon.password.hashing.sdk.Decode</code>: format and length of the saved hash, success</li>
+ * <li><code>it.creativeraccoon.password.hashing.sdk.FactoryLookup</code>: factory, algorithm and creation of a new instance</li>
+ * </ul>
+ * The library is compiled for Java 8, so the events are defined at runtime through <code>jdk.jfr.EventFactory</code> by reflection,
+ * when this class is initialized. The types are registered disabled (<code>@Enabled(false)</code>) and are enabled by the settings of a recording,
+ * like any other event of the JDK, for example with a <code>.jfc</code> file passed to <code>-XX:StartFlightRecording</code> or <code>jcmd JFR.start</code>:
+ * <pre>
+ * &lt;event name="it.creativeraccoon.password.hashing.sdk.Verify"&gt;
+ *     &lt;setting name="enabled"&gt;true&lt;/setting&gt;
+ * &lt;/event&gt;
+ * </pre>
+ * While a type is not enabled by any recording its operations do not create the event, they pay only the check of the type.
+ *
+ * @author ZeroBrushV2
+ */
+public final class HashingEvents {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashingEvents.class);
+
+	private static final String PREFIX = "it.creativeraccoon.password.hashing.sdk.";
+	private static final String CATEGORY = "Password Hashing SDK";
+
+	/**
+	 * Types registered in the Flight Recorder, null if it is not available or if an event has failed
+	 */
+	private static volatile EventTypes types = register();
+
+	private HashingEvents() {}
+
+	private static EventTypes register() {
+		try {
+			Class.forName("jdk.jfr.EventFactory");
+		} catch (ClassNotFoundException e) {
+			// the JVM has no Flight Recorder
+			return null;
+		}
+		try {
+			return EventTypes.register();
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			logger.warn("The Flight Recorder events are not available: {}", e.toString());
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if the event types are registered in the Flight Recorder (Java 11 or later, Java 8 from update 262)
+	 */
+	public static boolean isAvailable() {
+		return types != null;
+	}
+
+	/**
+	 * @return true if at least one of the event types is enabled by a recording in progress
+	 */
+	public static boolean isEnabled() {
+		EventTypes current = types;
+		return current != null && (current.hash.isEnabled() || current.verify.isEnabled() || current.decode.isEnabled() || current.lookup.isEnabled());
+	}
+
+	/**
+	 * @return the event of a hash, started now, null if the type is not enabled
+	 */
+	public static Object beginHash() {
+		EventTypes current = types;
+		return current == null ? null : current.hash.begin();
+	}
+
+	/**
+	 * @return the event of a verification, started now, null if the type is not enabled
+	 */
+	public static Object beginVerify() {
+		EventTypes current = types;
+		return current == null ? null : current.verify.begin();
+	}
+
+	/**
+	 * @return the event of the decoding of a saved hash, started now, null if the type is not enabled
+	 */
+	public static Object beginDecode() {
+		EventTypes current = types;
+		return current == null ? null : current.decode.begin();
+	}
+
+	/**
+	 * @return the event of a lookup of a factory, started now, null if the type is not enabled
+	 */
+	public static Object beginLookup() {
+		EventTypes current = types;
+		return current == null ? null : current.lookup.begin();
+	}
+
+	/**
+	 * Method that ends and records the event of a hash
+	 *
+	 * @param event event returned by {@link #beginHash()}, nothing is done if null
+	 */
+	public static void commitHash(Object event, int memoryCost, int iterations, int threads, int saltSize, HashEncodingFormat format,
+			long queueWaitNanos, HashingOutcome outcome) {
+		if (event != null)
+			EventType.commit(event, memoryCost, iterations, threads, saltSize, label(format), queueWaitNanos, outcome.name());
+	}
+
+	/**
+	 * Method that ends and records the event of a verification
+	 *
+	 * @param event event returned by {@link #beginVerify()}, nothing is done if null
+	 */
+	public static void commitVerify(Object event, int memoryCost, int iterations, int threads, int saltSize, HashEncodingFormat format,
+			long queueWaitNanos, HashingOutcome outcome) {
+		if (event != null)
+			EventType.commit(event, memoryCost, iterations, threads, saltSize, label(format), queueWaitNanos, outcome.name());
+	}
+
+	/**
+	 * Method that ends and records the event of the decoding of a saved hash
+	 *
+	 * @param event event returned by {@link #beginDecode()}, nothing is done if null
+	 * @param format format of the hash, null if the hash is not valid
+	 */
+	public static void commitDecode(Object event, HashEncodingFormat format, int length, boolean success) {
+		if (event != null)
+			EventType.commit(event, label(format), length, success);
+	}
+
+	/**
+	 * Method that ends and records the event of a lookup of a factory
+	 *
+	 * @param event event returned by {@link #beginLookup()}, nothing is done if null
+	 * @param factory "hasher" or "verifier"
+	 * @param created true if a new instance has been created, false if it has been found in the registry
+	 */
+	public static void commitLookup(Object event, String factory, PasswordAlgorithms algorithm, boolean created) {
+		if (event != null)
+			EventType.commit(event, factory, algorithm == null ? null : algorithm.getLabel(), created);
+	}
+
+	private static String label(HashEncodingFormat format) {
+		return format == null ? null : format.getLabel();
+	}
+
+	/**
+	 * Event types registered in the Flight Recorder
+	 */
+	private static final class EventTypes {
+
+		private final EventType hash;
+		private final EventType verify;
+		private final EventType decode;
+		private final EventType lookup;
+
+		private EventTypes(EventType hash, EventType verify, EventType decode, EventType lookup) {
+			this.hash = hash;
+			this.verify = verify;
+			this.decode = decode;
+			this.lookup = lookup;
+		}
+
+		private static EventTypes register() throws ReflectiveOperationException {
+			Reflection jfr = new Reflection();
+			Object[][] argon2Fields = {
+					{ int.class, "memoryCost", "Memory Cost (KB)" },
+					{ int.class, "iterations", "Iterations" },
+					{ int.class, "threads", "Parallelism" },
+					{ int.class, "saltSize", "Salt Size" },
+					{ String.class, "format", "Format" },
+					{ long.class, "queueWait", "Queue Wait" },
+					{ String.class, "outcome", "Outcome" } };
+
+			return new EventTypes(
+					jfr.eventType("Hash", "Password Hash", "Argon2 hash of a new password", argon2Fields),
+					jfr.eventType("Verify", "Password Verification", "Argon2 verification of a password against a saved hash", argon2Fields),
+					jfr.eventType("Decode", "Password Hash Decode", "Decoding of a saved hash", new Object[][] {
+							{ String.class, "format", "Format" },
+							{ int.class, "length", "Length" },
+							{ boolean.class, "success", "Success" } }),
+					jfr.eventType("FactoryLookup", "Password Hashing Factory Lookup", "Lookup of a hasher or a verifier in the factories", new Object[][] {
+							{ String.class, "factory", "Factory" },
+							{ String.class, "algorithm", "Algorithm" },
+							{ boolean.class, "created", "Instance Created" } }));
+		}
+	}
+
+	/**
+	 * Type of event created by an <code>EventFactory</code>, the methods of <code>jdk.jfr.Event</code> are invoked through method handles
+	 */
+	private static final class EventType {
+
+		private static MethodHandle begin;
+		private static MethodHandle end;
+		private static MethodHandle shouldCommit;
+		private static MethodHandle set;
+		private static MethodHandle commit;
+
+		private final MethodHandle newEvent;
+		private final MethodHandle enabled;
+
+		private EventType(MethodHandle newEvent, MethodHandle enabled) {
+			this.newEvent = newEvent;
+			this.enabled = enabled;
+		}
+
+		/**
+		 * @return true if the type is enabled by the settings of a recording in progress
+		 */
+		private boolean isEnabled() {
+			try {
+				return (boolean) enabled.invokeExact();
+			} catch (Throwable t) {
+				failed(t);
+				return false;
+			}
+		}
+
+		private Object begin() {
+			try {
+				if (!(boolean) enabled.invokeExact())
+					return null;
+				Object event = (Object) newEvent.invokeExact();
+				begin.invokeExact(event);
+				return event;
+			} catch (Throwable t) {
+				return failed(t);
+			}
+		}
+
+		/**
+		 * The values are set only if the event is recorded, the values are in the order of the fields of the type
+		 */
+		private static void commit(Object event, Object... values) {
+			try {
+				end.invokeExact(event);
+				if (!(boolean) shouldCommit.invokeExact(event))
+					return;
+				for (int i = 0; i < values.length; i++)
+					set.invokeExact(event, i, values[i]);
+				commit.invokeExact(event);
+			} catch (Throwable t) {
+				failed(t);
+			}
+		}
+
+		private static Object failed(Throwable t) {
+			logger.warn("Error of the Flight Recorder events, the events are disabled: {}", t.toString());
+			types = null;
+			return null;
+		}
+	}
+
+	/**
+	 * Access to the API of the Flight Recorder by reflection
+	 */
+	private static final class Reflection {
+
+		private final Constructor<?> annotationElement;
+		private final Constructor<?> valueDescriptor;
+		private final Method create;
+		private final Method newEvent;
+		private final Method getEventType;
+		private final Method isEnabled;
+		private final Class<?> nameAnnotation;
+		private final Class<?> labelAnnotation;
+		private final Class<?> descriptionAnnotation;
+		private final Class<?> categoryAnnotation;
+		private final Class<?> timespanAnnotation;
+		private final Class<?> enabledAnnotation;
+
+		private Reflection() throws ReflectiveOperationException {
+			Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+			this.annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+			this.valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class, List.class);
+			this.create = eventFactory.getMethod("create", List.class, List.class);
+			this.newEvent = eventFactory.getMethod("newEvent");
+			this.getEventType = eventFactory.getMethod("getEventType");
+			this.isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+			this.enabledAnnotation = Class.forName("jdk.jfr.Enabled");
+			this.nameAnnotation = Class.forName("jdk.jfr.Name");
+			this.labelAnnotation = Class.forName("jdk.jfr.Label");
+			this.descriptionAnnotation = Class.forName("jdk.jfr.Description");
+			this.categoryAnnotation = Class.forName("jdk.jfr.Category");
+			this.timespanAnnotation = Class.forName("jdk.jfr.Timespan");
+
+			synchronized (EventType.class) {
+				if (EventType.begin == null) {
+					Class<?> event = Class.forName("jdk.jfr.Event");
+					MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+					EventType.end = lookup.findVirtual(event, "end", MethodType.methodType(void.class)).asType(MethodType.methodType(void.class, Object.class));
+					EventType.shouldCommit = lookup.findVirtual(event, "shouldCommit", MethodType.methodType(boolean.class))
+							.asType(MethodType.methodType(boolean.class, Object.class));
+					EventType.set = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class))
+							.asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+					EventType.commit = lookup.findVirtual(event, "commit", MethodType.methodType(void.class)).asType(MethodType.methodType(void.class, Object.class));
+					EventType.begin = lookup.findVirtual(event, "begin", MethodType.methodType(void.class)).asType(MethodType.methodType(void.class, Object.class));
+				}
+			}
+		}
+
+		/**
+		 * @param fields type, name and label of every field
+		 */
+		private EventType eventType(String name, String label, String description, Object[][] fields) throws ReflectiveOperationException {
+			List<Object> annotations = Arrays.asList(
+					annotation(nameAnnotation, PREFIX + name),
+					annotation(labelAnnotation, label),
+					annotation(descriptionAnnotation, description),
+					annotation(categoryAnnotation, new String[] { CATEGORY }),
+					annotation(enabledAnnotation, false));
+
+			List<Object> descriptors = new ArrayList<>();
+			for (Object[] field : fields) {
+				List<Object> fieldAnnotations = new ArrayList<>();
+				fieldAnnotations.add(annotation(labelAnnotation, field[2]));
+				if (field[0] == long.class)
+					fieldAnnotations.add(annotation(timespanAnnotation, "NANOSECONDS"));
+				descriptors.add(valueDescriptor.newInstance(field[0], field[1], Collections.unmodifiableList(fieldAnnotations)));
+			}
+
+			Object factory = create.invoke(null, annotations, descriptors);
+			MethodHandle newEventHandle = MethodHandles.publicLookup().unreflect(newEvent).bindTo(factory).asType(MethodType.methodType(Object.class));
+			MethodHandle enabledHandle = MethodHandles.publicLookup().unreflect(isEnabled).bindTo(getEventType.invoke(factory));
+			return new EventType(newEventHandle, enabledHandle);
+		}
+
+		private Object annotation(Class<?> type, Object value) throws ReflectiveOperationException {
+			return annotationElement.newInstance(type, value);
+		}
+	}
+}
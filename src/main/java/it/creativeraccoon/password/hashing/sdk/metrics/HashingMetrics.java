@@ -0,0 +1,53 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point of the metrics of the SDK: the hashers and the verifiers report every operation to the registered {@link HashingMetricsListener},
+ * by default the {@link HashingMetricsRecorder#getDefault()}.
+ * <pre>
+ * HashingMetrics.setListener((operation, memoryCost, iterations, threads, queueWaitNanos, computeNanos, outcome) -&gt;
+ *         timers.get(operation).record(queueWaitNanos + computeNanos, TimeUnit.NANOSECONDS));
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class HashingMetrics {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashingMetrics.class);
+
+	private static volatile HashingMetricsListener listener = HashingMetricsRecorder.getDefault();
+
+	private HashingMetrics() {}
+
+	/**
+	 * @return the listener notified of the operations
+	 */
+	public static HashingMetricsListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Method that replaces the listener notified of the operations, {@link HashingMetricsListener#NOOP} disables the metrics
+	 *
+	 * @param metricsListener the new listener
+	 */
+	public static void setListener(@NonNull HashingMetricsListener metricsListener) {
+		listener = metricsListener;
+	}
+
+	/**
+	 * Method used by the hashers and the verifiers to report an operation, an error of the listener never interrupts the operation.
+	 * The operation is also traced by {@link HashingDiagnostics}, if the tracing is enabled.
+	 */
+	public static void record(HashingOperation operation, int memoryCost, int iterations, int threads, long queueWaitNanos, long computeNanos, HashingOutcome outcome) {
+		HashingDiagnostics.trace(operation, memoryCost, iterations, threads, queueWaitNanos, computeNanos, outcome);
+		try {
+			listener.onOperation(operation, memoryCost, iterations, threads, queueWaitNanos, computeNanos, outcome);
+		} catch (RuntimeException e) {
+			logger.warn("Error of the metrics listener: {}", e.getMessage());
+		}
+	}
+}
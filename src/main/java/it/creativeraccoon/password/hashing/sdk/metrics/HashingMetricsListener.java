@@ -0,0 +1,32 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+/**
+ * Listener notified at the end of every Argon2 operation of the hashers and verifiers of the SDK, registered through
+ * {@link HashingMetrics#setListener(HashingMetricsListener)}. <br>
+ * The listener is invoked on the thread of the operation, so it must be fast and must not block: the default implementation
+ * is the {@link HashingMetricsRecorder}, an implementation can forward the values to Micrometer, Prometheus, ...
+ *
+ * @author ZeroBrushV2
+ */
+@FunctionalInterface
+public interface HashingMetricsListener {
+
+	/**
+	 * Listener that ignores the operations
+	 */
+	HashingMetricsListener NOOP = (operation, memoryCost, iterations, threads, queueWaitNanos, computeNanos, outcome) -> {};
+
+	/**
+	 * Method invoked at the end of an operation
+	 *
+	 * @param operation type of operation
+	 * @param memoryCost memory cost (in KB) of the hash
+	 * @param iterations iterations of the hash
+	 * @param threads parallelism of the hash
+	 * @param queueWaitNanos time spent waiting for a thread of the {@link it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor}
+	 *                       and for the memory of the {@link it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler}
+	 * @param computeNanos time spent computing Argon2
+	 * @param outcome outcome of the operation
+	 */
+	void onOperation(HashingOperation operation, int memoryCost, int iterations, int threads, long queueWaitNanos, long computeNanos, HashingOutcome outcome);
+}
@@ -0,0 +1,274 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+import it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler;
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link HashingMetricsListener}, that records in {@link LatencyHistogram}s the operations of the hashers and verifiers:
+ * <ul>
+ * <li>queue wait and compute time, for each type of operation</li>
+ * <li>number of operations, for each type of operation and outcome</li>
+ * <li>compute time for each set of parameters (m, t, p), up to 64 sets, the following ones are grouped in "other"</li>
+ * </ul>
+ * The memory of Argon2 in use and the operations in flight are read from the {@link MemoryBudgetScheduler#getDefault()}.
+ * The values can be read from the code or from JMX, after {@link #registerMBean()}:
+ * <pre>
+ * HashingMetricsRecorder recorder = HashingMetricsRecorder.getDefault();
+ * recorder.registerMBean();
+ * long p99 = recorder.getComputeSnapshot(HashingOperation.VERIFY).getValueAtPercentile(99);
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class HashingMetricsRecorder implements HashingMetricsListener, HashingMetricsRecorderMBean {
+
+	/**
+	 * Name of the MBean registered by {@link #registerMBean()}
+	 */
+	public static final String OBJECT_NAME = "it.creativeraccoon.password.hashing.sdk:type=HashingMetrics";
+
+	private static final HashingMetricsRecorder defaultInstance = new HashingMetricsRecorder();
+
+	private static final int MAX_PARAMETER_SETS = 64;
+	private static final long OTHER_PARAMETERS = -1;
+
+	private final Map<HashingOperation, LatencyHistogram> queueWait = new EnumMap<>(HashingOperation.class);
+	private final Map<HashingOperation, LatencyHistogram> compute = new EnumMap<>(HashingOperation.class);
+	private final Map<HashingOperation, LongAdder[]> counts = new EnumMap<>(HashingOperation.class);
+	private final ConcurrentMap<Long, LatencyHistogram> parameterSets = new ConcurrentHashMap<>();
+
+	public HashingMetricsRecorder() {
+		for (HashingOperation operation : HashingOperation.values()) {
+			queueWait.put(operation, new LatencyHistogram());
+			compute.put(operation, new LatencyHistogram());
+			LongAdder[] outcomes = new LongAdder[HashingOutcome.values().length];
+			for (int i = 0; i < outcomes.length; i++)
+				outcomes[i] = new LongAdder();
+			counts.put(operation, outcomes);
+		}
+	}
+
+	/**
+	 * @return the recorder registered by default in {@link HashingMetrics}
+	 */
+	public static HashingMetricsRecorder getDefault() {
+		return defaultInstance;
+	}
+
+	@Override
+	public void onOperation(HashingOperation operation, int memoryCost, int iterations, int threads, long queueWaitNanos, long computeNanos, HashingOutcome outcome) {
+		counts.get(operation)[outcome.ordinal()].increment();
+		queueWait.get(operation).record(queueWaitNanos);
+		if (outcome == HashingOutcome.FAILURE)
+			return;
+
+		compute.get(operation).record(computeNanos);
+		parameterSet(memoryCost, iterations, threads).record(computeNanos);
+	}
+
+	private LatencyHistogram parameterSet(int memoryCost, int iterations, int threads) {
+		Long key = key(memoryCost, iterations, threads);
+		LatencyHistogram histogram = parameterSets.get(key);
+		if (histogram != null)
+			return histogram;
+		if (parameterSets.size() >= MAX_PARAMETER_SETS)
+			key = OTHER_PARAMETERS;
+		return parameterSets.computeIfAbsent(key, parameters -> new LatencyHistogram());
+	}
+
+	/**
+	 * The parameters of the hashes accepted by the {@link it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy} fit in a long,
+	 * the larger ones are grouped in "other"
+	 */
+	private static long key(int memoryCost, int iterations, int threads) {
+		if (memoryCost < 0 || iterations < 0 || iterations > 0xFFFFF || threads < 0 || threads > 0xFFF)
+			return OTHER_PARAMETERS;
+		return ((long) memoryCost << 32) | ((long) iterations << 12) | threads;
+	}
+
+	private static String label(long key) {
+		if (key == OTHER_PARAMETERS)
+			return "other";
+		return String.format("m=%d,t=%d,p=%d", key >>> 32, (key >>> 12) & 0xFFFFF, key & 0xFFF);
+	}
+
+	/**
+	 * @return snapshot of the time spent waiting for a thread and for the memory
+	 */
+	public LatencyHistogram.Snapshot getQueueWaitSnapshot(@NonNull HashingOperation operation) {
+		return queueWait.get(operation).snapshot();
+	}
+
+	/**
+	 * @return snapshot of the time spent computing Argon2, the failed operations are not included
+	 */
+	public LatencyHistogram.Snapshot getComputeSnapshot(@NonNull HashingOperation operation) {
+		return compute.get(operation).snapshot();
+	}
+
+	/**
+	 * @return snapshot of the compute time of every set of parameters, keyed by "m=..,t=..,p=.."
+	 */
+	public Map<String, LatencyHistogram.Snapshot> getParameterSetSnapshots() {
+		Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+		parameterSets.forEach((key, histogram) -> snapshots.put(label(key), histogram.snapshot()));
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+	/**
+	 * @return number of operations of the given type completed with the given outcome
+	 */
+	public long getCount(@NonNull HashingOperation operation, @NonNull HashingOutcome outcome) {
+		return counts.get(operation)[outcome.ordinal()].sum();
+	}
+
+	@Override
+	public long getHashCount() {
+		return getCount(HashingOperation.HASH, HashingOutcome.SUCCESS);
+	}
+
+	@Override
+	public long getHashFailureCount() {
+		return getCount(HashingOperation.HASH, HashingOutcome.FAILURE);
+	}
+
+	/**
+	 * @return number of verifications completed, matching or not
+	 */
+	@Override
+	public long getVerifyCount() {
+		return getCount(HashingOperation.VERIFY, HashingOutcome.SUCCESS) + getCount(HashingOperation.VERIFY, HashingOutcome.MISMATCH);
+	}
+
+	@Override
+	public long getVerifyMismatchCount() {
+		return getCount(HashingOperation.VERIFY, HashingOutcome.MISMATCH);
+	}
+
+	@Override
+	public long getVerifyFailureCount() {
+		return getCount(HashingOperation.VERIFY, HashingOutcome.FAILURE);
+	}
+
+	@Override
+	public double getHashComputeP50Millis() {
+		return millis(getComputeSnapshot(HashingOperation.HASH).getValueAtPercentile(50));
+	}
+
+	@Override
+	public double getHashComputeP99Millis() {
+		return millis(getComputeSnapshot(HashingOperation.HASH).getValueAtPercentile(99));
+	}
+
+	@Override
+	public double getHashQueueWaitP99Millis() {
+		return millis(getQueueWaitSnapshot(HashingOperation.HASH).getValueAtPercentile(99));
+	}
+
+	@Override
+	public double getVerifyComputeP50Millis() {
+		return millis(getComputeSnapshot(HashingOperation.VERIFY).getValueAtPercentile(50));
+	}
+
+	@Override
+	public double getVerifyComputeP99Millis() {
+		return millis(getComputeSnapshot(HashingOperation.VERIFY).getValueAtPercentile(99));
+	}
+
+	@Override
+	public double getVerifyQueueWaitP99Millis() {
+		return millis(getQueueWaitSnapshot(HashingOperation.VERIFY).getValueAtPercentile(99));
+	}
+
+	@Override
+	public double getVerifyMaxMillis() {
+		return millis(getComputeSnapshot(HashingOperation.VERIFY).getMax());
+	}
+
+	/**
+	 * @return bytes of memory reserved by the Argon2 operations in progress
+	 */
+	@Override
+	public long getMemoryInUseBytes() {
+		MemoryBudgetScheduler scheduler = MemoryBudgetScheduler.getDefault();
+		return (scheduler.getMemoryBudgetKb() - scheduler.getAvailableKb()) * 1024;
+	}
+
+	@Override
+	public long getMemoryBudgetBytes() {
+		return MemoryBudgetScheduler.getDefault().getMemoryBudgetKb() * 1024;
+	}
+
+	/**
+	 * @return number of Argon2 operations in progress
+	 */
+	@Override
+	public int getInFlight() {
+		return MemoryBudgetScheduler.getDefault().getInFlight();
+	}
+
+	/**
+	 * @return number of operations waiting for memory
+	 */
+	@Override
+	public int getMemoryQueueLength() {
+		return MemoryBudgetScheduler.getDefault().getQueueLength();
+	}
+
+	/**
+	 * Removes all the recorded values, the gauges of the memory are not affected
+	 */
+	@Override
+	public void reset() {
+		for (HashingOperation operation : HashingOperation.values()) {
+			queueWait.get(operation).reset();
+			compute.get(operation).reset();
+			for (LongAdder count : counts.get(operation))
+				count.reset();
+		}
+		parameterSets.clear();
+	}
+
+	/**
+	 * Method that publishes the recorder on the platform MBean server with the name {@link #OBJECT_NAME}
+	 *
+	 * @throws IllegalStateException if the registration fails, for example because the name is already registered
+	 */
+	public void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to register the metrics MBean", e);
+		}
+	}
+
+	/**
+	 * Method that removes the recorder from the platform MBean server, if registered
+	 */
+	public void unregisterMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+		} catch (JMException e) {
+			throw new IllegalStateException("Unable to unregister the metrics MBean", e);
+		}
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+}
@@ -0,0 +1,43 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+/**
+ * Attributes of the {@link HashingMetricsRecorder} published on JMX, the latencies are in milliseconds
+ *
+ * @author ZeroBrushV2
+ */
+public interface HashingMetricsRecorderMBean {
+
+	long getHashCount();
+
+	long getHashFailureCount();
+
+	long getVerifyCount();
+
+	long getVerifyMismatchCount();
+
+	long getVerifyFailureCount();
+
+	double getHashComputeP50Millis();
+
+	double getHashComputeP99Millis();
+
+	double getHashQueueWaitP99Millis();
+
+	double getVerifyComputeP50Millis();
+
+	double getVerifyComputeP99Millis();
+
+	double getVerifyQueueWaitP99Millis();
+
+	double getVerifyMaxMillis();
+
+	long getMemoryInUseBytes();
+
+	long getMemoryBudgetBytes();
+
+	int getInFlight();
+
+	int getMemoryQueueLength();
+
+	void reset();
+}
@@ -0,0 +1,17 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+/**
+ *
+ * Enum which represents the Argon2 operations recorded by the {@link HashingMetricsListener}
+ * @author ZeroBrushV2
+ */
+public enum HashingOperation {
+	/**
+	 * Hashing of a new password
+	 */
+	HASH,
+	/**
+	 * Verification of a password against a saved hash
+	 */
+	VERIFY
+}
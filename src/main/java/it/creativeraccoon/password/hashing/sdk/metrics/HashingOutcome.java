@@ -0,0 +1,21 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+/**
+ *
+ * Enum which represents the outcome of an operation recorded by the {@link HashingMetricsListener}
+ * @author ZeroBrushV2
+ */
+public enum HashingOutcome {
+	/**
+	 * Hash computed, or password matching the saved hash
+	 */
+	SUCCESS,
+	/**
+	 * Verification completed with a password not matching the saved hash
+	 */
+	MISMATCH,
+	/**
+	 * Operation interrupted by an error, for example refused by the memory budget
+	 */
+	FAILURE
+}
@@ -0,0 +1,159 @@
+package it.creativeraccoon.password.hashing.sdk.metrics;
+
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with log-linear buckets, in the style of HdrHistogram: every power of 2 is divided into 32 buckets,
+ * so a value is recorded with a relative error below 3.2% from 1 ns up to {@link Long#MAX_VALUE}, in a fixed array of counters. <br>
+ * Recording a value is an increment of an {@link AtomicLongArray} element, without locks and without allocations.
+ * The percentiles are computed on a {@link Snapshot}; the difference of two snapshots gives the histogram of an interval.
+ *
+ * @author ZeroBrushV2
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = index(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * Method that records a value, the negative values are recorded as 0
+	 *
+	 * @param value value in nanoseconds
+	 */
+	public void record(long value) {
+		long positive = Math.max(0, value);
+		counts.incrementAndGet(index(positive));
+		sum.add(positive);
+	}
+
+	/**
+	 * @return a copy of the counters, the values recorded at the same time could be only partially included
+	 */
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			copy[i] = counts.get(i);
+		return new Snapshot(copy, sum.sum());
+	}
+
+	/**
+	 * Removes all the values
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts.set(i, 0);
+		sum.reset();
+	}
+
+	/**
+	 * The values below 64 have their own bucket, the others are grouped in 32 buckets for every power of 2
+	 */
+	private static int index(long value) {
+		if (value < 2 * SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return the highest value recorded in the bucket
+	 */
+	private static long highestValue(int index) {
+		if (index < 2 * SUB_BUCKETS)
+			return index;
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long top = index - ((long) shift << SUB_BUCKET_BITS);
+		return ((top + 1) << shift) - 1;
+	}
+
+	/**
+	 * Immutable copy of a {@link LatencyHistogram}
+	 */
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+
+		private Snapshot(long[] counts, long sum) {
+			this.counts = counts;
+			this.sum = sum;
+			long total = 0;
+			for (long bucket : counts)
+				total += bucket;
+			this.count = total;
+		}
+
+		/**
+		 * @return number of values recorded
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return average of the values (in nanoseconds), 0 if there are no values
+		 */
+		public double getMean() {
+			return count > 0 ? (double) sum / count : 0;
+		}
+
+		/**
+		 * @return highest value recorded (in nanoseconds, with the precision of the buckets), 0 if there are no values
+		 */
+		public long getMax() {
+			for (int i = counts.length - 1; i >= 0; i--)
+				if (counts[i] > 0)
+					return highestValue(i);
+			return 0;
+		}
+
+		/**
+		 * Method that returns a percentile, for example 99 for the p99
+		 *
+		 * @param percentile percentile between 0 and 100
+		 * @return the value below which falls the given percentage of the values (in nanoseconds), 0 if there are no values
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (!(percentile >= 0 && percentile <= 100))
+				throw new IllegalArgumentException("The percentile must be between 0 and 100");
+			if (count == 0)
+				return 0;
+
+			long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+			long cumulated = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulated += counts[i];
+				if (cumulated >= target)
+					return highestValue(i);
+			}
+			return getMax();
+		}
+
+		/**
+		 * Method that returns the values recorded after an older snapshot of the same histogram
+		 *
+		 * @param earlier older snapshot
+		 * @return the snapshot of the interval between the two snapshots
+		 */
+		public Snapshot minus(@NonNull Snapshot earlier) {
+			long[] interval = new long[counts.length];
+			for (int i = 0; i < counts.length; i++)
+				interval[i] = Math.max(0, counts[i] - earlier.counts[i]);
+			return new Snapshot(interval, Math.max(0, sum - earlier.sum));
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d, mean=%.3f ms, p50=%.3f ms, p99=%.3f ms, max=%.3f ms", count, getMean() / 1e6,
+					getValueAtPercentile(50) / 1e6, getValueAtPercentile(99) / 1e6, getMax() / 1e6);
+		}
+	}
+}
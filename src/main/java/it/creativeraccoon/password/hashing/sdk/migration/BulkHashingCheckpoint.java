@@ -0,0 +1,185 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * State of a run of the {@link BulkHashingPipeline}, kept in a small memory-mapped file. <br>
+ * The file has two slots written alternately, each one with a sequence number and a CRC: a crash during a write damages only the slot
+ * being written, so the previous state is always available. The state is saved only after the output has been written to the disk,
+ * so the records before the saved offset of the input are always present in the output.
+ * <pre>
+ * slot: sequence | input size | records | failed records | lines | input offset | output offset | rejects offset | crc
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+final class BulkHashingCheckpoint implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkHashingCheckpoint.class);
+
+	private static final int SLOT_SIZE = 72;
+	private static final int SLOTS = 2;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final long inputSize;
+	private final boolean resumed;
+
+	private long sequence;
+	private long records;
+	private long failedRecords;
+	private long lines;
+	private long inputOffset;
+	private long outputOffset;
+	private long rejectsOffset;
+
+	private BulkHashingCheckpoint(Path file, long inputSize) throws IOException {
+		this.file = file;
+		this.inputSize = inputSize;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLOT_SIZE * SLOTS);
+			this.resumed = load();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Method that opens the checkpoint of a run, creating it if it does not exist
+	 *
+	 * @param file state file
+	 * @param inputSize size of the input file, used to recognize a checkpoint of a different input
+	 * @return the checkpoint with the last saved state
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalStateException if the file contains the checkpoint of an input with a different size
+	 */
+	static BulkHashingCheckpoint open(Path file, long inputSize) throws IOException {
+		return new BulkHashingCheckpoint(file, inputSize);
+	}
+
+	private boolean load() {
+		long bestSequence = 0;
+		int best = -1;
+		for (int slot = 0; slot < SLOTS; slot++) {
+			int offset = slot * SLOT_SIZE;
+			long slotSequence = buffer.getLong(offset);
+			if (slotSequence > bestSequence && buffer.getLong(offset + SLOT_SIZE - 8) == crc(offset)) {
+				bestSequence = slotSequence;
+				best = slot;
+			}
+		}
+		if (best < 0)
+			return false;
+
+		int offset = best * SLOT_SIZE;
+		long savedInputSize = buffer.getLong(offset + 8);
+		if (savedInputSize != inputSize)
+			throw new IllegalStateException(String.format("The checkpoint %s belongs to an input of %d bytes, the input has %d bytes", file, savedInputSize, inputSize));
+
+		sequence = bestSequence;
+		records = buffer.getLong(offset + 16);
+		failedRecords = buffer.getLong(offset + 24);
+		lines = buffer.getLong(offset + 32);
+		inputOffset = buffer.getLong(offset + 40);
+		outputOffset = buffer.getLong(offset + 48);
+		rejectsOffset = buffer.getLong(offset + 56);
+		return true;
+	}
+
+	/**
+	 * Method that saves the state in the slot not used by the last state and forces it to the disk
+	 */
+	void save(long records, long failedRecords, long lines, long inputOffset, long outputOffset, long rejectsOffset) {
+		this.sequence++;
+		this.records = records;
+		this.failedRecords = failedRecords;
+		this.lines = lines;
+		this.inputOffset = inputOffset;
+		this.outputOffset = outputOffset;
+		this.rejectsOffset = rejectsOffset;
+
+		int offset = (int) (sequence % SLOTS) * SLOT_SIZE;
+		buffer.putLong(offset + 8, inputSize);
+		buffer.putLong(offset + 16, records);
+		buffer.putLong(offset + 24, failedRecords);
+		buffer.putLong(offset + 32, lines);
+		buffer.putLong(offset + 40, inputOffset);
+		buffer.putLong(offset + 48, outputOffset);
+		buffer.putLong(offset + 56, rejectsOffset);
+		buffer.putLong(offset, sequence);
+		buffer.putLong(offset + SLOT_SIZE - 8, crc(offset));
+		buffer.force();
+	}
+
+	private long crc(int offset) {
+		CRC32 crc = new CRC32();
+		for (int i = offset; i < offset + SLOT_SIZE - 8; i++)
+			crc.update(buffer.get(i));
+		return crc.getValue();
+	}
+
+	/**
+	 * Method that removes the state file at the end of a completed run
+	 */
+	void delete() {
+		close();
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.warn("Unable to delete the checkpoint {}: {}", file, e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.warn("Unable to close the checkpoint {}: {}", file, e.getMessage());
+		}
+	}
+
+	/**
+	 * @return true if the state has been read from a previous run
+	 */
+	boolean isResumed() {
+		return resumed;
+	}
+
+	long getRecords() {
+		return records;
+	}
+
+	long getFailedRecords() {
+		return failedRecords;
+	}
+
+	long getLines() {
+		return lines;
+	}
+
+	long getInputOffset() {
+		return inputOffset;
+	}
+
+	long getOutputOffset() {
+		return outputOffset;
+	}
+
+	long getRejectsOffset() {
+		return rejectsOffset;
+	}
+}
@@ -0,0 +1,111 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point of the {@link BulkHashingPipeline}:
+ * <pre>
+ * java -cp password-hashing-sdk.jar:&lt;dependencies&gt; it.creativeraccoon.password.hashing.sdk.migration.BulkHashingCli \
+ *         --input users.csv --output users-hashed.csv --mode hash --threads 8
+ * </pre>
+ * The hashes use the default configuration of the {@link it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory}.
+ * The progress is printed on the standard error, the exit status is 0 when all the records have been processed,
+ * 2 when some records have failed (they are in the rejects file, or kept their saved hash in rehash mode), 1 when the run has been interrupted by an error (it can be resumed running the same command)
+ * and 64 when the options are not valid.
+ *
+ * @author ZeroBrushV2
+ */
+public final class BulkHashingCli {
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: BulkHashingCli --input <file> --output <file> [options]",
+			"  --format jsonl|csv            format of the files, default from the extension of the input",
+			"  --mode hash|rehash|convert    operation applied to each record, default hash",
+			"  --encoding legacy|phc         format of the hashes written by the convert mode, default phc",
+			"  --threads <n>                 hashes computed at the same time, default the number of cores",
+			"  --max-in-flight <n>           records read and not written yet, default 4 times the threads",
+			"  --password-field <name>       field of the plaintext password, default password",
+			"  --hash-field <name>           field of the hash, default hash",
+			"  --checkpoint <file>           state file of the run, default <output>.checkpoint",
+			"  --rejects <file>              records that cannot be processed, default <output>.rejects",
+			"  --progress-interval <seconds> time between two progress reports, default 10");
+
+	private BulkHashingCli() {}
+
+	public static void main(String[] args) {
+		// an invalid option exits with the usage (status 64, EX_USAGE), status 1 is kept for a run that can be resumed
+		Path input;
+		Path output;
+		BulkHashingPipeline pipeline;
+		try {
+			Map<String, String> options = parseOptions(args);
+			input = Paths.get(options.get("input"));
+			output = Paths.get(options.get("output"));
+			pipeline = builder(options, input).build();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(64);
+			return;
+		}
+
+		try {
+			BulkHashingProgress result = pipeline.run(input, output);
+			System.exit(result.getFailedRecords() > 0 ? 2 : 0);
+		} catch (Exception e) {
+			System.err.println("Bulk hashing interrupted: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--") || i + 1 >= args.length)
+				throw new IllegalArgumentException("Invalid argument " + args[i]);
+			options.put(args[i].substring(2), args[++i]);
+		}
+		if (!options.containsKey("input") || !options.containsKey("output"))
+			throw new IllegalArgumentException("Input and output are mandatory");
+		return options;
+	}
+
+	private static BulkHashingPipeline.Builder builder(Map<String, String> options, Path input) {
+		BulkHashingPipeline.Builder builder = BulkHashingPipeline.builder()
+				.progressListener(progress -> System.err.println(progress));
+
+		String format = options.getOrDefault("format", input.getFileName().toString().toLowerCase().endsWith(".csv") ? "csv" : "jsonl");
+		builder.format(required(BulkRecordFormat.getByLabel(format), "format", format));
+		if (options.containsKey("mode"))
+			builder.mode(required(BulkHashingMode.getByLabel(options.get("mode")), "mode", options.get("mode")));
+		if (options.containsKey("encoding"))
+			builder.encodingFormat(required(HashEncodingFormat.getByLabel(options.get("encoding")), "encoding", options.get("encoding")));
+		// the process has no logins to protect, all the cores are given to the records
+		builder.threads(options.containsKey("threads") ? Integer.parseInt(options.get("threads")) : Runtime.getRuntime().availableProcessors());
+		if (options.containsKey("max-in-flight"))
+			builder.maxInFlight(Integer.parseInt(options.get("max-in-flight")));
+		if (options.containsKey("password-field"))
+			builder.passwordField(options.get("password-field"));
+		if (options.containsKey("hash-field"))
+			builder.hashField(options.get("hash-field"));
+		if (options.containsKey("checkpoint"))
+			builder.checkpointFile(Paths.get(options.get("checkpoint")));
+		if (options.containsKey("rejects"))
+			builder.rejectsFile(Paths.get(options.get("rejects")));
+		if (options.containsKey("progress-interval"))
+			builder.progressInterval(Long.parseLong(options.get("progress-interval")), TimeUnit.SECONDS);
+		return builder;
+	}
+
+	private static <T> T required(T value, String option, String label) {
+		if (value == null)
+			throw new IllegalArgumentException(String.format("Invalid %s: %s", option, label));
+		return value;
+	}
+}
@@ -0,0 +1,40 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Enum which represents the operations that the {@link BulkHashingPipeline} applies to each record
+ * @author ZeroBrushV2
+ */
+public enum BulkHashingMode {
+	/**
+	 * The plaintext password of the record is hashed, the password is removed from the output and the hash is added
+	 */
+	HASH("hash"),
+	/**
+	 * The record contains the plaintext password and the hash already saved: the password is hashed again only when the hash is missing
+	 * or {@link it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher#needsRehash} asks for it, otherwise the saved hash is kept
+	 */
+	REHASH("rehash"),
+	/**
+	 * The saved hash is only converted to another encoding format, without the password and without computing Argon2.
+	 * Argon2 cannot change the parameters of a hash without the password, those hashes are upgraded at the login
+	 * by {@link it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier#verifyAndUpgrade}
+	 */
+	CONVERT("convert");
+
+	private String label;
+
+	BulkHashingMode(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public static BulkHashingMode getByLabel(String label) {
+		return Arrays.stream(BulkHashingMode.values()).filter(mode -> mode.label.equalsIgnoreCase(label)).findFirst().orElse(null);
+	}
+}
@@ -0,0 +1,739 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import it.creativeraccoon.password.hashing.sdk.engine.HashingPriority;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline that hashes (or re-hashes, or converts) the credentials of a JSON-lines or CSV file in parallel, for the offline migrations
+ * of millions of users. <br>
+ * The records are read one at a time and hashed on a {@link PasswordHashingExecutor} with {@link HashingPriority#BACKGROUND} priority:
+ * by default the shared {@link PasswordHashingExecutor#getDefault()}, so the lanes of the executor give precedence to the logins
+ * and the reserved interactive threads are never used by the records, while with {@link Builder#threads(int)} every run creates its own executor.
+ * Every hash is admitted by the {@link it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler}, so the memory used remains
+ * within the budget regardless of the number of threads. The output is written incrementally, in the same order of the input,
+ * with the password field removed and the hash field added (the other fields are copied as they are).
+ * <br><br>
+ * The progress is saved periodically in a small memory-mapped state file (by default the output file with the suffix <code>.checkpoint</code>):
+ * if the process crashes, a new run with the same files truncates the output to the last saved state and resumes from the following record.
+ * The state file is removed when the run completes.
+ * <br><br>
+ * The records that cannot be processed are never dropped silently: in {@link BulkHashingMode#REHASH} mode a record with a saved hash
+ * keeps it, the other records are written to a rejects file (by default the output file with the suffix <code>.rejects</code>),
+ * one JSON object per line with the line number, the offset of the line in the input, the error and the fields read, without the password.
+ * The rejects file is removed if no record has been rejected.
+ * <pre>
+ * BulkHashingProgress result = BulkHashingPipeline.builder()
+ *         .format(BulkRecordFormat.CSV)
+ *         .mode(BulkHashingMode.HASH)
+ *         .progressListener(progress -&gt; System.err.println(progress))
+ *         .build()
+ *         .run(Paths.get("users.csv"), Paths.get("users-hashed.csv"));
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class BulkHashingPipeline {
+
+	private static final Logger logger = LoggerFactory.getLogger(BulkHashingPipeline.class);
+
+	/**
+	 * Attempts of a hash refused by the memory budget before the record is considered failed
+	 */
+	private static final int MAX_ATTEMPTS = 5;
+	private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+	private static final String REJECTS_SUFFIX = ".rejects";
+
+	private final BulkRecordFormat format;
+	private final BulkHashingMode mode;
+	private final PasswordHasher hasher;
+	private final PasswordHashingExecutor executor;
+	private final int threads;
+	private final int maxInFlight;
+	private final String passwordField;
+	private final String hashField;
+	private final HashEncodingFormat encodingFormat;
+	private final Path checkpointFile;
+	private final Path rejectsFile;
+	private final long checkpointIntervalNanos;
+	private final long progressIntervalNanos;
+	private final Consumer<BulkHashingProgress> progressListener;
+
+	private BulkHashingPipeline(Builder builder) {
+		this.format = builder.format;
+		this.mode = builder.mode;
+		this.hasher = builder.hasher;
+		// without an executor or a number of threads the records share the default executor with the logins, in the background lane
+		this.executor = builder.executor != null || builder.threads > 0 ? builder.executor : PasswordHashingExecutor.getDefault();
+		this.threads = builder.threads > 0 ? builder.threads : executor.getThreads();
+		// the records in flight of a shared executor must fit in its queue, otherwise they would be refused
+		this.maxInFlight = builder.maxInFlight > 0 ? builder.maxInFlight
+				: (executor != null ? Math.min(threads * 4, executor.getQueueCapacity()) : threads * 4);
+		this.passwordField = builder.passwordField;
+		this.hashField = builder.hashField;
+		this.encodingFormat = builder.encodingFormat;
+		this.checkpointFile = builder.checkpointFile;
+		this.rejectsFile = builder.rejectsFile;
+		this.checkpointIntervalNanos = builder.checkpointIntervalNanos;
+		this.progressIntervalNanos = builder.progressIntervalNanos;
+		this.progressListener = builder.progressListener;
+
+		if (passwordField.equals(hashField))
+			throw new IllegalArgumentException("The password field and the hash field must be different");
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Method that processes the input file, resuming the previous run if its state file exists
+	 *
+	 * @param input file to read
+	 * @param output file to write, overwritten if the run does not resume a previous one
+	 * @return the final progress of the run
+	 * @throws IOException if a file cannot be read or written, the state saved until that moment allows to resume the run
+	 * @throws PasswordHasherInstantiationException if no hasher has been given and the default one cannot be created
+	 * @throws IllegalStateException if the state file belongs to another input or the output or the rejects file are shorter than the saved state
+	 */
+	public BulkHashingProgress run(@NonNull Path input, @NonNull Path output) throws IOException, PasswordHasherInstantiationException {
+		PasswordHasher passwordHasher = hasher != null || mode == BulkHashingMode.CONVERT ? hasher : PasswordHashersFactory.getDefaultInstance();
+		Path stateFile = checkpointFile != null ? checkpointFile : output.resolveSibling(output.getFileName() + CHECKPOINT_SUFFIX);
+		Path rejects = rejectsFile != null ? rejectsFile : output.resolveSibling(output.getFileName() + REJECTS_SUFFIX);
+		PasswordHashingExecutor runExecutor = executor != null ? executor : PasswordHashingExecutor.builder()
+				.threads(threads)
+				.reservedInteractiveThreads(0)
+				.queueCapacity(maxInFlight)
+				.threadNamePrefix("bulk-hashing-")
+				.build();
+
+		BulkHashingProgress result;
+		try (BulkHashingCheckpoint checkpoint = BulkHashingCheckpoint.open(stateFile, Files.size(input));
+				FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				FileChannel rejectsChannel = FileChannel.open(rejects, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			result = new Run(passwordHasher, runExecutor, checkpoint, inputChannel, outputChannel, rejectsChannel).execute();
+			checkpoint.delete();
+		} finally {
+			if (executor == null)
+				runExecutor.shutdown();
+		}
+
+		if (Files.size(rejects) == 0)
+			Files.delete(rejects);
+		else
+			logger.warn("Some records of {} have been rejected, see {}", input, rejects);
+		logger.info("Bulk hashing of {} completed: {}", input, result);
+		return result;
+	}
+
+	public BulkRecordFormat getFormat() {
+		return format;
+	}
+
+	public BulkHashingMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return maximum number of records read and not written yet
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * State of a single run
+	 */
+	private final class Run {
+
+		private final PasswordHasher passwordHasher;
+		private final PasswordHashingExecutor runExecutor;
+		private final BulkHashingCheckpoint checkpoint;
+		private final FileChannel inputChannel;
+		private final FileChannel outputChannel;
+		private final FileChannel rejectsChannel;
+		private final Deque<PendingRecord> pending = new ArrayDeque<>();
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+		private final StringBuilder outputLine = new StringBuilder(256);
+		private final StringBuilder rejectsLine = new StringBuilder(256);
+		private final long startNanos = System.nanoTime();
+		private final long inputSize;
+
+		private List<String> columns;
+		private List<String> outputColumns;
+		private OutputStream out;
+		private OutputStream rejectsOut;
+		private long records;
+		private long failedRecords;
+		private long lines;
+		/**
+		 * Line of the last record written, the lines read can be up to {@link #maxInFlight} ahead
+		 */
+		private long writtenLines;
+		private long inputOffset;
+		private long outputOffset;
+		private long rejectsOffset;
+		private long resumedRecords;
+		private long resumedBytes;
+		private long lastCheckpointNanos = startNanos;
+		private long lastProgressNanos = startNanos;
+
+		private Run(PasswordHasher passwordHasher, PasswordHashingExecutor runExecutor, BulkHashingCheckpoint checkpoint,
+				FileChannel inputChannel, FileChannel outputChannel, FileChannel rejectsChannel) throws IOException {
+			this.passwordHasher = passwordHasher;
+			this.runExecutor = runExecutor;
+			this.checkpoint = checkpoint;
+			this.inputChannel = inputChannel;
+			this.outputChannel = outputChannel;
+			this.rejectsChannel = rejectsChannel;
+			this.inputSize = inputChannel.size();
+		}
+
+		private BulkHashingProgress execute() throws IOException {
+			if (format == BulkRecordFormat.CSV)
+				readHeader();
+
+			if (checkpoint.isResumed()) {
+				if (outputChannel.size() < checkpoint.getOutputOffset())
+					throw new IllegalStateException(String.format("The output has %d bytes, less than the %d bytes of the saved state",
+							outputChannel.size(), checkpoint.getOutputOffset()));
+				if (rejectsChannel.size() < checkpoint.getRejectsOffset())
+					throw new IllegalStateException(String.format("The rejects file has %d bytes, less than the %d bytes of the saved state",
+							rejectsChannel.size(), checkpoint.getRejectsOffset()));
+				records = resumedRecords = checkpoint.getRecords();
+				failedRecords = checkpoint.getFailedRecords();
+				lines = checkpoint.getLines();
+				inputOffset = resumedBytes = checkpoint.getInputOffset();
+				outputOffset = checkpoint.getOutputOffset();
+				rejectsOffset = checkpoint.getRejectsOffset();
+				logger.info("Resuming the bulk hashing after {} records (line {})", records, lines);
+			}
+			outputChannel.truncate(outputOffset);
+			outputChannel.position(outputOffset);
+			out = new BufferedOutputStream(Channels.newOutputStream(outputChannel), 64 * 1024);
+			rejectsChannel.truncate(rejectsOffset);
+			rejectsChannel.position(rejectsOffset);
+			rejectsOut = new BufferedOutputStream(Channels.newOutputStream(rejectsChannel), 8 * 1024);
+
+			if (!checkpoint.isResumed() && format == BulkRecordFormat.CSV) {
+				BulkRecordCodec.appendCsvHeader(outputColumns, outputLine);
+				writeLine();
+			}
+			writtenLines = lines;
+			saveCheckpoint();
+
+			LineReader reader = new LineReader(inputChannel, inputOffset);
+			while (reader.next()) {
+				lines++;
+				pending.addLast(submit(reader));
+				while (pending.size() >= maxInFlight)
+					write(pending.removeFirst());
+			}
+			while (!pending.isEmpty())
+				write(pending.removeFirst());
+
+			saveCheckpoint();
+			BulkHashingProgress progress = progress();
+			if (progressListener != null)
+				progressListener.accept(progress);
+			return progress;
+		}
+
+		private void readHeader() throws IOException {
+			LineReader reader = new LineReader(inputChannel, 0);
+			if (!reader.next())
+				throw new IllegalArgumentException("The CSV file has no header");
+			columns = new ArrayList<>();
+			char[] line = decode(reader);
+			try {
+				for (char[] column : BulkRecordCodec.parseCsv(line, line.length))
+					columns.add(new String(column).trim());
+			} finally {
+				Arrays.fill(line, '\0');
+			}
+
+			String requiredColumn = mode == BulkHashingMode.CONVERT ? hashField : passwordField;
+			if (!columns.contains(requiredColumn))
+				throw new IllegalArgumentException("The CSV file has no column " + requiredColumn);
+
+			outputColumns = new ArrayList<>(columns);
+			outputColumns.remove(passwordField);
+			if (!outputColumns.contains(hashField))
+				outputColumns.add(hashField);
+			if (!checkpoint.isResumed()) {
+				lines = 1;
+				inputOffset = reader.offset;
+			}
+		}
+
+		private PendingRecord submit(LineReader reader) {
+			long line = lines;
+			long inputStart = reader.lineStart;
+			long inputEnd = reader.offset;
+			if (reader.isBlank())
+				return new PendingRecord(null, line, inputStart, inputEnd, CompletableFuture.completedFuture(null));
+
+			BulkRecord record = null;
+			char[] password = null;
+			try {
+				record = parse(reader);
+				password = record.remove(passwordField);
+				CompletableFuture<String> hash = process(record, password);
+				return new PendingRecord(record, line, inputStart, inputEnd, hash);
+			} catch (RuntimeException e) {
+				wipe(password);
+				CompletableFuture<String> failure = new CompletableFuture<>();
+				failure.completeExceptionally(e);
+				return new PendingRecord(record, line, inputStart, inputEnd, failure);
+			}
+		}
+
+		private BulkRecord parse(LineReader reader) {
+			char[] line = decode(reader);
+			try {
+				if (format == BulkRecordFormat.JSON_LINES)
+					return BulkRecordCodec.parseJson(line, line.length);
+
+				List<char[]> values = BulkRecordCodec.parseCsv(line, line.length);
+				BulkRecord record = new BulkRecord();
+				for (int i = 0; i < values.size(); i++) {
+					if (i < columns.size())
+						record.add(columns.get(i), values.get(i), false);
+					else
+						wipe(values.get(i));
+				}
+				if (values.size() != columns.size()) {
+					record.wipe();
+					throw new IllegalArgumentException(String.format("The line has %d values, the header has %d columns", values.size(), columns.size()));
+				}
+				return record;
+			} finally {
+				Arrays.fill(line, '\0');
+			}
+		}
+
+		/**
+		 * Starts the operation of the mode, the password is owned by the operation and wiped when it completes
+		 */
+		private CompletableFuture<String> process(BulkRecord record, char[] password) {
+			char[] savedHash = record.get(hashField);
+			if (mode == BulkHashingMode.CONVERT) {
+				wipe(password);
+				if (savedHash == null || savedHash.length == 0)
+					throw new IllegalArgumentException("The record has no " + hashField);
+				return CompletableFuture.completedFuture(PasswordEncodingUtils.convert(CharBuffer.wrap(savedHash), encodingFormat));
+			}
+
+			if (password == null)
+				throw new IllegalArgumentException("The record has no " + passwordField);
+			if (mode == BulkHashingMode.REHASH && savedHash != null && savedHash.length > 0 && !needsRehash(savedHash)) {
+				wipe(password);
+				return CompletableFuture.completedFuture(new String(savedHash));
+			}
+
+			CompletableFuture<String> hash = runExecutor.submit(() -> hash(password), HashingPriority.BACKGROUND);
+			hash.whenComplete((result, error) -> wipe(password));
+			return hash;
+		}
+
+		private boolean needsRehash(char[] savedHash) {
+			try {
+				return passwordHasher.needsRehash(PasswordEncodingUtils.parse(CharBuffer.wrap(savedHash)));
+			} catch (IllegalArgumentException e) {
+				// an unreadable hash is replaced
+				return true;
+			}
+		}
+
+		/**
+		 * The hashes refused by the memory budget are retried: the pipeline slows down instead of losing the records
+		 */
+		private String hash(char[] password) {
+			for (int attempt = 1;; attempt++) {
+				try {
+					return passwordHasher.hash(password);
+				} catch (PasswordHashingOverloadException e) {
+					if (attempt >= MAX_ATTEMPTS)
+						throw e;
+					try {
+						Thread.sleep(100L << attempt);
+					} catch (InterruptedException interrupted) {
+						Thread.currentThread().interrupt();
+						throw e;
+					}
+				}
+			}
+		}
+
+		private void write(PendingRecord pendingRecord) throws IOException {
+			try {
+				String hash = join(pendingRecord.hash);
+				if (pendingRecord.record != null) {
+					pendingRecord.record.set(hashField, hash);
+					writeRecord(pendingRecord.record);
+					records++;
+				}
+			} catch (RuntimeException e) {
+				// the message of the error never contains the password
+				records++;
+				failedRecords++;
+				BulkRecord record = pendingRecord.record;
+				if (mode == BulkHashingMode.REHASH && record != null && record.get(hashField) != null && record.get(hashField).length > 0) {
+					// the saved hash is still a valid credential
+					writeRecord(record);
+					logger.warn("The record at line {} has not been re-hashed, the saved hash has been kept: {}", pendingRecord.line, e.getMessage());
+				} else {
+					reject(pendingRecord, e);
+					logger.warn("The record at line {} has not been processed and has been rejected: {}", pendingRecord.line, e.getMessage());
+				}
+			} finally {
+				if (pendingRecord.record != null)
+					pendingRecord.record.wipe();
+			}
+			inputOffset = pendingRecord.inputEnd;
+			writtenLines = pendingRecord.line;
+
+			long now = System.nanoTime();
+			if (now - lastCheckpointNanos >= checkpointIntervalNanos)
+				saveCheckpoint();
+			if (progressListener != null && now - lastProgressNanos >= progressIntervalNanos) {
+				lastProgressNanos = now;
+				progressListener.accept(progress());
+			}
+		}
+
+		private void writeRecord(BulkRecord record) throws IOException {
+			if (format == BulkRecordFormat.JSON_LINES)
+				BulkRecordCodec.appendJson(record, outputLine);
+			else
+				BulkRecordCodec.appendCsv(record, outputColumns, outputLine);
+			writeLine();
+		}
+
+		/**
+		 * The rejected record is written with the fields read from the line, the password has already been removed.
+		 * A line that cannot be read is identified only by its position, its content could contain the password
+		 */
+		private void reject(PendingRecord pendingRecord, RuntimeException error) throws IOException {
+			rejectsLine.append("{\"line\":").append(pendingRecord.line).append(",\"offset\":").append(pendingRecord.inputStart).append(",\"error\":");
+			BulkRecordCodec.appendJsonString(String.valueOf(error.getMessage()).toCharArray(), rejectsLine);
+			if (pendingRecord.record != null) {
+				rejectsLine.append(",\"record\":");
+				BulkRecordCodec.appendJson(pendingRecord.record, rejectsLine);
+			}
+			rejectsLine.append("}\n");
+			byte[] bytes = rejectsLine.toString().getBytes(StandardCharsets.UTF_8);
+			rejectsLine.setLength(0);
+			rejectsOut.write(bytes);
+			rejectsOffset += bytes.length;
+		}
+
+		private String join(CompletableFuture<String> hash) {
+			try {
+				return hash.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw e;
+			}
+		}
+
+		private void writeLine() throws IOException {
+			outputLine.append('\n');
+			byte[] bytes = outputLine.toString().getBytes(StandardCharsets.UTF_8);
+			outputLine.setLength(0);
+			out.write(bytes);
+			outputOffset += bytes.length;
+		}
+
+		/**
+		 * The output and the rejects are forced to the disk before the state, so the saved state never refers to records not written
+		 */
+		private void saveCheckpoint() throws IOException {
+			out.flush();
+			outputChannel.force(false);
+			rejectsOut.flush();
+			rejectsChannel.force(false);
+			checkpoint.save(records, failedRecords, writtenLines, inputOffset, outputOffset, rejectsOffset);
+			lastCheckpointNanos = System.nanoTime();
+		}
+
+		private BulkHashingProgress progress() {
+			return new BulkHashingProgress(records, failedRecords, resumedRecords, inputOffset, inputSize, resumedBytes, System.nanoTime() - startNanos);
+		}
+
+		private char[] decode(LineReader reader) {
+			try {
+				CharBuffer chars = decoder.decode(ByteBuffer.wrap(reader.buffer, 0, reader.length));
+				char[] line = Arrays.copyOf(chars.array(), chars.remaining());
+				Arrays.fill(chars.array(), '\0');
+				return line;
+			} catch (CharacterCodingException e) {
+				throw new IllegalArgumentException("The line is not valid UTF-8");
+			}
+		}
+	}
+
+	private static void wipe(char[] value) {
+		if (value != null)
+			Arrays.fill(value, '\0');
+	}
+
+	private static final class PendingRecord {
+
+		private final BulkRecord record;
+		private final long line;
+		private final long inputStart;
+		private final long inputEnd;
+		private final CompletableFuture<String> hash;
+
+		private PendingRecord(BulkRecord record, long line, long inputStart, long inputEnd, CompletableFuture<String> hash) {
+			this.record = record;
+			this.line = line;
+			this.inputStart = inputStart;
+			this.inputEnd = inputEnd;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Reader of the lines of the input that keeps the offset of the next line, the buffer of the line is wiped before reading the following one
+	 */
+	private static final class LineReader {
+
+		private final InputStream in;
+		private byte[] buffer = new byte[256];
+		private int length;
+		private long lineStart;
+		private long offset;
+
+		private LineReader(FileChannel channel, long offset) throws IOException {
+			channel.position(offset);
+			this.in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+			this.offset = offset;
+		}
+
+		private boolean next() throws IOException {
+			Arrays.fill(buffer, 0, length, (byte) 0);
+			length = 0;
+			lineStart = offset;
+			boolean start = offset == 0;
+			boolean read = false;
+			int b;
+			while ((b = in.read()) >= 0) {
+				offset++;
+				read = true;
+				if (b == '\n')
+					break;
+				if (length == buffer.length) {
+					byte[] larger = Arrays.copyOf(buffer, length * 2);
+					Arrays.fill(buffer, (byte) 0);
+					buffer = larger;
+				}
+				buffer[length++] = (byte) b;
+			}
+			if (length > 0 && buffer[length - 1] == '\r')
+				length--;
+			if (start && length >= 3 && (buffer[0] & 0xFF) == 0xEF && (buffer[1] & 0xFF) == 0xBB && (buffer[2] & 0xFF) == 0xBF) {
+				// byte order mark
+				System.arraycopy(buffer, 3, buffer, 0, length - 3);
+				length -= 3;
+			}
+			return read;
+		}
+
+		private boolean isBlank() {
+			for (int i = 0; i < length; i++)
+				if (buffer[i] != ' ' && buffer[i] != '\t')
+					return false;
+			return true;
+		}
+	}
+
+	/**
+	 * Builder of the {@link BulkHashingPipeline}
+	 */
+	public static final class Builder {
+
+		private BulkRecordFormat format = BulkRecordFormat.JSON_LINES;
+		private BulkHashingMode mode = BulkHashingMode.HASH;
+		private PasswordHasher hasher;
+		private PasswordHashingExecutor executor;
+		private int threads = -1;
+		private int maxInFlight = -1;
+		private String passwordField = "password";
+		private String hashField = "hash";
+		private HashEncodingFormat encodingFormat = HashEncodingFormat.PHC;
+		private Path checkpointFile;
+		private Path rejectsFile;
+		private long checkpointIntervalNanos = TimeUnit.SECONDS.toNanos(5);
+		private long progressIntervalNanos = TimeUnit.SECONDS.toNanos(10);
+		private Consumer<BulkHashingProgress> progressListener;
+
+		private Builder() {}
+
+		/**
+		 * @param format format of the input and of the output, default {@link BulkRecordFormat#JSON_LINES}
+		 */
+		public Builder format(@NonNull BulkRecordFormat format) {
+			this.format = format;
+			return this;
+		}
+
+		/**
+		 * @param mode operation applied to each record, default {@link BulkHashingMode#HASH}
+		 */
+		public Builder mode(@NonNull BulkHashingMode mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		/**
+		 * @param hasher hasher of the passwords, default {@link PasswordHashersFactory#getDefaultInstance()}
+		 */
+		public Builder hasher(@NonNull PasswordHasher hasher) {
+			this.hasher = hasher;
+			return this;
+		}
+
+		/**
+		 * @param executor executor of the hashes, default {@link PasswordHashingExecutor#getDefault()} when {@link #threads(int)} is not set.
+		 *                 A shared executor must accept {@link #maxInFlight(int)} background operations in queue
+		 */
+		public Builder executor(@NonNull PasswordHashingExecutor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * @param threads number of hashes computed at the same time by an executor created for every run, without the lanes of a shared executor.
+		 *                By default the run uses the shared executor, ignored if an executor is set
+		 */
+		public Builder threads(int threads) {
+			if (threads <= 0)
+				throw new IllegalArgumentException("The number of threads must be positive");
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * @param maxInFlight maximum number of records read and not written yet, default 4 times the threads, at most the queue capacity of a shared executor
+		 */
+		public Builder maxInFlight(int maxInFlight) {
+			if (maxInFlight <= 0)
+				throw new IllegalArgumentException("The maximum number of records in flight must be positive");
+			this.maxInFlight = maxInFlight;
+			return this;
+		}
+
+		/**
+		 * @param passwordField name of the field (or column) of the plaintext password, default "password"
+		 */
+		public Builder passwordField(@NonNull String passwordField) {
+			this.passwordField = passwordField;
+			return this;
+		}
+
+		/**
+		 * @param hashField name of the field (or column) of the hash, default "hash"
+		 */
+		public Builder hashField(@NonNull String hashField) {
+			this.hashField = hashField;
+			return this;
+		}
+
+		/**
+		 * @param encodingFormat format of the hashes written by {@link BulkHashingMode#CONVERT}, default {@link HashEncodingFormat#PHC}
+		 */
+		public Builder encodingFormat(@NonNull HashEncodingFormat encodingFormat) {
+			if (encodingFormat == HashEncodingFormat.BINARY)
+				throw new IllegalArgumentException("The binary format cannot be written in a text file");
+			this.encodingFormat = encodingFormat;
+			return this;
+		}
+
+		/**
+		 * @param checkpointFile state file of the run, default the output file with the suffix ".checkpoint"
+		 */
+		public Builder checkpointFile(@NonNull Path checkpointFile) {
+			this.checkpointFile = checkpointFile;
+			return this;
+		}
+
+		/**
+		 * @param rejectsFile file of the records that cannot be processed, default the output file with the suffix ".rejects"
+		 */
+		public Builder rejectsFile(@NonNull Path rejectsFile) {
+			this.rejectsFile = rejectsFile;
+			return this;
+		}
+
+		/**
+		 * @param checkpointInterval time between two saves of the state, default 5 seconds
+		 * @param unit unit of the interval
+		 */
+		public Builder checkpointInterval(long checkpointInterval, @NonNull TimeUnit unit) {
+			if (checkpointInterval <= 0)
+				throw new IllegalArgumentException("The checkpoint interval must be positive");
+			this.checkpointIntervalNanos = unit.toNanos(checkpointInterval);
+			return this;
+		}
+
+		/**
+		 * @param progressListener listener that receives the progress periodically and at the end of the run, on the thread of the run
+		 */
+		public Builder progressListener(@NonNull Consumer<BulkHashingProgress> progressListener) {
+			this.progressListener = progressListener;
+			return this;
+		}
+
+		/**
+		 * @param progressInterval time between two notifications of the progress, default 10 seconds
+		 * @param unit unit of the interval
+		 */
+		public Builder progressInterval(long progressInterval, @NonNull TimeUnit unit) {
+			if (progressInterval <= 0)
+				throw new IllegalArgumentException("The progress interval must be positive");
+			this.progressIntervalNanos = unit.toNanos(progressInterval);
+			return this;
+		}
+
+		public BulkHashingPipeline build() {
+			return new BulkHashingPipeline(this);
+		}
+	}
+}
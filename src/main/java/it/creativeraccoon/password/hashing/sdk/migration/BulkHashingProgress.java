@@ -0,0 +1,108 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the progress of a run of the {@link BulkHashingPipeline}. <br>
+ * The speed counts only the records processed by the current run, the remaining time is estimated from the bytes of the input still to be read.
+ *
+ * @author ZeroBrushV2
+ */
+public final class BulkHashingProgress {
+
+	private final long processedRecords;
+	private final long failedRecords;
+	private final long resumedRecords;
+	private final long processedBytes;
+	private final long totalBytes;
+	private final long resumedBytes;
+	private final long elapsedNanos;
+
+	BulkHashingProgress(long processedRecords, long failedRecords, long resumedRecords, long processedBytes, long totalBytes, long resumedBytes, long elapsedNanos) {
+		this.processedRecords = processedRecords;
+		this.failedRecords = failedRecords;
+		this.resumedRecords = resumedRecords;
+		this.processedBytes = processedBytes;
+		this.totalBytes = totalBytes;
+		this.resumedBytes = resumedBytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return number of records processed, included the ones processed by the previous runs and the failed ones
+	 */
+	public long getProcessedRecords() {
+		return processedRecords;
+	}
+
+	/**
+	 * @return number of records not written because invalid or because their hashing failed
+	 */
+	public long getFailedRecords() {
+		return failedRecords;
+	}
+
+	/**
+	 * @return number of records processed by the previous runs, skipped by the current one
+	 */
+	public long getResumedRecords() {
+		return resumedRecords;
+	}
+
+	/**
+	 * @return bytes of the input processed
+	 */
+	public long getProcessedBytes() {
+		return processedBytes;
+	}
+
+	/**
+	 * @return size of the input
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * @return time elapsed from the start of the current run (in nanoseconds)
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return records processed per second by the current run
+	 */
+	public double getRecordsPerSecond() {
+		return elapsedNanos > 0 ? (processedRecords - resumedRecords) * 1e9 / elapsedNanos : 0;
+	}
+
+	/**
+	 * @return percentage of the input processed
+	 */
+	public double getPercentage() {
+		return totalBytes > 0 ? processedBytes * 100.0 / totalBytes : 100;
+	}
+
+	/**
+	 * @return estimated time to complete the input (in nanoseconds), -1 if it cannot be estimated yet
+	 */
+	public long getEstimatedRemainingNanos() {
+		long bytes = processedBytes - resumedBytes;
+		if (bytes <= 0 || elapsedNanos <= 0)
+			return processedBytes >= totalBytes ? 0 : -1;
+		return (long) ((double) (totalBytes - processedBytes) / bytes * elapsedNanos);
+	}
+
+	@Override
+	public String toString() {
+		long remaining = getEstimatedRemainingNanos();
+		return String.format("%d records (%d failed), %.1f%%, %.1f records/s, ETA %s", processedRecords, failedRecords, getPercentage(),
+				getRecordsPerSecond(), remaining < 0 ? "unknown" : formatDuration(remaining));
+	}
+
+	private static String formatDuration(long nanos) {
+		long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+		return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+	}
+}
@@ -0,0 +1,83 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fields of a record read by the {@link BulkHashingPipeline}, in the order of the file. <br>
+ * The values are arrays so the passwords can be wiped after the hashing.
+ *
+ * @author ZeroBrushV2
+ */
+final class BulkRecord {
+
+	private final List<String> names = new ArrayList<>();
+	private final List<char[]> values = new ArrayList<>();
+	/**
+	 * True for the JSON values that are not strings (numbers, booleans, null, objects), written without quotes
+	 */
+	private final List<Boolean> literals = new ArrayList<>();
+
+	void add(String name, char[] value, boolean literal) {
+		names.add(name);
+		values.add(value);
+		literals.add(literal);
+	}
+
+	int indexOf(String name) {
+		return names.indexOf(name);
+	}
+
+	/**
+	 * @return the value of a string field, null if the field is missing or is not a string
+	 */
+	char[] get(String name) {
+		int index = names.indexOf(name);
+		return index < 0 || literals.get(index) ? null : values.get(index);
+	}
+
+	/**
+	 * Removes a field without wiping its value, the caller becomes its owner
+	 */
+	char[] remove(String name) {
+		int index = names.indexOf(name);
+		if (index < 0)
+			return null;
+		names.remove(index);
+		literals.remove(index);
+		return values.remove(index);
+	}
+
+	void set(String name, String value) {
+		int index = names.indexOf(name);
+		if (index < 0) {
+			add(name, value.toCharArray(), false);
+			return;
+		}
+		Arrays.fill(values.get(index), '\0');
+		values.set(index, value.toCharArray());
+		literals.set(index, false);
+	}
+
+	int size() {
+		return names.size();
+	}
+
+	String getName(int index) {
+		return names.get(index);
+	}
+
+	char[] getValue(int index) {
+		return values.get(index);
+	}
+
+	boolean isLiteral(int index) {
+		return literals.get(index);
+	}
+
+	void wipe() {
+		for (char[] value : values)
+			Arrays.fill(value, '\0');
+	}
+}
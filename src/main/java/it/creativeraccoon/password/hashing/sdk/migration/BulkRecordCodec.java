@@ -0,0 +1,327 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reader and writer of the lines of the {@link BulkRecordFormat}s. <br>
+ * The values are decoded directly into arrays and the temporary buffers are wiped, so the passwords never become strings.
+ *
+ * @author ZeroBrushV2
+ */
+final class BulkRecordCodec {
+
+	private BulkRecordCodec() {}
+
+	/**
+	 * Method that reads a line of {@link BulkRecordFormat#JSON_LINES}
+	 *
+	 * @param line characters of the line
+	 * @param length number of characters of the line
+	 * @return the fields of the object
+	 * @throws IllegalArgumentException if the line is not a JSON object
+	 */
+	static BulkRecord parseJson(char[] line, int length) {
+		Cursor cursor = new Cursor(line, length);
+		BulkRecord record = new BulkRecord();
+		try {
+			cursor.skipWhitespace();
+			cursor.expect('{');
+			cursor.skipWhitespace();
+			if (cursor.peek() == '}') {
+				cursor.position++;
+			} else {
+				while (true) {
+					cursor.skipWhitespace();
+					cursor.expect('"');
+					char[] name = cursor.readString();
+					String fieldName = new String(name);
+					cursor.skipWhitespace();
+					cursor.expect(':');
+					cursor.skipWhitespace();
+					if (cursor.peek() == '"') {
+						cursor.position++;
+						record.add(fieldName, cursor.readString(), false);
+					} else {
+						record.add(fieldName, cursor.readLiteral(), true);
+					}
+					cursor.skipWhitespace();
+					if (cursor.peek() == ',') {
+						cursor.position++;
+						continue;
+					}
+					cursor.expect('}');
+					break;
+				}
+			}
+			cursor.skipWhitespace();
+			if (cursor.position < length)
+				throw new IllegalArgumentException("Unexpected characters after the JSON object");
+			return record;
+		} catch (RuntimeException e) {
+			record.wipe();
+			throw e;
+		}
+	}
+
+	/**
+	 * Method that reads a line of {@link BulkRecordFormat#CSV}
+	 *
+	 * @param line characters of the line
+	 * @param length number of characters of the line
+	 * @return the values of the columns
+	 * @throws IllegalArgumentException if a quoted value is not closed
+	 */
+	static List<char[]> parseCsv(char[] line, int length) {
+		List<char[]> values = new ArrayList<>();
+		char[] buffer = new char[length];
+		try {
+			int position = 0;
+			while (true) {
+				int size = 0;
+				if (position < length && line[position] == '"') {
+					position++;
+					while (true) {
+						if (position >= length)
+							throw new IllegalArgumentException("Quoted value not closed");
+						char c = line[position++];
+						if (c == '"') {
+							if (position < length && line[position] == '"') {
+								buffer[size++] = '"';
+								position++;
+							} else {
+								break;
+							}
+						} else {
+							buffer[size++] = c;
+						}
+					}
+					if (position < length && line[position] != ',')
+						throw new IllegalArgumentException("Unexpected characters after a quoted value");
+				} else {
+					while (position < length && line[position] != ',')
+						buffer[size++] = line[position++];
+				}
+				values.add(Arrays.copyOf(buffer, size));
+				if (position >= length)
+					return values;
+				position++;
+			}
+		} catch (RuntimeException e) {
+			for (char[] value : values)
+				Arrays.fill(value, '\0');
+			throw e;
+		} finally {
+			Arrays.fill(buffer, '\0');
+		}
+	}
+
+	static void appendJson(BulkRecord record, StringBuilder target) {
+		target.append('{');
+		for (int i = 0; i < record.size(); i++) {
+			if (i > 0)
+				target.append(',');
+			appendJsonString(record.getName(i).toCharArray(), target);
+			target.append(':');
+			if (record.isLiteral(i))
+				target.append(record.getValue(i));
+			else
+				appendJsonString(record.getValue(i), target);
+		}
+		target.append('}');
+	}
+
+	static void appendJsonString(char[] value, StringBuilder target) {
+		target.append('"');
+		for (char c : value) {
+			switch (c) {
+			case '"':
+				target.append("\\\"");
+				break;
+			case '\\':
+				target.append("\\\\");
+				break;
+			case '\n':
+				target.append("\\n");
+				break;
+			case '\r':
+				target.append("\\r");
+				break;
+			case '\t':
+				target.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					target.append(String.format("\\u%04x", (int) c));
+				else
+					target.append(c);
+			}
+		}
+		target.append('"');
+	}
+
+	/**
+	 * Method that writes the values of the given columns of a record, the columns missing in the record are empty
+	 */
+	static void appendCsv(BulkRecord record, List<String> columns, StringBuilder target) {
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0)
+				target.append(',');
+			int index = record.indexOf(columns.get(i));
+			if (index >= 0)
+				appendCsvValue(record.getValue(index), target);
+		}
+	}
+
+	static void appendCsvHeader(List<String> columns, StringBuilder target) {
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0)
+				target.append(',');
+			appendCsvValue(columns.get(i).toCharArray(), target);
+		}
+	}
+
+	private static void appendCsvValue(char[] value, StringBuilder target) {
+		boolean quoted = value.length > 0 && (value[0] == ' ' || value[value.length - 1] == ' ');
+		for (int i = 0; i < value.length && !quoted; i++)
+			quoted = value[i] == ',' || value[i] == '"' || value[i] == '\n' || value[i] == '\r';
+
+		if (!quoted) {
+			target.append(value);
+			return;
+		}
+		target.append('"');
+		for (char c : value) {
+			if (c == '"')
+				target.append('"');
+			target.append(c);
+		}
+		target.append('"');
+	}
+
+	private static final class Cursor {
+
+		private final char[] line;
+		private final int length;
+		private int position;
+
+		private Cursor(char[] line, int length) {
+			this.line = line;
+			this.length = length;
+		}
+
+		private char peek() {
+			if (position >= length)
+				throw new IllegalArgumentException("Unexpected end of the JSON object");
+			return line[position];
+		}
+
+		private void expect(char c) {
+			if (peek() != c)
+				throw new IllegalArgumentException(String.format("Expected '%c' at position %d", c, position));
+			position++;
+		}
+
+		private void skipWhitespace() {
+			while (position < length && Character.isWhitespace(line[position]))
+				position++;
+		}
+
+		/**
+		 * Reads a string whose opening quote has already been read
+		 */
+		private char[] readString() {
+			char[] buffer = new char[length - position];
+			int size = 0;
+			try {
+				while (true) {
+					char c = peek();
+					position++;
+					if (c == '"')
+						return Arrays.copyOf(buffer, size);
+					if (c != '\\') {
+						buffer[size++] = c;
+						continue;
+					}
+
+					char escape = peek();
+					position++;
+					switch (escape) {
+					case 'b':
+						buffer[size++] = '\b';
+						break;
+					case 'f':
+						buffer[size++] = '\f';
+						break;
+					case 'n':
+						buffer[size++] = '\n';
+						break;
+					case 'r':
+						buffer[size++] = '\r';
+						break;
+					case 't':
+						buffer[size++] = '\t';
+						break;
+					case 'u':
+						if (position + 4 > length)
+							throw new IllegalArgumentException("Invalid unicode escape");
+						int code = 0;
+						for (int i = 0; i < 4; i++) {
+							int digit = Character.digit(line[position++], 16);
+							if (digit < 0)
+								throw new IllegalArgumentException("Invalid unicode escape");
+							code = code * 16 + digit;
+						}
+						buffer[size++] = (char) code;
+						break;
+					case '"':
+					case '\\':
+					case '/':
+						buffer[size++] = escape;
+						break;
+					default:
+						throw new IllegalArgumentException("Invalid escape '\\" + escape + "'");
+					}
+				}
+			} finally {
+				Arrays.fill(buffer, '\0');
+			}
+		}
+
+		/**
+		 * Reads a value that is not a string (number, boolean, null, object or array) without interpreting it
+		 */
+		private char[] readLiteral() {
+			int start = position;
+			int depth = 0;
+			boolean inString = false;
+			while (position < length) {
+				char c = line[position];
+				if (inString) {
+					if (c == '\\')
+						position++;
+					else if (c == '"')
+						inString = false;
+				} else if (c == '"') {
+					inString = true;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					if (depth == 0)
+						break;
+					depth--;
+				} else if (c == ',' && depth == 0) {
+					break;
+				}
+				position++;
+			}
+			int end = position;
+			while (end > start && Character.isWhitespace(line[end - 1]))
+				end--;
+			if (end == start || depth != 0 || inString)
+				throw new IllegalArgumentException("Invalid JSON value at position " + start);
+			return Arrays.copyOfRange(line, start, end);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package it.creativeraccoon.password.hashing.sdk.migration;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Enum which represents the formats of the files read and written by the {@link BulkHashingPipeline}
+ * @author ZeroBrushV2
+ */
+public enum BulkRecordFormat {
+	/**
+	 * One flat JSON object for each line <code>{"id":"42","password":"secret"}</code>, the values that are not strings are copied as they are
+	 */
+	JSON_LINES("jsonl"),
+	/**
+	 * Comma separated values with a header line that contains the names of the columns, the values can be quoted (<code>"a ""b"""</code>).
+	 * A quoted value cannot contain line breaks.
+	 */
+	CSV("csv");
+
+	private String label;
+
+	BulkRecordFormat(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public static BulkRecordFormat getByLabel(String label) {
+		return Arrays.stream(BulkRecordFormat.values()).filter(format -> format.label.equalsIgnoreCase(label)).findFirst().orElse(null);
+	}
+}
@@ -0,0 +1,39 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Enum which represents the formats in which a hashed password can be saved
+ * @author ZeroBrushV2
+ */
+public enum HashEncodingFormat {
+	/**
+	 * Format of the library <code>$a=argon2,$v=19,$m=8000,$i=180,$t=4$&lt;base64(salt+$+password)&gt;</code>
+	 */
+	LEGACY("legacy"),
+	/**
+	 * Standard format of the Password Hashing Competition <code>$argon2id$v=19$m=8000,t=180,p=4$&lt;salt&gt;$&lt;password&gt;</code>,
+	 * salt and password are encoded in base64 without padding. The format is the same of libargon2, so the hashes can be verified by other stacks.
+	 */
+	PHC("phc"),
+	/**
+	 * Compact binary format of {@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}, to be saved in a BYTEA/VARBINARY column.
+	 * It is not a string, so it cannot be used as encoding of the hashers.
+	 */
+	BINARY("binary");
+
+	private String label;
+
+	HashEncodingFormat(String label) {
+		this.label = label;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public static HashEncodingFormat getByLabel(String label) {
+		return Arrays.stream(HashEncodingFormat.values()).filter(format -> format.label.equalsIgnoreCase(label)).findFirst().orElse(null);
+	}
+}
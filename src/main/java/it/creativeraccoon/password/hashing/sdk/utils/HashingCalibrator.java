@@ -0,0 +1,380 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import it.creativeraccoon.password.hashing.sdk.engine.Argon2CostEstimator;
+import it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler;
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import it.creativeraccoon.password.hashing.sdk.hashers.ParallelArgon2Engine;
+import lombok.NonNull;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calibration of the Argon2 parameters on the current machine: the calibrator looks for the strongest parameters
+ * whose hash takes at most the target latency and at most the given memory. <br>
+ * The memory is preferred over the iterations: the memory cost is raised up to the limit and then the iterations are chosen
+ * to fill the target latency, if even the minimum iterations are too slow the memory is reduced.
+ * The first guess comes from the {@link Argon2CostEstimator}, then real hashes are measured and the iterations corrected.
+ * <br><br>
+ * The result is saved in a local file, keyed by CPU model, number of cores and calibration settings, so after a restart on the same
+ * hardware the parameters are available immediately. The parameters found can be applied to the {@link HashingConfigurationSource},
+ * used by {@link it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory#getDefaultInstance()}:
+ * <pre>
+ * HashingCalibrator.builder()
+ *         .targetLatency(1, TimeUnit.SECONDS)
+ *         .maxMemoryCost(65536)
+ *         .build()
+ *         .calibrateAndApply(HashingConfigurationSource.getDefault());
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class HashingCalibrator {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashingCalibrator.class);
+
+	private static final int MAX_MEASURES = 5;
+
+	private final long targetLatencyNanos;
+	private final int maxMemoryCost;
+	private final int minMemoryCost;
+	private final int minIterations;
+	private final int threads;
+	private final HashingConfiguration baseConfiguration;
+	private final Path cacheFile;
+
+	private HashingCalibrator(Builder builder) {
+		this.targetLatencyNanos = builder.targetLatencyNanos;
+		this.maxMemoryCost = builder.maxMemoryCost;
+		this.minIterations = builder.minIterations;
+		this.baseConfiguration = builder.baseConfiguration != null ? builder.baseConfiguration : HashingConfigurationSource.getDefault().get();
+		this.threads = builder.threads > 0 ? builder.threads : baseConfiguration.getThreads();
+		this.minMemoryCost = Math.min(maxMemoryCost, Math.max(builder.minMemoryCost, 8 * threads));
+		this.cacheFile = builder.cacheFile;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Method that returns the parameters saved in the cache file for this machine, or measures them if they are not present
+	 *
+	 * @return the base configuration with memory cost, iterations and threads calibrated
+	 */
+	public HashingConfiguration calibrate() {
+		String key = cacheKey();
+		HashingConfiguration cached = readCache(key);
+		if (cached != null) {
+			logger.info("Hashing parameters read from the calibration cache: {}", cached);
+			return cached;
+		}
+
+		HashingConfiguration configuration = measure();
+		writeCache(key, configuration);
+		return configuration;
+	}
+
+	/**
+	 * Method that calibrates the parameters and uses them for the new hashes
+	 *
+	 * @param source the source of the configuration of the hashers
+	 * @return the configuration applied
+	 */
+	public HashingConfiguration calibrateAndApply(@NonNull HashingConfigurationSource source) {
+		HashingConfiguration configuration = calibrate();
+		source.update(configuration);
+		return configuration;
+	}
+
+	/**
+	 * Method that measures the parameters on this machine, without reading the cache file. <br>
+	 * The method computes a few hashes of about the target latency, so it takes some seconds.
+	 *
+	 * @return the base configuration with memory cost, iterations and threads calibrated
+	 */
+	public HashingConfiguration measure() {
+		Argon2CostEstimator estimator = Argon2CostEstimator.getDefault();
+
+		int memoryCost = maxMemoryCost;
+		int iterations = (int) Math.min(Integer.MAX_VALUE, targetLatencyNanos / Math.max(1, estimator.estimateTimeNanos(memoryCost, 1, threads)));
+		if (iterations < minIterations) {
+			iterations = minIterations;
+			memoryCost = scaleMemory(memoryCost, (double) targetLatencyNanos / estimator.estimateTimeNanos(memoryCost, iterations, threads));
+		}
+
+		long latency = time(memoryCost, iterations);
+		for (int measures = 1; measures < MAX_MEASURES; measures++) {
+			if (latency > targetLatencyNanos) {
+				// too slow: fewer iterations, then less memory
+				if (iterations > minIterations)
+					iterations = Math.max(minIterations, (int) (iterations * (double) targetLatencyNanos / latency));
+				else if (memoryCost > minMemoryCost)
+					memoryCost = scaleMemory(memoryCost, (double) targetLatencyNanos / latency);
+				else
+					break;
+			} else {
+				// room left: more iterations if at least one more fits in the target
+				int moreIterations = (int) (iterations * (double) targetLatencyNanos / latency);
+				if (moreIterations <= iterations)
+					break;
+
+				long moreLatency = time(memoryCost, moreIterations);
+				if (moreLatency > targetLatencyNanos)
+					break;
+				iterations = moreIterations;
+				latency = moreLatency;
+				continue;
+			}
+			latency = time(memoryCost, iterations);
+		}
+
+		HashingConfiguration configuration = withParameters(memoryCost, iterations);
+		logger.info("Hashing parameters calibrated in {} ms per hash: {}", TimeUnit.NANOSECONDS.toMillis(latency), configuration);
+		return configuration;
+	}
+
+	private int scaleMemory(int memoryCost, double ratio) {
+		int scaled = (int) Math.min(maxMemoryCost, memoryCost * ratio);
+		// Argon2 uses a multiple of 4 blocks for every lane
+		scaled -= scaled % (4 * threads);
+		return Math.max(minMemoryCost, scaled);
+	}
+
+	private long time(int memoryCost, int iterations) {
+		byte[] salt = new byte[baseConfiguration.getSaltSize()];
+		byte[] password = new byte[16];
+		RandomSource.getDefault().nextBytes(salt);
+		RandomSource.getDefault().nextBytes(password);
+
+		Argon2Parameters parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+				.withVersion(Argon2Parameters.ARGON2_VERSION_13)
+				.withIterations(iterations)
+				.withMemoryAsKB(memoryCost)
+				.withParallelism(threads)
+				.withSalt(salt)
+				.build();
+		byte[] out = new byte[32];
+
+		long start = System.nanoTime();
+		MemoryBudgetScheduler.getDefault().execute(MemoryBudgetScheduler.argon2MemoryKb(memoryCost, threads), () ->
+				ParallelArgon2Engine.getDefault().generateBytes(parameters, password, out, 0, out.length));
+		return System.nanoTime() - start;
+	}
+
+	private HashingConfiguration withParameters(int memoryCost, int iterations) {
+		Map<HashingConfigurationProperties, String> properties = new EnumMap<>(baseConfiguration.toProperties());
+		properties.put(HashingConfigurationProperties.MEMORY_COST, String.valueOf(memoryCost));
+		properties.put(HashingConfigurationProperties.ITERATIONS, String.valueOf(iterations));
+		properties.put(HashingConfigurationProperties.THREADS, String.valueOf(threads));
+		return HashingConfiguration.of(properties);
+	}
+
+	/**
+	 * The parameters are valid only for the same hardware and the same calibration settings
+	 */
+	private String cacheKey() {
+		return String.format("%s|%d|%s|%d|%d|%d|%d|%d", cpuModel(), Runtime.getRuntime().availableProcessors(), System.getProperty("os.arch"),
+				TimeUnit.NANOSECONDS.toMillis(targetLatencyNanos), maxMemoryCost, minMemoryCost, minIterations, threads);
+	}
+
+	private static String cpuModel() {
+		try {
+			Path cpuInfo = Paths.get("/proc/cpuinfo");
+			if (Files.isReadable(cpuInfo)) {
+				List<String> lines = Files.readAllLines(cpuInfo, StandardCharsets.UTF_8);
+				for (String line : lines) {
+					if (line.startsWith("model name") && line.indexOf(':') > 0)
+						return line.substring(line.indexOf(':') + 1).trim();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// the model is not available, the other properties are still used
+		}
+
+		String identifier = System.getenv("PROCESSOR_IDENTIFIER");
+		return identifier != null ? identifier : "unknown";
+	}
+
+	private HashingConfiguration readCache(String key) {
+		if (cacheFile == null || !Files.exists(cacheFile))
+			return null;
+
+		Properties cache = new Properties();
+		try (InputStream input = Files.newInputStream(cacheFile)) {
+			cache.load(input);
+			String value = cache.getProperty(key);
+			if (value == null)
+				return null;
+
+			String[] parameters = value.split(",");
+			return withParameters(Integer.parseInt(parameters[0].trim()), Integer.parseInt(parameters[1].trim()));
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not read the calibration cache '" + cacheFile + "', the parameters are measured again. Error: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeCache(String key, HashingConfiguration configuration) {
+		if (cacheFile == null)
+			return;
+
+		try {
+			Path directory = cacheFile.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+
+			Properties cache = new Properties();
+			if (Files.exists(cacheFile)) {
+				try (InputStream input = Files.newInputStream(cacheFile)) {
+					cache.load(input);
+				}
+			}
+			cache.setProperty(key, configuration.getMemoryCost() + "," + configuration.getIterations());
+
+			// written on a temporary file and moved, so a concurrent reader never sees a partial file
+			Path temporary = Files.createTempFile(directory, "calibration", ".tmp");
+			try (OutputStream output = Files.newOutputStream(temporary)) {
+				cache.store(output, "Argon2 parameters calibrated by the password hashing SDK (memory cost, iterations)");
+			}
+			Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Could not write the calibration cache '" + cacheFile + "'. Error: " + e.getMessage());
+		}
+	}
+
+	public long getTargetLatencyNanos() {
+		return targetLatencyNanos;
+	}
+
+	/**
+	 * @return maximum memory (in KB) of a hash
+	 */
+	public int getMaxMemoryCost() {
+		return maxMemoryCost;
+	}
+
+	public int getMinIterations() {
+		return minIterations;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return the cache file, null if the results are not cached
+	 */
+	public Path getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * Builder of the {@link HashingCalibrator}
+	 */
+	public static final class Builder {
+
+		private long targetLatencyNanos = TimeUnit.SECONDS.toNanos(1);
+		private int maxMemoryCost = 65536;
+		private int minMemoryCost = 8192;
+		private int minIterations = 2;
+		private int threads;
+		private HashingConfiguration baseConfiguration;
+		private Path cacheFile = Paths.get(System.getProperty("user.home"), ".password-hashing-sdk", "calibration.properties");
+
+		private Builder() {}
+
+		/**
+		 * @param targetLatency maximum time of a hash, default 1 second
+		 * @param unit unit of the time
+		 */
+		public Builder targetLatency(long targetLatency, @NonNull TimeUnit unit) {
+			if (targetLatency <= 0)
+				throw new IllegalArgumentException("The target latency must be positive");
+			this.targetLatencyNanos = unit.toNanos(targetLatency);
+			return this;
+		}
+
+		/**
+		 * @param maxMemoryCost maximum memory (in KB) of a hash, default 65536 (64 MB)
+		 */
+		public Builder maxMemoryCost(int maxMemoryCost) {
+			if (maxMemoryCost <= 0)
+				throw new IllegalArgumentException("The maximum memory cost must be positive");
+			this.maxMemoryCost = maxMemoryCost;
+			return this;
+		}
+
+		/**
+		 * @param minMemoryCost memory (in KB) below which the calibrator does not go even if the target latency is not met, default 8192 (8 MB)
+		 */
+		public Builder minMemoryCost(int minMemoryCost) {
+			if (minMemoryCost <= 0)
+				throw new IllegalArgumentException("The minimum memory cost must be positive");
+			this.minMemoryCost = minMemoryCost;
+			return this;
+		}
+
+		/**
+		 * @param minIterations iterations below which the calibrator reduces the memory instead, default 2
+		 */
+		public Builder minIterations(int minIterations) {
+			if (minIterations <= 0)
+				throw new IllegalArgumentException("The minimum iterations must be positive");
+			this.minIterations = minIterations;
+			return this;
+		}
+
+		/**
+		 * @param threads parallelism of the hashes, default the one of the base configuration
+		 */
+		public Builder threads(int threads) {
+			if (threads <= 0)
+				throw new IllegalArgumentException("The number of threads must be positive");
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * @param baseConfiguration configuration from which algorithm, salt size and encoding are taken,
+		 *                          default the current configuration of {@link HashingConfigurationSource#getDefault()}
+		 */
+		public Builder baseConfiguration(@NonNull HashingConfiguration baseConfiguration) {
+			this.baseConfiguration = baseConfiguration;
+			return this;
+		}
+
+		/**
+		 * @param cacheFile file where the results are saved, default ~/.password-hashing-sdk/calibration.properties
+		 */
+		public Builder cacheFile(@NonNull Path cacheFile) {
+			this.cacheFile = cacheFile;
+			return this;
+		}
+
+		/**
+		 * The results are not read from or saved in a file, every calibration measures the parameters
+		 */
+		public Builder noCache() {
+			this.cacheFile = null;
+			return this;
+		}
+
+		public HashingCalibrator build() {
+			return new HashingCalibrator(this);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the hashing configuration, with the properties already converted in their types. <br>
+ * The snapshot is created only once from the map of {@link HashingConfigurationProperties} and then shared by all the threads
+ * through the {@link HashingConfigurationSource}.
+ *
+ * @author ZeroBrushV2
+ */
+public final class HashingConfiguration {
+
+	private final PasswordAlgorithms algorithm;
+	private final int memoryCost;
+	private final int iterations;
+	private final int threads;
+	private final int saltSize;
+	private final HashEncodingFormat encoding;
+	private final Map<HashingConfigurationProperties, String> properties;
+
+	private HashingConfiguration(PasswordAlgorithms algorithm, int memoryCost, int iterations, int threads, int saltSize, HashEncodingFormat encoding) {
+		this.algorithm = algorithm;
+		this.memoryCost = memoryCost;
+		this.iterations = iterations;
+		this.threads = threads;
+		this.saltSize = saltSize;
+		this.encoding = encoding;
+
+		Map<HashingConfigurationProperties, String> map = new EnumMap<>(HashingConfigurationProperties.class);
+		map.put(HashingConfigurationProperties.ALGORITHM, algorithm.getLabel());
+		map.put(HashingConfigurationProperties.MEMORY_COST, String.valueOf(memoryCost));
+		map.put(HashingConfigurationProperties.ITERATIONS, String.valueOf(iterations));
+		map.put(HashingConfigurationProperties.THREADS, String.valueOf(threads));
+		map.put(HashingConfigurationProperties.SALT_SIZE, String.valueOf(saltSize));
+		map.put(HashingConfigurationProperties.ENCODING, encoding.getLabel());
+		this.properties = Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * Method that converts the map of properties read from the files in a typed snapshot
+	 *
+	 * @param properties map of the properties, the optional ones can be missing
+	 * @return the snapshot of the configuration
+	 * @throws IllegalArgumentException if a property is missing or is not valid
+	 */
+	public static HashingConfiguration of(@NonNull Map<HashingConfigurationProperties, String> properties) {
+		String algorithmLabel = valueOf(properties, HashingConfigurationProperties.ALGORITHM);
+		PasswordAlgorithms algorithm = PasswordAlgorithms.getByLabel(algorithmLabel);
+		if (algorithm == null)
+			throw new IllegalArgumentException("Unknown algorithm '" + algorithmLabel + "'");
+
+		String encodingLabel = valueOf(properties, HashingConfigurationProperties.ENCODING);
+		HashEncodingFormat encoding = HashEncodingFormat.getByLabel(encodingLabel);
+		if (encoding == null || encoding == HashEncodingFormat.BINARY)
+			throw new IllegalArgumentException("Unknown encoding '" + encodingLabel + "'");
+
+		return new HashingConfiguration(algorithm,
+				positiveInt(properties, HashingConfigurationProperties.MEMORY_COST),
+				positiveInt(properties, HashingConfigurationProperties.ITERATIONS),
+				positiveInt(properties, HashingConfigurationProperties.THREADS),
+				positiveInt(properties, HashingConfigurationProperties.SALT_SIZE),
+				encoding);
+	}
+
+	private static String valueOf(Map<HashingConfigurationProperties, String> properties, HashingConfigurationProperties property) {
+		String value = properties.get(property);
+		if (value == null)
+			value = property.getDefaultValue();
+		if (value == null || value.trim().isEmpty())
+			throw new IllegalArgumentException("Property '" + property.getPropertyName() + "' not found");
+		return value.trim();
+	}
+
+	private static int positiveInt(Map<HashingConfigurationProperties, String> properties, HashingConfigurationProperties property) {
+		String value = valueOf(properties, property);
+		try {
+			int result = Integer.parseInt(value);
+			if (result > 0)
+				return result;
+		} catch (NumberFormatException e) {
+			// handled below
+		}
+		throw new IllegalArgumentException("Property '" + property.getPropertyName() + "' must be a positive number, found '" + value + "'");
+	}
+
+	public PasswordAlgorithms getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * @return memory (in KB) used for the hashing
+	 */
+	public int getMemoryCost() {
+		return memoryCost;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public int getSaltSize() {
+		return saltSize;
+	}
+
+	public HashEncodingFormat getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * @return non-modifiable map of the properties, in the form accepted by the factories
+	 */
+	public Map<HashingConfigurationProperties, String> toProperties() {
+		return properties;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof HashingConfiguration))
+			return false;
+
+		HashingConfiguration configuration = (HashingConfiguration) other;
+		return algorithm == configuration.algorithm && memoryCost == configuration.memoryCost && iterations == configuration.iterations
+				&& threads == configuration.threads && saltSize == configuration.saltSize && encoding == configuration.encoding;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(algorithm, memoryCost, iterations, threads, saltSize, encoding);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("HashingConfiguration[algorithm=%s, memoryCost=%d, iterations=%d, threads=%d, saltSize=%d, encoding=%s]",
+				algorithm.getLabel(), memoryCost, iterations, threads, saltSize, encoding.getLabel());
+	}
+}
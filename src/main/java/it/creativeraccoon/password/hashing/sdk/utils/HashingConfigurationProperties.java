@@ -23,16 +23,33 @@ public enum HashingConfigurationProperties {
 	/**
 	 * The Salt_Size is intended as the size of the Byte[] of the generated Salt
 	 */
-	SALT_SIZE("security.hashing.salt.size");
+	SALT_SIZE("security.hashing.salt.size"),
+	/**
+	 * The Encoding is intended as the format of the string produced by the hashing (see {@link HashEncodingFormat}), optional, default "legacy"
+	 */
+	ENCODING("security.hashing.encoding", HashEncodingFormat.LEGACY.getLabel());
 
 	private String propertyName;
+	private String defaultValue;
 	
 	HashingConfigurationProperties(String propertyName) {
+		this(propertyName, null);
+	}
+
+	HashingConfigurationProperties(String propertyName, String defaultValue) {
 		this.propertyName = propertyName;
+		this.defaultValue = defaultValue;
 	}
 
 	public String getPropertyName() {
 		return propertyName;
 	}
 
+	/**
+	 * @return the value used when the property is not present in the file, null if the property is mandatory
+	 */
+	public String getDefaultValue() {
+		return defaultValue;
+	}
+
 }
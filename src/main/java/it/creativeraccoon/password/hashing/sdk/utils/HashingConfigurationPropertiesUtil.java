@@ -18,6 +18,12 @@ public class HashingConfigurationPropertiesUtil {
 	private static final String defaultPropertiesFileName = "security-default.properties";
 	private static final Logger logger = LoggerFactory.getLogger(HashingConfigurationPropertiesUtil.class);
 
+	/**
+	 * The files are in the classpath and do not change, so they are parsed only once
+	 */
+	private static volatile Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> defaultProperties;
+	private static volatile Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> userProperties;
+
 	private Properties prop;
 
 	private Collection<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties> getProperties() {
@@ -30,6 +36,30 @@ public class HashingConfigurationPropertiesUtil {
 	 * @return map of default properties
 	 */
 	public Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> getDefaultProperties() {
+		Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> properties = defaultProperties;
+		if (properties == null) {
+			properties = loadDefaultProperties();
+			defaultProperties = properties;
+		}
+		return properties;
+	}
+
+	/**
+	 * Method that returns a non-modifiable map of the properties present in the file security.properties,
+	 * or of the default ones if the file is not present or not valid
+	 *
+	 * @return map of properties
+	 */
+	public Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> readProperties() {
+		Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> properties = userProperties;
+		if (properties == null) {
+			properties = loadProperties();
+			userProperties = properties;
+		}
+		return properties;
+	}
+
+	private Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> loadDefaultProperties() {
 		try (InputStream input = this.getClass().getClassLoader().getResourceAsStream(defaultPropertiesFileName)) {
 			
 			Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> properties = new HashMap<>();
@@ -47,10 +77,11 @@ public class HashingConfigurationPropertiesUtil {
 	
 			for (it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties property : it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties.values()) {
 	
-				if (StringUtils.isBlank(prop.getProperty(property.getPropertyName()))) 
+				String value = prop.getProperty(property.getPropertyName(), property.getDefaultValue());
+				if (StringUtils.isBlank(value)) 
 					throw new IllegalArgumentException("Property '" + property + "' not found in " + propertiesFileName);
 				
-				properties.put(property, prop.getProperty(property.getPropertyName()));
+				properties.put(property, value);
 	
 			}
 
@@ -60,7 +91,7 @@ public class HashingConfigurationPropertiesUtil {
 		}
 	}
 	
-	public Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> readProperties() {
+	private Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> loadProperties() {
 		try (InputStream input = this.getClass().getClassLoader().getResourceAsStream(propertiesFileName)) {
 	
 			Map<it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties, String> properties = new HashMap<>();
@@ -78,10 +109,11 @@ public class HashingConfigurationPropertiesUtil {
 			
 			for (it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties property : it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties.values()) {
 	
-				if (StringUtils.isBlank(prop.getProperty(property.getPropertyName())))
+				String value = prop.getProperty(property.getPropertyName(), property.getDefaultValue());
+				if (StringUtils.isBlank(value))
 						throw new IllegalArgumentException("Proprietà '" + property + "' non trovata in " + propertiesFileName);
 
-				properties.put(property, prop.getProperty(property.getPropertyName()));
+				properties.put(property, value);
 			}
 
 			return Collections.unmodifiableMap(properties);
@@ -0,0 +1,312 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Source of the hashing configuration used for the new hashes. <br>
+ * The properties are parsed only once in an immutable {@link HashingConfiguration}, that is read without locks by {@link #get()}.
+ * <br><br>
+ * Optionally an external properties file can be watched: when the file changes the properties present in it are applied over the
+ * initial configuration and the new snapshot replaces the previous one atomically, so the cost of the hashes can be changed without a restart:
+ * <pre>
+ * HashingConfigurationSource.getDefault().watch(Paths.get("/etc/my-app/security.properties"));
+ * </pre>
+ * The file can be a symlink, for example a Kubernetes ConfigMap mounted as a volume: the file is reloaded also when the target of the link changes.
+ * After a change the file is reloaded only when its size and last modified time have stopped changing for {@link #QUIET_PERIOD_MILLIS} ms,
+ * so a file rewritten in place is not read while it is still being written; replacing the file with an atomic move avoids the wait.
+ * If the file is empty or not valid the previous configuration is kept, if the file is deleted the initial configuration is restored.
+ * The passwords already saved are not affected, since the verifiers read the parameters from the hash.
+ *
+ * @author ZeroBrushV2
+ */
+public class HashingConfigurationSource implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(HashingConfigurationSource.class);
+
+	/**
+	 * Time for which the watched file must remain unchanged before it is reloaded
+	 */
+	public static final long QUIET_PERIOD_MILLIS = 200;
+
+	private static volatile HashingConfigurationSource defaultInstance;
+
+	private final HashingConfiguration initialConfiguration;
+	private final AtomicReference<HashingConfiguration> configuration;
+	private final AtomicLong reloadCount = new AtomicLong();
+	private final AtomicLong failedReloadCount = new AtomicLong();
+
+	private WatchService watchService;
+	private Thread watcher;
+
+	/**
+	 * @param initialConfiguration configuration used until a different one is loaded
+	 */
+	public HashingConfigurationSource(@NonNull HashingConfiguration initialConfiguration) {
+		this.initialConfiguration = initialConfiguration;
+		this.configuration = new AtomicReference<>(initialConfiguration);
+	}
+
+	/**
+	 * Method that returns the source used by {@link it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory#getDefaultInstance()},
+	 * initialized with the properties of the file security-default.properties
+	 *
+	 * @return the default source
+	 */
+	public static HashingConfigurationSource getDefault() {
+		HashingConfigurationSource source = defaultInstance;
+		if (source == null) {
+			synchronized (HashingConfigurationSource.class) {
+				source = defaultInstance;
+				if (source == null) {
+					source = new HashingConfigurationSource(HashingConfiguration.of(new HashingConfigurationPropertiesUtil().getDefaultProperties()));
+					defaultInstance = source;
+				}
+			}
+		}
+		return source;
+	}
+
+	/**
+	 * Method that replaces the default source, the watcher of the previous source is not stopped
+	 *
+	 * @param source the new default source
+	 */
+	public static void setDefault(@NonNull HashingConfigurationSource source) {
+		defaultInstance = source;
+	}
+
+	/**
+	 * @return the current configuration
+	 */
+	public HashingConfiguration get() {
+		return configuration.get();
+	}
+
+	/**
+	 * Method that replaces the current configuration
+	 *
+	 * @param newConfiguration the configuration to be used for the new hashes
+	 */
+	public void update(@NonNull HashingConfiguration newConfiguration) {
+		HashingConfiguration previous = configuration.getAndSet(newConfiguration);
+		if (!previous.equals(newConfiguration)) {
+			reloadCount.incrementAndGet();
+			logger.info("Hashing configuration changed to {}", newConfiguration);
+		}
+	}
+
+	/**
+	 * Method that reads the properties file and applies them over the initial configuration. <br>
+	 * If the file does not exist the initial configuration is restored, an empty file is instead refused,
+	 * since it is usually a file truncated by a rewrite in progress rather than a request to restore the initial configuration.
+	 *
+	 * @param file the properties file
+	 * @return the configuration in use after the reload
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is empty or the properties are not valid, in this case the current configuration is not changed
+	 */
+	public HashingConfiguration reload(@NonNull Path file) throws IOException {
+		if (!Files.exists(file)) {
+			update(initialConfiguration);
+			return initialConfiguration;
+		}
+
+		if (Files.size(file) == 0)
+			throw new IllegalArgumentException("The file is empty");
+
+		Properties prop = new Properties();
+		try (InputStream input = Files.newInputStream(file)) {
+			prop.load(input);
+		}
+
+		Map<HashingConfigurationProperties, String> properties = new EnumMap<>(initialConfiguration.toProperties());
+		for (HashingConfigurationProperties property : HashingConfigurationProperties.values()) {
+			String value = prop.getProperty(property.getPropertyName());
+			if (value != null)
+				properties.put(property, value);
+		}
+
+		HashingConfiguration newConfiguration = HashingConfiguration.of(properties);
+		update(newConfiguration);
+		return newConfiguration;
+	}
+
+	/**
+	 * Method that loads the properties file, if present, and starts a daemon thread that reloads it every time it changes
+	 *
+	 * @param file the properties file to be watched, its directory must exist
+	 * @return this source
+	 * @throws IOException if the directory of the file cannot be watched
+	 * @throws IllegalStateException if the source is already watching a file
+	 */
+	public synchronized HashingConfigurationSource watch(@NonNull Path file) throws IOException {
+		if (watcher != null)
+			throw new IllegalStateException("The source is already watching a file");
+
+		Path absoluteFile = file.toAbsolutePath();
+		Path directory = absoluteFile.getParent();
+		Path fileName = absoluteFile.getFileName();
+
+		watchService = directory.getFileSystem().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		reloadQuietly(absoluteFile);
+
+		WatchService service = watchService;
+		FileState initialState = FileState.of(absoluteFile);
+		watcher = new Thread(() -> watchLoop(service, absoluteFile, fileName, initialState), "hashing-configuration-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+		return this;
+	}
+
+	/**
+	 * Any event of the directory can change the file: a Kubernetes ConfigMap replaces the <code>..data</code> symlink, to which the file points,
+	 * and a file moved from another directory may not produce an event with its name. So after every event the file is compared
+	 * with its last state, through the real path, the last modified time and the size. <br>
+	 * A file rewritten in place produces an event for the truncation and one or more for the writes, so the file is reloaded only once
+	 * it has remained unchanged for the quiet period, and the events received in the meantime are discarded
+	 */
+	private void watchLoop(WatchService service, Path file, Path fileName, FileState initialState) {
+		FileState state = initialState;
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = service.take();
+
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context()))
+						changed = true;
+				}
+				key.reset();
+
+				FileState newState = FileState.of(file);
+				if (changed || !Objects.equals(state, newState)) {
+					newState = awaitStable(file, newState);
+					discardPendingEvents(service);
+					reloadQuietly(file);
+				}
+				state = newState;
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// the source has been closed
+		}
+	}
+
+	private static FileState awaitStable(Path file, FileState state) throws InterruptedException {
+		while (true) {
+			Thread.sleep(QUIET_PERIOD_MILLIS);
+			FileState newState = FileState.of(file);
+			if (Objects.equals(state, newState))
+				return newState;
+			state = newState;
+		}
+	}
+
+	private static void discardPendingEvents(WatchService service) {
+		WatchKey key;
+		while ((key = service.poll()) != null) {
+			key.pollEvents();
+			key.reset();
+		}
+	}
+
+	private void reloadQuietly(Path file) {
+		try {
+			reload(file);
+		} catch (IOException | IllegalArgumentException e) {
+			failedReloadCount.incrementAndGet();
+			logger.warn("Could not reload the hashing configuration from '" + file + "', the current one is kept. Error: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * State of the watched file after following the symlinks, null if the file does not exist
+	 */
+	private static final class FileState {
+
+		private final Path realPath;
+		private final FileTime lastModified;
+		private final long size;
+
+		private FileState(Path realPath, FileTime lastModified, long size) {
+			this.realPath = realPath;
+			this.lastModified = lastModified;
+			this.size = size;
+		}
+
+		private static FileState of(Path file) {
+			try {
+				Path realPath = file.toRealPath();
+				BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+				return new FileState(realPath, attributes.lastModifiedTime(), attributes.size());
+			} catch (IOException e) {
+				return null;
+			}
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other)
+				return true;
+			if (!(other instanceof FileState))
+				return false;
+
+			FileState state = (FileState) other;
+			return size == state.size && realPath.equals(state.realPath) && lastModified.equals(state.lastModified);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(realPath, lastModified, size);
+		}
+	}
+
+	/**
+	 * @return number of times the configuration has been changed
+	 */
+	public long getReloadCount() {
+		return reloadCount.get();
+	}
+
+	/**
+	 * @return number of reloads refused because the file was empty or not valid
+	 */
+	public long getFailedReloadCount() {
+		return failedReloadCount.get();
+	}
+
+	/**
+	 * Stops the watcher of the file, the current configuration remains in use
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (watcher == null)
+			return;
+
+		watcher.interrupt();
+		watchService.close();
+		watcher = null;
+		watchService = null;
+	}
+}
@@ -0,0 +1,136 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import lombok.NonNull;
+
+/**
+ * Immutable representation of a hashed password, obtained with {@link PasswordEncodingUtils#parse(CharSequence)}. <br>
+ * The string saved in the DB is parsed only once, the verifiers work directly on the numeric properties and on the bytes of salt and hash.
+ *
+ * @author ZeroBrushV2
+ */
+public final class ParsedPasswordHash {
+
+	private final PasswordAlgorithms algorithm;
+	private final int version;
+	private final int memoryCost;
+	private final int iterations;
+	private final int threads;
+	private final byte[] salt;
+	private final byte[] hash;
+	private final HashEncodingFormat format;
+	private final VerificationPolicy policy;
+
+	public ParsedPasswordHash(@NonNull PasswordAlgorithms algorithm, int version, int memoryCost, int iterations, int threads, @NonNull byte[] salt, @NonNull byte[] hash) {
+		this(algorithm, version, memoryCost, iterations, threads, salt, hash, HashEncodingFormat.LEGACY);
+	}
+
+	public ParsedPasswordHash(@NonNull PasswordAlgorithms algorithm, int version, int memoryCost, int iterations, int threads, @NonNull byte[] salt, @NonNull byte[] hash, @NonNull HashEncodingFormat format) {
+		this(algorithm, version, memoryCost, iterations, threads, salt.clone(), hash.clone(), format, null);
+	}
+
+	/**
+	 * Constructor used by the parser and by {@link #withPolicy(VerificationPolicy)}: the arrays are not copied,
+	 * so they must not be shared with code that can modify them
+	 */
+	ParsedPasswordHash(PasswordAlgorithms algorithm, int version, int memoryCost, int iterations, int threads, byte[] salt, byte[] hash, HashEncodingFormat format,
+			VerificationPolicy policy) {
+		this.algorithm = algorithm;
+		this.version = version;
+		this.memoryCost = memoryCost;
+		this.iterations = iterations;
+		this.threads = threads;
+		this.salt = salt;
+		this.hash = hash;
+		this.format = format;
+		this.policy = policy;
+	}
+
+	/**
+	 * @return the same hash, marked as accepted by the policy, the arrays are shared because they are never modified
+	 */
+	ParsedPasswordHash withPolicy(VerificationPolicy acceptedBy) {
+		return new ParsedPasswordHash(algorithm, version, memoryCost, iterations, threads, salt, hash, format, acceptedBy);
+	}
+
+	public PasswordAlgorithms getAlgorithm() {
+		return algorithm;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return memory (in KB) used for the hashing
+	 */
+	public int getMemoryCost() {
+		return memoryCost;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return a copy of the salt
+	 */
+	public byte[] getSalt() {
+		return salt.clone();
+	}
+
+	public int getSaltSize() {
+		return salt.length;
+	}
+
+	/**
+	 * @return a copy of the hashed password
+	 */
+	public byte[] getHash() {
+		return hash.clone();
+	}
+
+	public int getHashSize() {
+		return hash.length;
+	}
+
+	/**
+	 * @return the format from which the hash has been parsed
+	 */
+	public HashEncodingFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the policy that has accepted the hash when it has been decoded, null if the hash has not been checked by any policy.
+	 * The verifiers apply the {@link VerificationPolicy#getDefault()} only to the hashes not checked yet
+	 */
+	public VerificationPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Method that compares the hash with the one given in a time that does not depend on the position of the first different byte
+	 *
+	 * @param other hash to be compared
+	 * @return true if the two hashes are identical
+	 */
+	public boolean isHashEqualTo(byte[] other) {
+		if (other == null || other.length != hash.length)
+			return false;
+
+		int difference = 0;
+		for (int i = 0; i < hash.length; i++)
+			difference |= hash[i] ^ other[i];
+		return difference == 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ParsedPasswordHash[algorithm=%s, version=%d, memoryCost=%d, iterations=%d, threads=%d, saltSize=%d, format=%s]",
+				algorithm.getLabel(), version, memoryCost, iterations, threads, salt.length, format.getLabel());
+	}
+}
@@ -9,18 +9,40 @@ import java.util.List;
  * @author ZeroBrushV2
  */
 public enum PasswordAlgorithms {
-	ARGON2("argon2");
+	ARGON2("argon2", "argon2id", (byte) 0x02);
 	
 	private String label;
+	private String phcIdentifier;
+	private byte binaryType;
 	
-	PasswordAlgorithms(String label) {
+	PasswordAlgorithms(String label, String phcIdentifier, byte binaryType) {
 		this.label = label;
+		this.phcIdentifier = phcIdentifier;
+		this.binaryType = binaryType;
 	}
 
 	public String getLabel() {
 		return label;
 	}
 
+	/**
+	 * @return the identifier of the algorithm in the PHC string format
+	 */
+	public String getPhcIdentifier() {
+		return phcIdentifier;
+	}
+
+	/**
+	 * @return the byte that identifies the algorithm in the binary format, for Argon2 it is the type of Argon2id
+	 */
+	public byte getBinaryType() {
+		return binaryType;
+	}
+
+	public static PasswordAlgorithms getByBinaryType(byte binaryType) {
+		return Arrays.stream(PasswordAlgorithms.values()).filter(type -> type.binaryType == binaryType).findFirst().orElse(null);
+	}
+
 	public static PasswordAlgorithms getByLabel(String label) {
 		List<PasswordAlgorithms> hashers = Arrays.asList(PasswordAlgorithms.values());
 		PasswordAlgorithms hasher = hashers.stream().filter(type -> type.label.contentEquals(label)).findFirst().orElse(null);
@@ -1,13 +1,18 @@
 package it.creativeraccoon.password.hashing.sdk.utils;
 
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingEvents;
 import lombok.Getter;
+import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.bouncycastle.util.encoders.Base64;
 
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * UTILS class for the decode and encode the string that leads the user's "password" field
@@ -26,8 +31,23 @@ public abstract class PasswordEncodingUtils {
     private static final String ITERATIONS = "$i=";
     private static final String THREADS = "$t=";
     private static final String PASSWORD = "$";
-    private static final String base64Pattern = "(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?+";
-    private static final String hashPattern = "^\\$a=(?<algorithm>\\S+),(?:\\$v=(?<version>\\d+),)\\$m=(?<memory>\\d+),\\$i=(?<iterations>\\d+),\\$t=(?<threads>\\d+)\\$(?<password>%s)$";
+    private static final char SEPARATOR = '$';
+    private static final String PHC_VERSION = "v=";
+    private static final String PHC_MEMORY_COST = "m=";
+    private static final String PHC_ITERATIONS = ",t=";
+    private static final String PHC_THREADS = ",p=";
+    private static final byte BINARY_FORMAT_VERSION = 1;
+    private static final int MAX_BINARY_FIELD_SIZE = 0xFF;
+    private static final char[] base64Alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private static final PasswordAlgorithms[] algorithms = PasswordAlgorithms.values();
+    private static final byte[] base64Values = new byte[128];
+
+    static {
+        Arrays.fill(base64Values, (byte) -1);
+        for (int i = 0; i < base64Alphabet.length; i++)
+            base64Values[base64Alphabet[i]] = (byte) i;
+    }
 
     /**
      *
@@ -35,42 +55,306 @@ public abstract class PasswordEncodingUtils {
      *
      * @param hashedPassword The user's password saved in the DB
      * @return A map indicating the ownership with which the password has been generated.
+     * @see #parse(CharSequence)
      *
      */
     public static Map<it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties, String> decode(String hashedPassword) {
-        Pattern pattern = Pattern.compile(StringUtils.replace(hashPattern, "%s", base64Pattern));
-        Matcher matcher = pattern.matcher(hashedPassword);
+        ParsedPasswordHash parsedHash = parse(hashedPassword);
+
+        Map<it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties, String> map = new HashMap<>();
+
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.ALGORITHM, parsedHash.getAlgorithm().getLabel());
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.VERSION, String.valueOf(parsedHash.getVersion()));
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.MEMORY_COST, String.valueOf(parsedHash.getMemoryCost()));
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.ITERATIONS, String.valueOf(parsedHash.getIterations()));
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.THREADS, String.valueOf(parsedHash.getThreads()));
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.SALT, Base64.toBase64String(parsedHash.getSalt()));
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.SALT_SIZE, String.valueOf(parsedHash.getSaltSize()));
 
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("Invalid hash '" + hashedPassword + "'");
+        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.PASSWORD, Base64.toBase64String(parsedHash.getHash()));
+
+        return map;
+    }
+
+    /**
+     * Method that parses the string of a hashed password in a single pass, without regular expressions and intermediate maps. <br>
+     * Both the formats of {@link HashEncodingFormat} are recognized:
+     * <ul>
+     * <li>{@link HashEncodingFormat#LEGACY} <code>$a=&lt;algorithm&gt;,$v=&lt;version&gt;,$m=&lt;memory_cost&gt;,$i=&lt;iterations&gt;,$t=&lt;threads&gt;$&lt;base64(salt+$+password)&gt;</code></li>
+     * <li>{@link HashEncodingFormat#PHC} <code>$argon2id$v=&lt;version&gt;$m=&lt;memory_cost&gt;,t=&lt;iterations&gt;,p=&lt;threads&gt;$&lt;salt&gt;$&lt;password&gt;</code></li>
+     * </ul>
+     *
+     * @param hashedPassword The user's password saved in the DB
+     * @return the properties, the salt and the hash with which the password has been generated
+     * @throws IllegalArgumentException if the string does not respect any of the formats
+     */
+    public static ParsedPasswordHash parse(@NonNull CharSequence hashedPassword) {
+        Object event = HashingEvents.beginDecode();
+        ParsedPasswordHash parsedHash = null;
+        try {
+            if (regionEquals(hashedPassword, 0, Math.min(ALGORITHM.length(), hashedPassword.length()), ALGORITHM))
+                parsedHash = parseLegacy(hashedPassword);
+            else
+                parsedHash = parsePhc(hashedPassword);
+            return parsedHash;
+        } finally {
+            HashingEvents.commitDecode(event, parsedHash == null ? null : parsedHash.getFormat(), hashedPassword.length(), parsedHash != null);
         }
+    }
 
-        String[] decodedSaltedPassword = splitSaltedPassword(matcher.group("password"));
+    /**
+     * Method that parses the string saved in the DB and checks its parameters against the policy, before any Argon2 computation
+     *
+     * @param hashedPassword The user's password saved in the DB
+     * @param policy limits on the parameters of the hash
+     * @return the properties, the salt and the hash with which the password has been generated
+     * @throws IllegalArgumentException if the string does not respect any of the formats
+     * @throws it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashPolicyException if the parameters exceed the limits of the policy
+     */
+    public static ParsedPasswordHash parse(@NonNull CharSequence hashedPassword, @NonNull VerificationPolicy policy) {
+        return policy.check(parse(hashedPassword));
+    }
 
-        String salt = decodedSaltedPassword[0];
-        String password = decodedSaltedPassword[1];
+    private static ParsedPasswordHash parseLegacy(CharSequence hashedPassword) {
+        int length = hashedPassword.length();
 
-        Map<it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties, String> map = new HashMap<>();
+        int position = expect(hashedPassword, 0, ALGORITHM);
+        int end = indexOf(hashedPassword, ',', position);
+        PasswordAlgorithms algorithm = findAlgorithm(hashedPassword, position, end);
 
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.ALGORITHM, matcher.group("algorithm"));
-        if (matcher.group("version") != null)
-            map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.VERSION, matcher.group("version"));
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.MEMORY_COST, matcher.group("memory"));
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.ITERATIONS, matcher.group("iterations"));
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.THREADS, matcher.group("threads"));
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.SALT, salt);
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.SALT_SIZE, String.valueOf(Base64.decode(salt).length));
+        position = expect(hashedPassword, end + 1, VERSION);
+        end = indexOf(hashedPassword, ',', position);
+        int version = parseInt(hashedPassword, position, end);
 
-        map.put(it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties.PASSWORD, password);
+        position = expect(hashedPassword, end + 1, MEMORY_COST);
+        end = indexOf(hashedPassword, ',', position);
+        int memoryCost = parseInt(hashedPassword, position, end);
 
-        return map;
+        position = expect(hashedPassword, end + 1, ITERATIONS);
+        end = indexOf(hashedPassword, ',', position);
+        int iterations = parseInt(hashedPassword, position, end);
+
+        position = expect(hashedPassword, end + 1, THREADS);
+        end = indexOf(hashedPassword, SEPARATOR, position);
+        int threads = parseInt(hashedPassword, position, end);
+
+        // base64(base64(salt) + "$" + base64(password))
+        byte[] saltedPassword = new byte[base64DecodedLength(hashedPassword, end + 1, length)];
+        try {
+            decodeBase64(hashedPassword, end + 1, length, saltedPassword);
+
+            int separator = indexOf(saltedPassword, (byte) SEPARATOR);
+            if (separator < 0)
+                throw invalidHash(hashedPassword);
+
+            byte[] salt = new byte[base64DecodedLength(saltedPassword, 0, separator)];
+            decodeBase64(saltedPassword, 0, separator, salt);
+
+            byte[] password = new byte[base64DecodedLength(saltedPassword, separator + 1, saltedPassword.length)];
+            decodeBase64(saltedPassword, separator + 1, saltedPassword.length, password);
+
+            return new ParsedPasswordHash(algorithm, version, memoryCost, iterations, threads, salt, password, HashEncodingFormat.LEGACY, null);
+        } catch (IllegalArgumentException e) {
+            throw invalidHash(hashedPassword);
+        } finally {
+            Arrays.fill(saltedPassword, (byte) 0);
+        }
+    }
+
+    private static ParsedPasswordHash parsePhc(CharSequence hashedPassword) {
+        int length = hashedPassword.length();
+
+        int position = expect(hashedPassword, 0, PASSWORD);
+        int end = indexOf(hashedPassword, SEPARATOR, position);
+        PasswordAlgorithms algorithm = findPhcAlgorithm(hashedPassword, position, end);
+        position = end + 1;
+
+        // the version is not present in the hashes of Argon2 1.0
+        int version = 0x10;
+        if (regionEquals(hashedPassword, position, Math.min(position + PHC_VERSION.length(), length), PHC_VERSION)) {
+            end = indexOf(hashedPassword, SEPARATOR, position);
+            version = parseInt(hashedPassword, position + PHC_VERSION.length(), end);
+            position = end + 1;
+        }
+
+        position = expect(hashedPassword, position, PHC_MEMORY_COST);
+        end = indexOf(hashedPassword, ',', position);
+        int memoryCost = parseInt(hashedPassword, position, end);
+
+        position = expect(hashedPassword, end, PHC_ITERATIONS);
+        end = indexOf(hashedPassword, ',', position);
+        int iterations = parseInt(hashedPassword, position, end);
+
+        position = expect(hashedPassword, end, PHC_THREADS);
+        end = indexOf(hashedPassword, SEPARATOR, position);
+        int threads = parseInt(hashedPassword, position, end);
+
+        position = end + 1;
+        end = indexOf(hashedPassword, SEPARATOR, position);
+
+        try {
+            byte[] salt = new byte[unpaddedBase64DecodedLength(end - position)];
+            decodeBase64(hashedPassword, position, end, salt);
+
+            byte[] password = new byte[unpaddedBase64DecodedLength(length - end - 1)];
+            decodeBase64(hashedPassword, end + 1, length, password);
+
+            return new ParsedPasswordHash(algorithm, version, memoryCost, iterations, threads, salt, password, HashEncodingFormat.PHC, null);
+        } catch (IllegalArgumentException e) {
+            throw invalidHash(hashedPassword);
+        }
+    }
+
+    private static IllegalArgumentException invalidHash(CharSequence hashedPassword) {
+        return new IllegalArgumentException("Invalid hash '" + hashedPassword + "'");
+    }
+
+    /**
+     * @return the position following the token, if the token is present at the given position
+     */
+    private static int expect(CharSequence value, int position, String token) {
+        int tokenLength = token.length();
+        if (position + tokenLength > value.length())
+            throw invalidHash(value);
+
+        for (int i = 0; i < tokenLength; i++) {
+            if (value.charAt(position + i) != token.charAt(i))
+                throw invalidHash(value);
+        }
+        return position + tokenLength;
+    }
+
+    private static int indexOf(CharSequence value, char character, int from) {
+        for (int i = from; i < value.length(); i++) {
+            if (value.charAt(i) == character)
+                return i;
+        }
+        throw invalidHash(value);
+    }
+
+    private static int indexOf(byte[] value, byte character) {
+        for (int i = 0; i < value.length; i++) {
+            if (value[i] == character)
+                return i;
+        }
+        return -1;
+    }
+
+    private static PasswordAlgorithms findAlgorithm(CharSequence value, int from, int to) {
+        for (PasswordAlgorithms algorithm : algorithms) {
+            if (regionEquals(value, from, to, algorithm.getLabel()))
+                return algorithm;
+        }
+        throw invalidHash(value);
+    }
+
+    private static PasswordAlgorithms findPhcAlgorithm(CharSequence value, int from, int to) {
+        for (PasswordAlgorithms algorithm : algorithms) {
+            if (regionEquals(value, from, to, algorithm.getPhcIdentifier()))
+                return algorithm;
+        }
+        throw invalidHash(value);
+    }
+
+    private static boolean regionEquals(CharSequence value, int from, int to, String token) {
+        if (token.length() != to - from)
+            return false;
+
+        for (int i = 0; i < token.length(); i++) {
+            if (value.charAt(from + i) != token.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a positive decimal number, without allocating strings
+     */
+    private static int parseInt(CharSequence value, int from, int to) {
+        if (from == to || to - from > 10)
+            throw invalidHash(value);
+
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                throw invalidHash(value);
+            result = result * 10 + digit;
+        }
+
+        if (result > Integer.MAX_VALUE)
+            throw invalidHash(value);
+        return (int) result;
+    }
+
+    private static int base64DecodedLength(CharSequence value, int from, int to) {
+        int length = to - from;
+        if (length % 4 != 0)
+            throw invalidHash(value);
+
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && value.charAt(to - padding - 1) == '=')
+            padding++;
+        return length / 4 * 3 - padding;
+    }
+
+    private static int base64DecodedLength(byte[] value, int from, int to) {
+        int length = to - from;
+        if (length % 4 != 0)
+            throw new IllegalArgumentException("Invalid base64 length");
+
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && value[to - padding - 1] == '=')
+            padding++;
+        return length / 4 * 3 - padding;
+    }
+
+    private static int unpaddedBase64DecodedLength(int length) {
+        if (length % 4 == 1)
+            throw new IllegalArgumentException("Invalid base64 length");
+        return length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1);
+    }
+
+    private static void decodeBase64(CharSequence value, int from, int to, byte[] target) {
+        int accumulator = 0;
+        int bits = 0;
+        int written = 0;
+        for (int i = from; i < to && written < target.length; i++) {
+            accumulator = (accumulator << 6) | base64Value(value.charAt(i));
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[written++] = (byte) (accumulator >> bits);
+            }
+        }
+    }
+
+    private static void decodeBase64(byte[] value, int from, int to, byte[] target) {
+        int accumulator = 0;
+        int bits = 0;
+        int written = 0;
+        for (int i = from; i < to && written < target.length; i++) {
+            accumulator = (accumulator << 6) | base64Value((char) (value[i] & 0xFF));
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[written++] = (byte) (accumulator >> bits);
+            }
+        }
+    }
+
+    private static int base64Value(char character) {
+        int value = character < 128 ? base64Values[character] : -1;
+        if (value < 0)
+            throw new IllegalArgumentException("Invalid base64 character");
+        return value;
     }
 
     /**
      * Method that allows you to create a string that represents the password hashing and the ownership with which it was generated
      *
      * @param values the ownership with which the password was generated
-     * @return a string that represents the pattern {@link PasswordEncodingUtils#hashPattern}, the string contains both the secure password and all the characteristics with which it was created ({@link it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties}),
+     * @return a string that represents the pattern read by {@link PasswordEncodingUtils#parse(CharSequence)}, the string contains both the secure password and all the characteristics with which it was created ({@link it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties}),
      */
     public static String encode(Map<it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties, String> values) {
 
@@ -95,10 +379,338 @@ public abstract class PasswordEncodingUtils {
         return Base64.toBase64String(saltedPassword.getBytes());
     }
 
-    private static String[] splitSaltedPassword(String encodedPassword) {
-        byte[] saltedPasswordBytes = Base64.decode(encodedPassword);
+    /**
+     * Method that creates the string of a hashed password in the requested format
+     *
+     * @param parsedHash the properties, the salt and the hash with which the password has been generated
+     * @param format format of the string
+     * @return a string that can be read by {@link PasswordEncodingUtils#parse(CharSequence)}
+     */
+    public static String encode(@NonNull ParsedPasswordHash parsedHash, @NonNull HashEncodingFormat format) {
+        StringBuilder stringBuilder = new StringBuilder(64 + (parsedHash.getSaltSize() + parsedHash.getHashSize()) * 16 / 9);
+        encode(parsedHash, format, stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Method that appends the string of a hashed password in the requested format to the builder of the caller, without intermediate strings
+     *
+     * @param parsedHash the properties, the salt and the hash with which the password has been generated
+     * @param format format of the string
+     * @param target builder to which the string is appended
+     */
+    public static void encode(@NonNull ParsedPasswordHash parsedHash, @NonNull HashEncodingFormat format, @NonNull StringBuilder target) {
+        switch (format) {
+            case PHC:
+                encodePhc(parsedHash, target);
+                break;
+            case BINARY:
+                throw new IllegalArgumentException("The binary format is not a string, use encodeBinary");
+            case LEGACY:
+            default:
+                encodeLegacy(parsedHash, target);
+        }
+    }
+
+    private static void encodePhc(ParsedPasswordHash parsedHash, StringBuilder stringBuilder) {
+        stringBuilder
+                .append(SEPARATOR).append(parsedHash.getAlgorithm().getPhcIdentifier())
+                .append(SEPARATOR).append(PHC_VERSION).append(parsedHash.getVersion())
+                .append(SEPARATOR).append(PHC_MEMORY_COST).append(parsedHash.getMemoryCost())
+                .append(PHC_ITERATIONS).append(parsedHash.getIterations())
+                .append(PHC_THREADS).append(parsedHash.getThreads())
+                .append(SEPARATOR);
+        appendBase64(stringBuilder, parsedHash.getSalt(), false);
+        stringBuilder.append(SEPARATOR);
+        appendBase64(stringBuilder, parsedHash.getHash(), false);
+    }
+
+    private static void encodeLegacy(ParsedPasswordHash parsedHash, StringBuilder stringBuilder) {
+        StringBuilder saltedPassword = new StringBuilder((parsedHash.getSaltSize() + parsedHash.getHashSize() + 6) * 4 / 3 + 1);
+        appendBase64(saltedPassword, parsedHash.getSalt(), true);
+        saltedPassword.append(SEPARATOR);
+        appendBase64(saltedPassword, parsedHash.getHash(), true);
+
+        // the characters are all ASCII, they are copied in bytes without creating a string
+        byte[] saltedPasswordBytes = new byte[saltedPassword.length()];
+        for (int i = 0; i < saltedPasswordBytes.length; i++)
+            saltedPasswordBytes[i] = (byte) saltedPassword.charAt(i);
+
+        stringBuilder
+                .append(ALGORITHM).append(parsedHash.getAlgorithm().getLabel()).append(",")
+                .append(VERSION).append(parsedHash.getVersion()).append(",")
+                .append(MEMORY_COST).append(parsedHash.getMemoryCost()).append(",")
+                .append(ITERATIONS).append(parsedHash.getIterations()).append(",")
+                .append(THREADS).append(parsedHash.getThreads())
+                .append(PASSWORD);
+        appendBase64(stringBuilder, saltedPasswordBytes, true);
+    }
+
+    private static void appendBase64(StringBuilder target, byte[] value, boolean padding) {
+        int i = 0;
+        for (; i + 2 < value.length; i += 3) {
+            int group = (value[i] & 0xFF) << 16 | (value[i + 1] & 0xFF) << 8 | (value[i + 2] & 0xFF);
+            target.append(base64Alphabet[group >>> 18]).append(base64Alphabet[(group >>> 12) & 0x3F])
+                    .append(base64Alphabet[(group >>> 6) & 0x3F]).append(base64Alphabet[group & 0x3F]);
+        }
+
+        int remaining = value.length - i;
+        if (remaining == 1) {
+            int group = (value[i] & 0xFF) << 16;
+            target.append(base64Alphabet[group >>> 18]).append(base64Alphabet[(group >>> 12) & 0x3F]);
+            if (padding)
+                target.append("==");
+        } else if (remaining == 2) {
+            int group = (value[i] & 0xFF) << 16 | (value[i + 1] & 0xFF) << 8;
+            target.append(base64Alphabet[group >>> 18]).append(base64Alphabet[(group >>> 12) & 0x3F]).append(base64Alphabet[(group >>> 6) & 0x3F]);
+            if (padding)
+                target.append('=');
+        }
+    }
+
+    /**
+     * Method that creates the compact binary representation of a hashed password, to be saved in a BYTEA/VARBINARY column instead of the string. <br>
+     * Layout: <code>format version (1 byte) | type (1 byte) | version | memory_cost | iterations | threads | salt size (1 byte) | salt | hash size (1 byte) | hash</code>
+     * <br>
+     * The numeric properties are written as unsigned varints (7 bits per byte), so the usual values take 1-3 bytes each.
+     *
+     * @param parsedHash the properties, the salt and the hash with which the password has been generated
+     * @return the bytes read by {@link PasswordEncodingUtils#decodeBinary(byte[])}
+     * @throws IllegalArgumentException if the salt or the hash are longer than 255 bytes
+     */
+    public static byte[] encodeBinary(@NonNull ParsedPasswordHash parsedHash) {
+        byte[] result = new byte[binaryLength(parsedHash)];
+        encodeBinary(parsedHash, ByteBuffer.wrap(result));
+        return result;
+    }
+
+    /**
+     * Method that writes the binary representation of a hashed password at the current position of the buffer, the position is moved after the hash
+     *
+     * @param parsedHash the properties, the salt and the hash with which the password has been generated
+     * @param target buffer with at least {@link PasswordEncodingUtils#binaryLength(ParsedPasswordHash)} bytes remaining
+     * @see #encodeBinary(ParsedPasswordHash)
+     */
+    public static void encodeBinary(@NonNull ParsedPasswordHash parsedHash, @NonNull ByteBuffer target) {
+        int length = binaryLength(parsedHash);
+        if (target.remaining() < length)
+            throw new IllegalArgumentException("The buffer has " + target.remaining() + " bytes remaining, " + length + " are needed");
+
+        byte[] salt = parsedHash.getSalt();
+        byte[] hash = parsedHash.getHash();
+
+        target.put(BINARY_FORMAT_VERSION).put(parsedHash.getAlgorithm().getBinaryType());
+        putVarint(target, parsedHash.getVersion());
+        putVarint(target, parsedHash.getMemoryCost());
+        putVarint(target, parsedHash.getIterations());
+        putVarint(target, parsedHash.getThreads());
+        target.put((byte) salt.length).put(salt);
+        target.put((byte) hash.length).put(hash);
+    }
+
+    /**
+     * @param parsedHash the properties, the salt and the hash with which the password has been generated
+     * @return number of bytes of the binary representation of the hashed password
+     */
+    public static int binaryLength(@NonNull ParsedPasswordHash parsedHash) {
+        if (parsedHash.getSaltSize() > MAX_BINARY_FIELD_SIZE || parsedHash.getHashSize() > MAX_BINARY_FIELD_SIZE)
+            throw new IllegalArgumentException("The binary format supports salt and hash up to " + MAX_BINARY_FIELD_SIZE + " bytes");
+
+        return 2 + varintLength(parsedHash.getVersion()) + varintLength(parsedHash.getMemoryCost())
+                + varintLength(parsedHash.getIterations()) + varintLength(parsedHash.getThreads())
+                + 1 + parsedHash.getSaltSize() + 1 + parsedHash.getHashSize();
+    }
+
+    /**
+     * Method that reads the binary representation of a hashed password
+     *
+     * @param binaryHash the bytes created by {@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}
+     * @return the properties, the salt and the hash with which the password has been generated
+     * @throws IllegalArgumentException if the bytes do not respect the format or contain trailing data
+     */
+    public static ParsedPasswordHash decodeBinary(@NonNull byte[] binaryHash) {
+        ByteBuffer source = ByteBuffer.wrap(binaryHash);
+        ParsedPasswordHash parsedHash = decodeBinary(source);
+        if (source.hasRemaining())
+            throw new IllegalArgumentException("Invalid binary hash, " + source.remaining() + " trailing bytes");
+        return parsedHash;
+    }
+
+    /**
+     * Method that reads the binary representation of a hashed password and checks its parameters against the policy, before any Argon2 computation
+     *
+     * @param binaryHash the bytes created by {@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}
+     * @param policy limits on the parameters of the hash
+     * @return the properties, the salt and the hash with which the password has been generated
+     * @throws IllegalArgumentException if the bytes do not respect the format or contain trailing data
+     * @throws it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashPolicyException if the parameters exceed the limits of the policy
+     */
+    public static ParsedPasswordHash decodeBinary(@NonNull byte[] binaryHash, @NonNull VerificationPolicy policy) {
+        return policy.check(decodeBinary(binaryHash));
+    }
+
+    /**
+     * Method that reads the binary representation of a hashed password from the current position of the buffer. <br>
+     * The position is moved after the hash, if the bytes are not valid the position is not changed.
+     *
+     * @param source buffer positioned at the beginning of the hash
+     * @return the properties, the salt and the hash with which the password has been generated
+     * @throws IllegalArgumentException if the bytes do not respect the format
+     */
+    public static ParsedPasswordHash decodeBinary(@NonNull ByteBuffer source) {
+        Object event = HashingEvents.beginDecode();
+        int start = source.position();
+        boolean success = false;
+        try {
+            if (source.get() != BINARY_FORMAT_VERSION)
+                throw new IllegalArgumentException("Unsupported binary format version");
+
+            PasswordAlgorithms algorithm = PasswordAlgorithms.getByBinaryType(source.get());
+            if (algorithm == null)
+                throw new IllegalArgumentException("Unknown algorithm type");
+
+            int version = getVarint(source);
+            int memoryCost = getVarint(source);
+            int iterations = getVarint(source);
+            int threads = getVarint(source);
+
+            byte[] salt = new byte[source.get() & 0xFF];
+            source.get(salt);
+            byte[] hash = new byte[source.get() & 0xFF];
+            source.get(hash);
+
+            ParsedPasswordHash parsedHash = new ParsedPasswordHash(algorithm, version, memoryCost, iterations, threads, salt, hash, HashEncodingFormat.BINARY, null);
+            success = true;
+            return parsedHash;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // through Buffer, ByteBuffer.position(int) does not exist on Java 8
+            ((Buffer) source).position(start);
+            throw new IllegalArgumentException("Invalid binary hash: " + (e.getMessage() == null ? "truncated data" : e.getMessage()), e);
+        } finally {
+            HashingEvents.commitDecode(event, success ? HashEncodingFormat.BINARY : null, source.position() - start, success);
+        }
+    }
+
+    /**
+     * Method that converts a hashed password between the string formats, without losing any property
+     *
+     * @param hashedPassword The user's password saved in the DB, in any of the string formats
+     * @param format format of the result
+     * @return the same hash in the requested format
+     */
+    public static String convert(@NonNull CharSequence hashedPassword, @NonNull HashEncodingFormat format) {
+        return encode(parse(hashedPassword), format);
+    }
+
+    /**
+     * Method that converts a hashed password from one of the string formats to the binary format
+     *
+     * @param hashedPassword The user's password saved in the DB, in any of the string formats
+     * @return the bytes of {@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}
+     */
+    public static byte[] toBinary(@NonNull CharSequence hashedPassword) {
+        return encodeBinary(parse(hashedPassword));
+    }
+
+    /**
+     * Method that converts a hashed password from the binary format to one of the string formats
+     *
+     * @param binaryHash the bytes created by {@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}
+     * @param format format of the result
+     * @return the same hash in the requested format
+     */
+    public static String fromBinary(@NonNull byte[] binaryHash, @NonNull HashEncodingFormat format) {
+        return encode(decodeBinary(binaryHash), format);
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0)
+            length++;
+        return length;
+    }
+
+    private static void putVarint(ByteBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer source) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = source.get();
+            result |= (current & 0x7F) << shift;
+            if (current >= 0) {
+                if (result < 0 || (shift == 28 && current > 0x07))
+                    throw new IllegalArgumentException("Value too large");
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
 
-        String saltedPasswordString = new String(saltedPasswordBytes);
-        return StringUtils.split(saltedPasswordString, "$");
+    /**
+     * Method that converts a password in the UTF-8 bytes hashed by Argon2 (the same bytes produced for a <code>char[]</code> by BouncyCastle),
+     * without creating strings or intermediate buffers: the only copy of the password is the returned array, that the caller must wipe
+     *
+     * @param password the password, for example a <code>char[]</code> wrapped by {@link java.nio.CharBuffer#wrap(char[])}
+     * @return the UTF-8 bytes of the password
+     * @throws IllegalArgumentException if the password contains an invalid UTF-16 surrogate
+     */
+    public static byte[] toUtf8(@NonNull CharSequence password) {
+        int length = password.length();
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c < 0x80) {
+                size += 1;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (!Character.isHighSurrogate(c) || i + 1 >= length || !Character.isLowSurrogate(password.charAt(i + 1)))
+                    throw new IllegalArgumentException("The password contains an invalid UTF-16 surrogate");
+                size += 4;
+                i++;
+            } else {
+                size += 3;
+            }
+        }
+
+        byte[] result = new byte[size];
+        int position = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c < 0x80) {
+                result[position++] = (byte) c;
+            } else if (c < 0x800) {
+                result[position++] = (byte) (0xC0 | (c >> 6));
+                result[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                int codePoint = Character.toCodePoint(c, password.charAt(++i));
+                result[position++] = (byte) (0xF0 | (codePoint >> 18));
+                result[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                result[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                result[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                result[position++] = (byte) (0xE0 | (c >> 12));
+                result[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                result[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method that converts a password in the UTF-8 bytes hashed by Argon2, the array of the caller is not copied
+     *
+     * @param password the password
+     * @return the UTF-8 bytes of the password, that the caller must wipe
+     * @throws IllegalArgumentException if the password contains an invalid UTF-16 surrogate
+     */
+    public static byte[] toUtf8(@NonNull char[] password) {
+        return toUtf8(CharBuffer.wrap(password));
     }
 }
@@ -0,0 +1,244 @@
+package it.creativeraccoon.password.hashing.sdk.utils;
+
+import it.creativeraccoon.password.hashing.sdk.engine.Argon2CostEstimator;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashPolicyException;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on the parameters of the saved hashes accepted for a verification. <br>
+ * The verifiers read memory, iterations and parallelism from the hash saved in the DB: without limits a corrupted row or a hash written
+ * by an attacker (for example <code>$m=4194304</code>) makes a single login allocate gigabytes and run for minutes.
+ * The policy is checked when the hash is decoded, before any Argon2 computation, and the hashes outside the limits are refused
+ * with a {@link PasswordHashPolicyException}.
+ * Besides the single parameters, the product of memory cost and iterations (the KB processed by Argon2) is limited, so the largest memory
+ * is not accepted together with the largest number of iterations.
+ * <br><br>
+ * Optionally the policy also limits the time of a verification, predicted by an {@link Argon2CostEstimator} calibrated on the machine:
+ * <pre>
+ * VerificationPolicy.setDefault(VerificationPolicy.builder()
+ *         .maxMemoryCost(65536)
+ *         .maxEstimatedTime(3, TimeUnit.SECONDS)
+ *         .build());
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public final class VerificationPolicy {
+
+	private static volatile VerificationPolicy defaultInstance = builder().build();
+
+	private final int maxMemoryCost;
+	private final int maxIterations;
+	private final long maxMemoryIterations;
+	private final int maxThreads;
+	private final int maxSaltSize;
+	private final int maxHashSize;
+	private final long maxEstimatedTimeNanos;
+	private final Argon2CostEstimator estimator;
+
+	private VerificationPolicy(Builder builder) {
+		this.maxMemoryCost = builder.maxMemoryCost;
+		this.maxIterations = builder.maxIterations;
+		this.maxMemoryIterations = builder.maxMemoryIterations;
+		this.maxThreads = builder.maxThreads;
+		this.maxSaltSize = builder.maxSaltSize;
+		this.maxHashSize = builder.maxHashSize;
+		this.maxEstimatedTimeNanos = builder.maxEstimatedTimeNanos;
+		this.estimator = builder.estimator;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the policy applied by the verifiers
+	 */
+	public static VerificationPolicy getDefault() {
+		return defaultInstance;
+	}
+
+	/**
+	 * Method that replaces the policy applied by the verifiers
+	 *
+	 * @param policy the new default policy
+	 */
+	public static void setDefault(@NonNull VerificationPolicy policy) {
+		defaultInstance = policy;
+	}
+
+	/**
+	 * Method that checks if the parameters of a saved hash are within the limits
+	 *
+	 * @param parsedHash the saved hash
+	 * @return the same hash, marked as accepted by this policy so the verifiers do not check it again ({@link ParsedPasswordHash#getPolicy()})
+	 * @throws PasswordHashPolicyException if a parameter exceeds its limit
+	 */
+	public ParsedPasswordHash check(@NonNull ParsedPasswordHash parsedHash) {
+		check("memory cost", parsedHash.getMemoryCost(), maxMemoryCost);
+		check("iterations", parsedHash.getIterations(), maxIterations);
+		long memoryIterations = (long) parsedHash.getMemoryCost() * parsedHash.getIterations();
+		if (memoryIterations > maxMemoryIterations)
+			throw new PasswordHashPolicyException(String.format("The memory cost multiplied by the iterations of the hash (%d) exceeds the maximum allowed (%d)",
+					memoryIterations, maxMemoryIterations));
+		check("threads", parsedHash.getThreads(), maxThreads);
+		check("salt size", parsedHash.getSaltSize(), maxSaltSize);
+		check("hash size", parsedHash.getHashSize(), maxHashSize);
+
+		if (maxEstimatedTimeNanos > 0) {
+			Argon2CostEstimator costEstimator = estimator != null ? estimator : Argon2CostEstimator.getDefault();
+			long estimatedTime = costEstimator.estimateTimeNanos(parsedHash);
+			if (estimatedTime > maxEstimatedTimeNanos)
+				throw new PasswordHashPolicyException(String.format("The verification of the hash would take about %d ms, the maximum allowed is %d ms",
+						TimeUnit.NANOSECONDS.toMillis(estimatedTime), TimeUnit.NANOSECONDS.toMillis(maxEstimatedTimeNanos)));
+		}
+		return parsedHash.getPolicy() == this ? parsedHash : parsedHash.withPolicy(this);
+	}
+
+	private static void check(String parameter, int value, int max) {
+		if (value > max)
+			throw new PasswordHashPolicyException(String.format("The %s of the hash (%d) exceeds the maximum allowed (%d)", parameter, value, max));
+	}
+
+	/**
+	 * @return maximum memory cost (in KB)
+	 */
+	public int getMaxMemoryCost() {
+		return maxMemoryCost;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * @return maximum product of memory cost (in KB) and iterations
+	 */
+	public long getMaxMemoryIterations() {
+		return maxMemoryIterations;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public int getMaxSaltSize() {
+		return maxSaltSize;
+	}
+
+	public int getMaxHashSize() {
+		return maxHashSize;
+	}
+
+	/**
+	 * @return maximum predicted time of a verification (in nanoseconds), 0 if the time is not limited
+	 */
+	public long getMaxEstimatedTimeNanos() {
+		return maxEstimatedTimeNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("VerificationPolicy[maxMemoryCost=%d, maxIterations=%d, maxMemoryIterations=%d, maxThreads=%d, maxSaltSize=%d, maxHashSize=%d, maxEstimatedTimeMillis=%d]",
+				maxMemoryCost, maxIterations, maxMemoryIterations, maxThreads, maxSaltSize, maxHashSize, TimeUnit.NANOSECONDS.toMillis(maxEstimatedTimeNanos));
+	}
+
+	/**
+	 * Builder of the {@link VerificationPolicy}
+	 */
+	public static final class Builder {
+
+		private int maxMemoryCost = 262144;
+		private int maxIterations = 1000;
+		private long maxMemoryIterations = 8 * 1024 * 1024;
+		private int maxThreads = 16;
+		private int maxSaltSize = 64;
+		private int maxHashSize = 128;
+		private long maxEstimatedTimeNanos;
+		private Argon2CostEstimator estimator;
+
+		private Builder() {}
+
+		/**
+		 * @param maxMemoryCost maximum memory cost (in KB), default 262144 (256 MB)
+		 */
+		public Builder maxMemoryCost(int maxMemoryCost) {
+			this.maxMemoryCost = positive(maxMemoryCost, "memory cost");
+			return this;
+		}
+
+		/**
+		 * @param maxIterations maximum number of iterations, default 1000
+		 */
+		public Builder maxIterations(int maxIterations) {
+			this.maxIterations = positive(maxIterations, "iterations");
+			return this;
+		}
+
+		/**
+		 * @param maxMemoryIterations maximum product of memory cost (in KB) and iterations, default 8388608 (8 GB processed,
+		 *                            for example 256 MB with 32 iterations or 8000 KB with 1048 iterations)
+		 */
+		public Builder maxMemoryIterations(long maxMemoryIterations) {
+			if (maxMemoryIterations <= 0)
+				throw new IllegalArgumentException("The maximum memory cost multiplied by the iterations must be positive");
+			this.maxMemoryIterations = maxMemoryIterations;
+			return this;
+		}
+
+		/**
+		 * @param maxThreads maximum parallelism, default 16
+		 */
+		public Builder maxThreads(int maxThreads) {
+			this.maxThreads = positive(maxThreads, "threads");
+			return this;
+		}
+
+		/**
+		 * @param maxSaltSize maximum size (in bytes) of the salt, default 64
+		 */
+		public Builder maxSaltSize(int maxSaltSize) {
+			this.maxSaltSize = positive(maxSaltSize, "salt size");
+			return this;
+		}
+
+		/**
+		 * @param maxHashSize maximum size (in bytes) of the hash, default 128
+		 */
+		public Builder maxHashSize(int maxHashSize) {
+			this.maxHashSize = positive(maxHashSize, "hash size");
+			return this;
+		}
+
+		/**
+		 * @param maxEstimatedTime maximum time of a verification predicted by the estimator, by default the time is not limited
+		 * @param unit unit of the time
+		 */
+		public Builder maxEstimatedTime(long maxEstimatedTime, @NonNull TimeUnit unit) {
+			if (maxEstimatedTime <= 0)
+				throw new IllegalArgumentException("The maximum time must be positive");
+			this.maxEstimatedTimeNanos = unit.toNanos(maxEstimatedTime);
+			return this;
+		}
+
+		/**
+		 * @param estimator estimator used for the maximum time, default {@link Argon2CostEstimator#getDefault()}
+		 */
+		public Builder estimator(@NonNull Argon2CostEstimator estimator) {
+			this.estimator = estimator;
+			return this;
+		}
+
+		private static int positive(int value, String parameter) {
+			if (value <= 0)
+				throw new IllegalArgumentException("The maximum " + parameter + " must be positive");
+			return value;
+		}
+
+		public VerificationPolicy build() {
+			return new VerificationPolicy(this);
+		}
+	}
+}
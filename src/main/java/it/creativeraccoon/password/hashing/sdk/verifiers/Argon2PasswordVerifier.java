@@ -1,15 +1,17 @@
 package it.creativeraccoon.password.hashing.sdk.verifiers;
 
-import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
-import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
-import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import it.creativeraccoon.password.hashing.sdk.engine.MemoryBudgetScheduler;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.hashers.ParallelArgon2Engine;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingEvents;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingMetrics;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingOperation;
+import it.creativeraccoon.password.hashing.sdk.metrics.HashingOutcome;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy;
 import org.bouncycastle.crypto.params.Argon2Parameters;
-import org.bouncycastle.util.Arrays;
-import org.bouncycastle.util.encoders.Base64;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * 
@@ -26,57 +28,79 @@ import java.util.Map;
  */
 public class Argon2PasswordVerifier extends it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifierBase {
 
-	private static final Logger logger = LoggerFactory.getLogger(Argon2PasswordVerifier.class);
-
-	private Argon2Parameters.Builder initArgon(Map<PasswordProperties, String> map) {
+	private Argon2Parameters.Builder initArgon(ParsedPasswordHash parsedHash) {
 		
 		 return new Argon2Parameters.Builder(
 				 	Argon2Parameters.ARGON2_id)
-	                .withVersion(Integer.parseInt(map.get(PasswordProperties.VERSION)))
-	                .withIterations(Integer.parseInt(map.get(PasswordProperties.ITERATIONS)))
-	                .withMemoryAsKB(Integer.parseInt(map.get(PasswordProperties.MEMORY_COST)))
-	                .withParallelism(Integer.parseInt(map.get(PasswordProperties.THREADS)))
-	                .withSalt(Base64.decode(map.get(PasswordProperties.SALT)));
+	                .withVersion(parsedHash.getVersion())
+	                .withIterations(parsedHash.getIterations())
+	                .withMemoryAsKB(parsedHash.getMemoryCost())
+	                .withParallelism(parsedHash.getThreads())
+	                .withSalt(parsedHash.getSalt());
 	}
 	
 	@Override
-	public boolean verify(String userPassword, String hashedPassword) {
-		return isPasswordMatching(userPassword, hashedPassword);
+	public boolean verify(byte[] userPassword, ParsedPasswordHash parsedHash) {
+		return isPasswordMatching(userPassword, parsedHash);
 	}
 	
-	private boolean isPasswordMatching(String userPassword, String hashedPassword) {
-		
-		Map<PasswordProperties, String> map = PasswordEncodingUtils.decode(hashedPassword);
-		byte[] result = hash(map, userPassword);
-		
-		logger. info("Checking if password is matching...");
-		Boolean isMatching = areEqual( result, Base64.decode(map.get(PasswordProperties.PASSWORD)));
-		logger.info("Password is matching: " + isMatching);
-		
-		return isMatching;
+	private boolean isPasswordMatching(byte[] userPassword, ParsedPasswordHash parsedHash) {
+		long[] timings = new long[2];
+		HashingOutcome outcome = HashingOutcome.FAILURE;
+		Object event = HashingEvents.beginVerify();
+		try {
+			byte[] result = compute(parsedHash, userPassword, timings);
+			try {
+				boolean isMatching = parsedHash.isHashEqualTo(result);
+				outcome = isMatching ? HashingOutcome.SUCCESS : HashingOutcome.MISMATCH;
+				
+				return isMatching;
+			} finally {
+				Arrays.fill(result, (byte) 0);
+			}
+		} finally {
+			long queueWait = PasswordHashingExecutor.getCurrentQueueWaitNanos() + timings[0];
+			HashingMetrics.record(HashingOperation.VERIFY, parsedHash.getMemoryCost(), parsedHash.getIterations(), parsedHash.getThreads(),
+					queueWait, timings[1], outcome);
+			HashingEvents.commitVerify(event, parsedHash.getMemoryCost(), parsedHash.getIterations(), parsedHash.getThreads(), parsedHash.getSaltSize(),
+					parsedHash.getFormat(), queueWait, outcome);
+		}
 	}
 	
 	@Override
-	byte[] hash(Map<PasswordProperties, String> map, String userPassword) {
-		logger.info("hashing password using know properties...");
-		
-		char[] password = userPassword.toCharArray();
-		Argon2Parameters.Builder builder = initArgon(map);
-		Argon2BytesGenerator gen = new Argon2BytesGenerator();
-
-        gen.init(builder.build());
+	byte[] hash(ParsedPasswordHash parsedHash, byte[] userPassword) {
+		return compute(parsedHash, userPassword, new long[2]);
+	}
+	
+	/**
+	 * Computes the hash within the memory budget
+	 * 
+	 * @param timings receives the time spent waiting for the memory and the time spent computing Argon2 (in nanoseconds)
+	 */
+	private byte[] compute(ParsedPasswordHash parsedHash, byte[] userPassword, long[] timings) {
+		// the hash could come from any source: if no policy has checked it when decoded, the parameters are checked before allocating the memory
+		if (parsedHash.getPolicy() == null)
+			VerificationPolicy.getDefault().check(parsedHash);
+		Argon2Parameters.Builder builder = initArgon(parsedHash);
+		long memoryKb = MemoryBudgetScheduler.argon2MemoryKb(parsedHash.getMemoryCost(), parsedHash.getThreads());
+		MemoryBudgetScheduler scheduler = MemoryBudgetScheduler.getDefault();
 
-        byte[] result = new byte[DEFAULT_OUTPUTLEN];
+        byte[] result = new byte[parsedHash.getHashSize()];
 
-        gen.generateBytes(password, result, 0, result.length);
-        logger.info("hashing completed!");
-        
-        
+        long start = System.nanoTime();
+        try {
+        	scheduler.acquire(memoryKb);
+        } finally {
+        	timings[0] = System.nanoTime() - start;
+        }
+        long computeStart = System.nanoTime();
+        try {
+        	ParallelArgon2Engine.getDefault().generateBytes(builder.build(), userPassword, result, 0, result.length);
+        } finally {
+        	scheduler.release(memoryKb);
+        	timings[1] = System.nanoTime() - computeStart;
+        }
         return result;
 	}
-	
-    private boolean areEqual( byte[] a, byte[] b) {
-        return Arrays.areEqual(a, b);
-    }
 
 }
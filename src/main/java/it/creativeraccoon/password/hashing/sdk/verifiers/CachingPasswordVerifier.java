@@ -0,0 +1,260 @@
+package it.creativeraccoon.password.hashing.sdk.verifiers;
+
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import lombok.NonNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Verifier that remembers for a short time the successful verifications, so a client that authenticates again with the same password
+ * (mobile apps, SSO refreshers) does not pay a new Argon2 computation. <br>
+ * The cache is opt-in and has the following security properties:
+ * <ul>
+ * <li>only the successful verifications are remembered: a wrong password always computes Argon2,
+ * so the speed of a response reveals nothing that the response itself does not reveal</li>
+ * <li>the entries are keyed HMAC-SHA256 fingerprints of the pair password - saved hash, computed with a random key generated by every instance,
+ * the plaintext passwords are never stored and the fingerprints are useless outside the process</li>
+ * <li>the entries expire after the TTL from the verification that created them, a cache hit does not extend it</li>
+ * <li>a different saved hash (password changed, rehash) produces a different fingerprint, so the old password is never accepted</li>
+ * <li>the fingerprints are overwritten with zeros when they are evicted</li>
+ * </ul>
+ * While an entry is valid the password is accepted without Argon2, so the TTL is the time window in which a password stolen from
+ * the memory of the process could be checked quickly: keep it short.
+ * <pre>
+ * PasswordVerifier verifier = CachingPasswordVerifier.builder(PasswordVerifiersFactory.getInstance(parsedHash))
+ *         .ttl(60, TimeUnit.SECONDS)
+ *         .maximumSize(10_000)
+ *         .build();
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class CachingPasswordVerifier implements PasswordVerifier {
+
+	private final PasswordVerifier delegate;
+	private final long ttlNanos;
+	private final int maximumSize;
+	private final byte[] key = VerificationFingerprint.newKey();
+
+	/**
+	 * Expiration time of the entries, in insertion order: since the TTL is the same for all the entries the oldest ones are the first to expire
+	 */
+	private final LinkedHashMap<VerificationFingerprint, Long> entries = new LinkedHashMap<>();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private CachingPasswordVerifier(Builder builder) {
+		this.delegate = builder.delegate;
+		this.ttlNanos = builder.ttlNanos;
+		this.maximumSize = builder.maximumSize;
+	}
+
+	/**
+	 * @param delegate verifier that computes the verifications not present in the cache
+	 */
+	public static Builder builder(@NonNull PasswordVerifier delegate) {
+		return new Builder(delegate);
+	}
+
+	@Override
+	public boolean verify(String userPassword, String hashedPassword) {
+		if (userPassword == null || hashedPassword == null)
+			return delegate.verify(userPassword, hashedPassword);
+		return verify(VerificationFingerprint.of(key, userPassword, hashedPassword), () -> delegate.verify(userPassword, hashedPassword));
+	}
+
+	@Override
+	public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+		if (userPassword == null || parsedHash == null)
+			return delegate.verify(userPassword, parsedHash);
+		return verify(VerificationFingerprint.of(key, userPassword, parsedHash), () -> delegate.verify(userPassword, parsedHash));
+	}
+
+	private boolean verify(VerificationFingerprint fingerprint, Supplier<Boolean> verification) {
+		if (isCached(fingerprint))
+			return true;
+
+		boolean isMatching = verification.get();
+		record(fingerprint, isMatching);
+		return isMatching;
+	}
+
+	@Override
+	public CompletableFuture<Boolean> verifyAsync(String userPassword, String hashedPassword) {
+		if (userPassword == null || hashedPassword == null)
+			return delegate.verifyAsync(userPassword, hashedPassword);
+		return verifyAsync(VerificationFingerprint.of(key, userPassword, hashedPassword), () -> delegate.verifyAsync(userPassword, hashedPassword));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> verifyAsync(String userPassword, ParsedPasswordHash parsedHash) {
+		if (userPassword == null || parsedHash == null)
+			return delegate.verifyAsync(userPassword, parsedHash);
+		return verifyAsync(VerificationFingerprint.of(key, userPassword, parsedHash), () -> delegate.verifyAsync(userPassword, parsedHash));
+	}
+
+	/**
+	 * The cache hits are completed immediately, without a thread of the executor
+	 */
+	private CompletableFuture<Boolean> verifyAsync(VerificationFingerprint fingerprint, Supplier<CompletableFuture<Boolean>> verification) {
+		if (isCached(fingerprint))
+			return CompletableFuture.completedFuture(true);
+
+		return verification.get().thenApply(isMatching -> {
+			record(fingerprint, isMatching);
+			return isMatching;
+		});
+	}
+
+	private boolean isCached(VerificationFingerprint fingerprint) {
+		long now = System.nanoTime();
+		boolean hit;
+		synchronized (entries) {
+			expire(now);
+			hit = entries.containsKey(fingerprint);
+		}
+
+		if (hit) {
+			hitCount.incrementAndGet();
+			fingerprint.wipe();
+		} else {
+			missCount.incrementAndGet();
+		}
+		return hit;
+	}
+
+	/**
+	 * Remembers a successful verification, the expiration of an entry already present is not extended
+	 */
+	private void record(VerificationFingerprint fingerprint, boolean isMatching) {
+		long now = System.nanoTime();
+		synchronized (entries) {
+			if (!isMatching || entries.containsKey(fingerprint)) {
+				fingerprint.wipe();
+				return;
+			}
+
+			expire(now);
+			entries.put(fingerprint, now + ttlNanos);
+			if (entries.size() > maximumSize)
+				evictEldest();
+		}
+	}
+
+	private void expire(long now) {
+		Iterator<Map.Entry<VerificationFingerprint, Long>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<VerificationFingerprint, Long> eldest = iterator.next();
+			if (eldest.getValue() - now > 0)
+				return;
+			iterator.remove();
+			evicted(eldest.getKey());
+		}
+	}
+
+	private void evictEldest() {
+		Iterator<VerificationFingerprint> iterator = entries.keySet().iterator();
+		VerificationFingerprint eldest = iterator.next();
+		iterator.remove();
+		evicted(eldest);
+	}
+
+	private void evicted(VerificationFingerprint fingerprint) {
+		fingerprint.wipe();
+		evictionCount.incrementAndGet();
+	}
+
+	/**
+	 * Removes all the entries, for example after a security incident or a change of the passwords outside this process
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			for (VerificationFingerprint fingerprint : entries.keySet())
+				fingerprint.wipe();
+			evictionCount.addAndGet(entries.size());
+			entries.clear();
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return number of entries removed because expired, because the cache was full or by {@link #invalidateAll()}
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return number of entries in the cache, some of them could be expired and not removed yet
+	 */
+	public int getSize() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getTtlNanos() {
+		return ttlNanos;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public PasswordVerifier getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Builder of the {@link CachingPasswordVerifier}
+	 */
+	public static final class Builder {
+
+		private final PasswordVerifier delegate;
+		private long ttlNanos = TimeUnit.SECONDS.toNanos(60);
+		private int maximumSize = 10_000;
+
+		private Builder(PasswordVerifier delegate) {
+			this.delegate = delegate;
+		}
+
+		/**
+		 * @param ttl time for which a successful verification is remembered, default 60 seconds
+		 * @param unit unit of the ttl
+		 */
+		public Builder ttl(long ttl, @NonNull TimeUnit unit) {
+			if (ttl <= 0)
+				throw new IllegalArgumentException("The TTL must be positive");
+			this.ttlNanos = unit.toNanos(ttl);
+			return this;
+		}
+
+		/**
+		 * @param maximumSize maximum number of verifications remembered, when the cache is full the oldest one is removed, default 10000
+		 */
+		public Builder maximumSize(int maximumSize) {
+			if (maximumSize <= 0)
+				throw new IllegalArgumentException("The maximum size must be positive");
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		public CachingPasswordVerifier build() {
+			return new CachingPasswordVerifier(this);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package it.creativeraccoon.password.hashing.sdk.verifiers;
+
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Verifier that coalesces the identical verifications submitted at the same time (single-flight): during a retry storm or a credential stuffing attack
+ * the same pair password - saved hash is often verified many times within a few milliseconds, with this verifier only the first request
+ * computes Argon2 and the others wait for its result.
+ * <br><br>
+ * The requests are matched through a keyed fingerprint of the pair (HMAC-SHA256 with a key generated by every process),
+ * the plaintext password is never kept in memory. The result is not stored: as soon as the computation ends the following requests compute it again.
+ * Successful and failed verifications follow exactly the same path, so the time of a verification does not depend on its outcome.
+ * <pre>
+ * PasswordVerifier verifier = new CoalescingPasswordVerifier(PasswordVerifiersFactory.getInstance(hashedPassword));
+ * </pre>
+ *
+ * @author ZeroBrushV2
+ */
+public class CoalescingPasswordVerifier implements PasswordVerifier {
+
+	private final PasswordVerifier delegate;
+	private final byte[] key = VerificationFingerprint.newKey();
+	private final ConcurrentMap<VerificationFingerprint, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * @param delegate verifier that computes the verifications
+	 */
+	public CoalescingPasswordVerifier(@NonNull PasswordVerifier delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public boolean verify(String userPassword, String hashedPassword) {
+		if (userPassword == null || hashedPassword == null)
+			return delegate.verify(userPassword, hashedPassword);
+		return verify(VerificationFingerprint.of(key, userPassword, hashedPassword), () -> delegate.verify(userPassword, hashedPassword));
+	}
+
+	@Override
+	public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+		if (userPassword == null || parsedHash == null)
+			return delegate.verify(userPassword, parsedHash);
+		return verify(VerificationFingerprint.of(key, userPassword, parsedHash), () -> delegate.verify(userPassword, parsedHash));
+	}
+
+	private boolean verify(VerificationFingerprint fingerprint, Supplier<Boolean> verification) {
+		CompletableFuture<Boolean> future = new CompletableFuture<>();
+		CompletableFuture<Boolean> existing = inFlight.putIfAbsent(fingerprint, future);
+		if (existing != null) {
+			coalescedCount.incrementAndGet();
+			return join(existing);
+		}
+
+		try {
+			boolean isMatching = verification.get();
+			future.complete(isMatching);
+			return isMatching;
+		} catch (RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(fingerprint, future);
+		}
+	}
+
+	private static boolean join(CompletableFuture<Boolean> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			// the same exception received by the first request
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Boolean> verifyAsync(String userPassword, String hashedPassword) {
+		if (userPassword == null || hashedPassword == null)
+			return delegate.verifyAsync(userPassword, hashedPassword);
+		return verifyAsync(VerificationFingerprint.of(key, userPassword, hashedPassword), () -> delegate.verifyAsync(userPassword, hashedPassword));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> verifyAsync(String userPassword, ParsedPasswordHash parsedHash) {
+		if (userPassword == null || parsedHash == null)
+			return delegate.verifyAsync(userPassword, parsedHash);
+		return verifyAsync(VerificationFingerprint.of(key, userPassword, parsedHash), () -> delegate.verifyAsync(userPassword, parsedHash));
+	}
+
+	/**
+	 * The waiting requests do not take a thread of the executor, each caller receives its own future so cancelling it does not affect the others
+	 */
+	private CompletableFuture<Boolean> verifyAsync(VerificationFingerprint fingerprint, Supplier<CompletableFuture<Boolean>> verification) {
+		CompletableFuture<Boolean> future = new CompletableFuture<>();
+		CompletableFuture<Boolean> existing = inFlight.putIfAbsent(fingerprint, future);
+		if (existing != null) {
+			coalescedCount.incrementAndGet();
+			return existing.thenApply(isMatching -> isMatching);
+		}
+
+		CompletableFuture<Boolean> computation;
+		try {
+			computation = verification.get();
+		} catch (RuntimeException | Error e) {
+			inFlight.remove(fingerprint, future);
+			future.completeExceptionally(e);
+			throw e;
+		}
+
+		computation.whenComplete((isMatching, error) -> {
+			inFlight.remove(fingerprint, future);
+			if (error == null)
+				future.complete(isMatching);
+			else
+				future.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+		});
+		return future.thenApply(isMatching -> isMatching);
+	}
+
+	/**
+	 * @return number of verifications that have received the result of an identical verification instead of computing it
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * @return number of distinct verifications in progress
+	 */
+	public int getInFlightCount() {
+		return inFlight.size();
+	}
+
+	public PasswordVerifier getDelegate() {
+		return delegate;
+	}
+}
@@ -1,5 +1,19 @@
 package it.creativeraccoon.password.hashing.sdk.verifiers;
 
+import it.creativeraccoon.password.hashing.sdk.engine.HashingPriority;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy;
+import it.creativeraccoon.password.hashing.sdk.verifiers.VerificationResult.UpgradeMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  *
  * Interface that specifies the behavior of all password verifiers
@@ -15,4 +29,163 @@ public interface PasswordVerifier {
 	 * @return true se le due password sono identiche, altrimenti false
 	 */
 	boolean verify(String userPassword, String hashedPassword);
+
+	/**
+	 * Method that verifies if the password entered by the user is identical to the one saved in the DB,
+	 * the string saved in the DB has already been parsed with {@link it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils#parse(CharSequence)}
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @return true if the two passwords are identical, otherwise false
+	 */
+	boolean verify(String userPassword, ParsedPasswordHash parsedHash);
+
+	/**
+	 * Method that verifies the password without creating a string of the password, the hash saved in the DB can be any {@link CharSequence}. <br>
+	 * The array of the caller is not modified, the copies made for the verification are wiped by the implementations of the SDK
+	 * (the default implementation creates a string for the verifiers that do not support the arrays).
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param hashedPassword string that represents the password with which the user was registered on the platform
+	 * @return true if the two passwords are identical, otherwise false
+	 */
+	default boolean verify(char[] userPassword, CharSequence hashedPassword) {
+		return verify(userPassword, PasswordEncodingUtils.parse(hashedPassword, VerificationPolicy.getDefault()));
+	}
+
+	/**
+	 * Method that verifies the password saved in the binary format ({@link PasswordEncodingUtils#encodeBinary(ParsedPasswordHash)}) without creating a string of the password
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param binaryHash bytes that represent the password with which the user was registered on the platform
+	 * @return true if the two passwords are identical, otherwise false
+	 */
+	default boolean verify(char[] userPassword, byte[] binaryHash) {
+		return verify(userPassword, PasswordEncodingUtils.decodeBinary(binaryHash, VerificationPolicy.getDefault()));
+	}
+
+	/**
+	 * Method that verifies the password without creating a string of the password
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @return true if the two passwords are identical, otherwise false
+	 */
+	default boolean verify(char[] userPassword, ParsedPasswordHash parsedHash) {
+		return verify(new String(userPassword), parsedHash);
+	}
+
+	/**
+	 * Method that verifies the password given as UTF-8 bytes, without creating a string of the password
+	 *
+	 * @param userPassword UTF-8 bytes of the password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @return true if the two passwords are identical, otherwise false
+	 */
+	default boolean verify(byte[] userPassword, ParsedPasswordHash parsedHash) {
+		return verify(new String(userPassword, StandardCharsets.UTF_8), parsedHash);
+	}
+
+	/**
+	 * Method that verifies the password on the {@link PasswordHashingExecutor#getDefault()}, without blocking the calling thread
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param hashedPassword string that represents the password with which the user was registered on the platform
+	 * @return the future completed with the result of {@link #verify(String, String)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException} if the executor refuses the operation
+	 */
+	default CompletableFuture<Boolean> verifyAsync(String userPassword, String hashedPassword) {
+		return PasswordHashingExecutor.getDefault().submit(() -> verify(userPassword, hashedPassword));
+	}
+
+	/**
+	 * Method that verifies the password on the {@link PasswordHashingExecutor#getDefault()}, without blocking the calling thread
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @return the future completed with the result of {@link #verify(String, ParsedPasswordHash)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException} if the executor refuses the operation
+	 */
+	default CompletableFuture<Boolean> verifyAsync(String userPassword, ParsedPasswordHash parsedHash) {
+		return PasswordHashingExecutor.getDefault().submit(() -> verify(userPassword, parsedHash));
+	}
+
+	/**
+	 * Method that verifies the password on the {@link PasswordHashingExecutor#getDefault()} in the given priority lane, without blocking the calling thread
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @param priority lane of the operation, {@link HashingPriority#INTERACTIVE} for the logins
+	 * @return the future completed with the result of {@link #verify(String, ParsedPasswordHash)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException} if the executor refuses the operation
+	 */
+	default CompletableFuture<Boolean> verifyAsync(String userPassword, ParsedPasswordHash parsedHash, HashingPriority priority) {
+		return PasswordHashingExecutor.getDefault().submit(() -> verify(userPassword, parsedHash), priority);
+	}
+
+	/**
+	 * Method that verifies the password on the {@link PasswordHashingExecutor#getDefault()}, waiting for the result at most for the given time. <br>
+	 * If the verification cannot be completed in time it is not computed at all.
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @param timeout maximum time within which the result is expected
+	 * @param unit unit of the timeout
+	 * @return true if the two passwords are identical, otherwise false
+	 * @throws it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException if the result is not available in time
+	 */
+	default boolean verify(String userPassword, ParsedPasswordHash parsedHash, long timeout, TimeUnit unit) {
+		return PasswordHashingExecutor.getDefault().invoke(() -> verify(userPassword, parsedHash), timeout, unit);
+	}
+
+	/**
+	 * Method that verifies the password on the {@link PasswordHashingExecutor#getDefault()}, without blocking the calling thread
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @param timeout maximum time from now within which the verification must be completed
+	 * @param unit unit of the timeout
+	 * @return the future completed with the result of {@link #verify(String, ParsedPasswordHash)},
+	 * or with a {@link it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException} if the verification cannot be completed in time
+	 */
+	default CompletableFuture<Boolean> verifyAsync(String userPassword, ParsedPasswordHash parsedHash, long timeout, TimeUnit unit) {
+		return PasswordHashingExecutor.getDefault().submit(() -> verify(userPassword, parsedHash), timeout, unit);
+	}
+
+	/**
+	 * Method that verifies the password and, if it matches and the saved hash has been created with parameters different from the current
+	 * configuration, hashes it again with {@link PasswordHashersFactory#getDefaultInstance()}. <br>
+	 * The new hash is computed before returning ({@link UpgradeMode#INLINE}).
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param hashedPassword string that represents the password with which the user was registered on the platform
+	 * @return the outcome of the verification and the new hash to be saved, if needed
+	 * @throws PasswordHasherInstantiationException if the default hasher cannot be created
+	 */
+	default VerificationResult verifyAndUpgrade(String userPassword, String hashedPassword) throws PasswordHasherInstantiationException {
+		return verifyAndUpgrade(userPassword, PasswordEncodingUtils.parse(hashedPassword, VerificationPolicy.getDefault()),
+				PasswordHashersFactory.getDefaultInstance(), UpgradeMode.INLINE);
+	}
+
+	/**
+	 * Method that verifies the password and, if it matches and {@link PasswordHasher#needsRehash(ParsedPasswordHash)}, hashes it again with the current hasher. <br>
+	 * In this way the old hashes move to the current parameters at the next login of the users, both when the parameters have been raised
+	 * and when too expensive parameters have been lowered, without a bulk migration.
+	 *
+	 * @param userPassword password entered from UI by the user to login
+	 * @param parsedHash properties, salt and hash of the password with which the user was registered on the platform
+	 * @param currentHasher hasher with the current parameters
+	 * @param mode {@link UpgradeMode#BACKGROUND} to return the result without waiting for the new hash
+	 * @return the outcome of the verification and the new hash to be saved, if needed
+	 */
+	default VerificationResult verifyAndUpgrade(String userPassword, ParsedPasswordHash parsedHash, PasswordHasher currentHasher, UpgradeMode mode) {
+		if (!verify(userPassword, parsedHash))
+			return VerificationResult.notMatching();
+		if (!currentHasher.needsRehash(parsedHash))
+			return VerificationResult.matching();
+
+		if (mode == UpgradeMode.BACKGROUND)
+			return VerificationResult.upgraded(currentHasher.hashAsync(userPassword, HashingPriority.BACKGROUND));
+		return VerificationResult.upgraded(CompletableFuture.completedFuture(currentHasher.hash(userPassword)));
+	}
 }
@@ -1,9 +1,11 @@
 package it.creativeraccoon.password.hashing.sdk.verifiers;
 
 
-import it.creativeraccoon.password.hashing.sdk.utils.PasswordProperties;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy;
 
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Basic class that will have to be extended by all the hashers.
@@ -15,6 +17,48 @@ public abstract class PasswordVerifierBase implements PasswordVerifier {
 	
 	public PasswordVerifierBase() {}
 	
-	abstract byte[] hash(Map<PasswordProperties, String> map, String userPassword);
+	@Override
+	public boolean verify(String userPassword, String hashedPassword) {
+		return verify(userPassword, PasswordEncodingUtils.parse(hashedPassword, VerificationPolicy.getDefault()));
+	}
+	
+	@Override
+	public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			return verify(password, parsedHash);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	@Override
+	public boolean verify(char[] userPassword, ParsedPasswordHash parsedHash) {
+		byte[] password = PasswordEncodingUtils.toUtf8(userPassword);
+		try {
+			return verify(password, parsedHash);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+	
+	@Override
+	public boolean verify(byte[] userPassword, ParsedPasswordHash parsedHash) {
+		byte[] result = hash(parsedHash, userPassword);
+		try {
+			return parsedHash.isHashEqualTo(result);
+		} finally {
+			Arrays.fill(result, (byte) 0);
+		}
+	}
+	
+	/**
+	 * Method that computes the hash of the password with the parameters of the saved hash
+	 * 
+	 * @param parsedHash the saved hash
+	 * @param userPassword UTF-8 bytes of the password, they are not modified
+	 * @return the hash to be compared with the saved one
+	 */
+	abstract byte[] hash(ParsedPasswordHash parsedHash, byte[] userPassword);
 
 }
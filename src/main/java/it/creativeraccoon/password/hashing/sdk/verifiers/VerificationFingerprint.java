@@ -0,0 +1,90 @@
+package it.creativeraccoon.password.hashing.sdk.verifiers;
+
+import it.creativeraccoon.password.hashing.sdk.engine.RandomSource;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Pack;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Keyed fingerprint (HMAC-SHA256) of a pair password - saved hash, used as key of the in-memory maps of the verifiers. <br>
+ * The key is generated randomly by every process and never leaves the memory, so the fingerprints cannot be used to guess the passwords
+ * offline, and the maps never contain the plaintext passwords.
+ *
+ * @author ZeroBrushV2
+ */
+final class VerificationFingerprint {
+
+	private static final byte STRING_HASH = 1;
+	private static final byte PARSED_HASH = 2;
+
+	private final byte[] value;
+	private final int hashCode;
+
+	private VerificationFingerprint(byte[] value) {
+		this.value = value;
+		this.hashCode = Pack.bigEndianToInt(value, 0);
+	}
+
+	/**
+	 * @return a new random key for the fingerprints
+	 */
+	static byte[] newKey() {
+		byte[] key = new byte[32];
+		RandomSource.getDefault().nextBytes(key);
+		return key;
+	}
+
+	static VerificationFingerprint of(byte[] key, String userPassword, String hashedPassword) {
+		return of(key, STRING_HASH, userPassword, hashedPassword.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static VerificationFingerprint of(byte[] key, String userPassword, ParsedPasswordHash parsedHash) {
+		return of(key, PARSED_HASH, userPassword, PasswordEncodingUtils.encodeBinary(parsedHash));
+	}
+
+	private static VerificationFingerprint of(byte[] key, byte type, String userPassword, byte[] hash) {
+		byte[] password = userPassword.getBytes(StandardCharsets.UTF_8);
+		try {
+			HMac mac = new HMac(new SHA256Digest());
+			mac.init(new KeyParameter(key));
+			mac.update(type);
+			// the length separates password and hash, so different pairs never produce the same input
+			mac.update(Pack.intToBigEndian(password.length), 0, 4);
+			mac.update(password, 0, password.length);
+			mac.update(hash, 0, hash.length);
+
+			byte[] value = new byte[mac.getMacSize()];
+			mac.doFinal(value, 0);
+			return new VerificationFingerprint(value);
+		} finally {
+			Arrays.fill(password, (byte) 0);
+		}
+	}
+
+	/**
+	 * Overwrites the fingerprint with zeros, the fingerprint must not be used as key anymore
+	 */
+	void wipe() {
+		Arrays.fill(value, (byte) 0);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof VerificationFingerprint))
+			return false;
+		return Arrays.equals(value, ((VerificationFingerprint) other).value);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+}
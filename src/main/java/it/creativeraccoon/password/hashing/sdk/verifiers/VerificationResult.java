@@ -0,0 +1,80 @@
+package it.creativeraccoon.password.hashing.sdk.verifiers;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Result of {@link PasswordVerifier#verifyAndUpgrade(String, it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash, it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher, UpgradeMode)}:
+ * the outcome of the verification and, when the saved hash was created with parameters different from the current ones,
+ * the new hash of the password to be saved in place of the old one.
+ *
+ * @author ZeroBrushV2
+ */
+public final class VerificationResult {
+
+	private static final VerificationResult NOT_MATCHING = new VerificationResult(false, null);
+	private static final VerificationResult MATCHING = new VerificationResult(true, null);
+
+	private final boolean matching;
+	private final CompletableFuture<String> upgradedHash;
+
+	/**
+	 * How the new hash of an outdated password is computed
+	 */
+	public enum UpgradeMode {
+		/**
+		 * The new hash is computed before returning the result, the login takes the time of two hashes
+		 */
+		INLINE,
+		/**
+		 * The new hash is computed in the {@link it.creativeraccoon.password.hashing.sdk.engine.HashingPriority#BACKGROUND} lane of the
+		 * {@link it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor}, the result is returned immediately
+		 */
+		BACKGROUND
+	}
+
+	private VerificationResult(boolean matching, CompletableFuture<String> upgradedHash) {
+		this.matching = matching;
+		this.upgradedHash = upgradedHash;
+	}
+
+	static VerificationResult notMatching() {
+		return NOT_MATCHING;
+	}
+
+	static VerificationResult matching() {
+		return MATCHING;
+	}
+
+	static VerificationResult upgraded(@NonNull CompletableFuture<String> upgradedHash) {
+		return new VerificationResult(true, upgradedHash);
+	}
+
+	/**
+	 * @return true if the password is identical to the one saved
+	 */
+	public boolean isMatching() {
+		return matching;
+	}
+
+	/**
+	 * @return true if the password matches and the saved hash must be replaced with {@link #getUpgradedHash()}
+	 */
+	public boolean isRehashNeeded() {
+		return upgradedHash != null;
+	}
+
+	/**
+	 * @return the future of the new hash to be saved in place of the old one (already completed in {@link UpgradeMode#INLINE}),
+	 * null if the saved hash is up to date or the password does not match
+	 */
+	public CompletableFuture<String> getUpgradedHash() {
+		return upgradedHash;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("VerificationResult[matching=%s, rehashNeeded=%s]", matching, isRehashNeeded());
+	}
+}
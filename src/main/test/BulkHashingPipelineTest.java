@@ -0,0 +1,162 @@
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.migration.BulkHashingMode;
+import it.creativeraccoon.password.hashing.sdk.migration.BulkHashingPipeline;
+import it.creativeraccoon.password.hashing.sdk.migration.BulkHashingProgress;
+import it.creativeraccoon.password.hashing.sdk.migration.BulkRecordFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Class to be used to verify that the {@link BulkHashingPipeline} resumes an interrupted run without losing or duplicating records,
+ * and never replaces a saved hash with nothing when the re-hash of a record fails.
+ * <br> <br>
+ * A record lost or written twice during a migration would lock a user out, or leave a plaintext password behind.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class BulkHashingPipelineTest {
+
+	private static final int RECORDS = 3000;
+
+	@Test
+	public void crashResumeTest() throws Exception {
+		Path directory = Files.createTempDirectory("bulk-hashing");
+		Path input = directory.resolve("users.csv");
+		Path output = directory.resolve("users-hashed.csv");
+		StringBuilder csv = new StringBuilder("id,email,password\n");
+		for (int i = 0; i < RECORDS; i++)
+			csv.append(i).append(",user").append(i).append("@example.com,password").append(i).append('\n');
+		Files.write(input, csv.toString().getBytes(StandardCharsets.UTF_8));
+		PasswordHasher hasher = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties());
+
+		// the run is killed at about 7% of the records, with the state saved at every record
+		BulkHashingPipeline crashing = BulkHashingPipeline.builder()
+				.format(BulkRecordFormat.CSV)
+				.hasher(hasher)
+				.threads(4)
+				.checkpointInterval(1, TimeUnit.MILLISECONDS)
+				.progressInterval(1, TimeUnit.MILLISECONDS)
+				.progressListener(progress -> {
+					if (progress.getProcessedRecords() >= RECORDS * 7 / 100)
+						throw new IllegalStateException("Killed after " + progress.getProcessedRecords() + " records");
+				})
+				.build();
+		Assertions.assertThrows(IllegalStateException.class, () -> crashing.run(input, output));
+		Assertions.assertTrue(Files.exists(directory.resolve("users-hashed.csv.checkpoint")));
+		// a killed process can leave a torn line after the saved state
+		Files.write(output, "210,user210@exa".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+		BulkHashingProgress result = BulkHashingPipeline.builder()
+				.format(BulkRecordFormat.CSV)
+				.hasher(hasher)
+				.threads(4)
+				.build()
+				.run(input, output);
+		log.info("Resumed run: {}, resumed records: {}", result, result.getResumedRecords());
+		Assertions.assertTrue(result.getResumedRecords() > 0 && result.getResumedRecords() < RECORDS);
+		Assertions.assertEquals(RECORDS, result.getProcessedRecords());
+		Assertions.assertEquals(0, result.getFailedRecords());
+		Assertions.assertFalse(Files.exists(directory.resolve("users-hashed.csv.checkpoint")));
+
+		// every record is written exactly once, in the order of the input
+		List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+		Assertions.assertEquals(RECORDS + 1, lines.size());
+		Assertions.assertEquals("id,email,hash", lines.get(0));
+		for (int i = 0; i < RECORDS; i++) {
+			String[] fields = lines.get(i + 1).split(",", 3);
+			Assertions.assertEquals(String.valueOf(i), fields[0]);
+			Assertions.assertEquals("user" + i + "@example.com", fields[1]);
+			String hash = unquote(fields[2]);
+			Assertions.assertTrue(PasswordVerifiersFactory.getInstance(hash).verify("password" + i, hash));
+		}
+		delete(directory);
+	}
+
+	@Test
+	public void failedRehashKeepsSavedHashTest() throws Exception {
+		Path directory = Files.createTempDirectory("bulk-hashing");
+		Path input = directory.resolve("users.jsonl");
+		Path output = directory.resolve("users-hashed.jsonl");
+		PasswordHasher hasher = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties());
+		String savedHash = hasher.hash("password1");
+		String failingHash = hasher.hash("failing");
+		Files.write(input, String.join("\n",
+				"{\"id\":1,\"password\":\"password1\",\"hash\":\"" + savedHash + "\"}",
+				"{\"id\":2,\"password\":\"failing\",\"hash\":\"" + failingHash + "\"}",
+				"{\"id\":3,\"password\":\"failing\"}",
+				"").getBytes(StandardCharsets.UTF_8));
+
+		BulkHashingProgress result = BulkHashingPipeline.builder()
+				.mode(BulkHashingMode.REHASH)
+				.hasher(new FailingHasher(hasher))
+				.build()
+				.run(input, output);
+		log.info("Re-hash run: {}", result);
+		Assertions.assertEquals(3, result.getProcessedRecords());
+		Assertions.assertEquals(2, result.getFailedRecords());
+
+		List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+		Assertions.assertEquals(2, lines.size());
+		// the record re-hashed has a new hash, the record whose re-hash failed keeps the saved one
+		Assertions.assertTrue(lines.get(0).startsWith("{\"id\":1,"));
+		Assertions.assertFalse(lines.get(0).contains(savedHash));
+		Assertions.assertEquals("{\"id\":2,\"hash\":\"" + failingHash + "\"}", lines.get(1));
+
+		// the record without a saved hash cannot keep anything and is rejected, without its password
+		List<String> rejects = Files.readAllLines(directory.resolve("users-hashed.jsonl.rejects"), StandardCharsets.UTF_8);
+		Assertions.assertEquals(1, rejects.size());
+		Assertions.assertFalse(rejects.get(0).contains("failing\""));
+		delete(directory);
+	}
+
+	private static String unquote(String field) {
+		return field.startsWith("\"") ? field.substring(1, field.length() - 1).replace("\"\"", "\"") : field;
+	}
+
+	private static void delete(Path directory) throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : (Iterable<Path>) files::iterator)
+				Files.delete(file);
+		}
+		Files.delete(directory);
+	}
+
+	/**
+	 * Hasher that asks to re-hash every saved hash and fails for the password "failing"
+	 */
+	private static final class FailingHasher implements PasswordHasher {
+
+		private final PasswordHasher delegate;
+
+		private FailingHasher(PasswordHasher delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String hash(String userPassword) {
+			if ("failing".equals(userPassword))
+				throw new IllegalStateException("Hashing failed");
+			return delegate.hash(userPassword);
+		}
+
+		@Override
+		public boolean needsRehash(ParsedPasswordHash parsedHash) {
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.hashers.PasswordHasher;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.verifiers.CachingPasswordVerifier;
+import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class to be used to verify that the {@link CachingPasswordVerifier} remembers only the successful verifications,
+ * and only until they expire or are evicted.
+ * <br> <br>
+ * A wrong password answered from the cache, or an entry that outlives its TTL, would weaken the Argon2 protection of the saved hashes.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class CachingPasswordVerifierTest {
+
+	@Test
+	public void onlySuccessCachedTest() throws PasswordHasherInstantiationException {
+		PasswordHasher hasher = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties());
+		String hashedPassword = hasher.hash("testpassword");
+		CountingVerifier delegate = new CountingVerifier(PasswordVerifiersFactory.getInstance(hashedPassword));
+		CachingPasswordVerifier verifier = CachingPasswordVerifier.builder(delegate).build();
+
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertEquals(1, delegate.calls.get());
+		Assertions.assertEquals(1, verifier.getHitCount());
+
+		// a wrong password always computes Argon2
+		Assertions.assertFalse(verifier.verify("wrongpassword", hashedPassword));
+		Assertions.assertFalse(verifier.verify("wrongpassword", hashedPassword));
+		Assertions.assertEquals(3, delegate.calls.get());
+
+		// a new hash of the same password (password changed, rehash) is not found in the cache
+		String newHashedPassword = hasher.hash("testpassword");
+		Assertions.assertTrue(verifier.verify("testpassword", newHashedPassword));
+		Assertions.assertEquals(4, delegate.calls.get());
+		Assertions.assertEquals(2, verifier.getSize());
+	}
+
+	@Test
+	public void ttlExpirationTest() throws Exception {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		CountingVerifier delegate = new CountingVerifier(PasswordVerifiersFactory.getInstance(hashedPassword));
+		CachingPasswordVerifier verifier = CachingPasswordVerifier.builder(delegate)
+				.ttl(200, TimeUnit.MILLISECONDS)
+				.build();
+
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertEquals(1, delegate.calls.get());
+
+		Thread.sleep(300);
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertEquals(2, delegate.calls.get());
+		Assertions.assertEquals(1, verifier.getEvictionCount());
+		Assertions.assertEquals(1, verifier.getSize());
+	}
+
+	@Test
+	public void maximumSizeEvictionTest() throws PasswordHasherInstantiationException {
+		PasswordHasher hasher = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties());
+		String[] passwords = { "testpassword1", "testpassword2", "testpassword3" };
+		String[] hashedPasswords = new String[passwords.length];
+		for (int i = 0; i < passwords.length; i++)
+			hashedPasswords[i] = hasher.hash(passwords[i]);
+
+		CountingVerifier delegate = new CountingVerifier(PasswordVerifiersFactory.getInstance(hashedPasswords[0]));
+		CachingPasswordVerifier verifier = CachingPasswordVerifier.builder(delegate)
+				.maximumSize(2)
+				.build();
+
+		for (int i = 0; i < passwords.length; i++)
+			Assertions.assertTrue(verifier.verify(passwords[i], hashedPasswords[i]));
+		Assertions.assertEquals(2, verifier.getSize());
+		Assertions.assertEquals(1, verifier.getEvictionCount());
+
+		// the oldest entry has been evicted, the newest one is still cached
+		Assertions.assertTrue(verifier.verify(passwords[2], hashedPasswords[2]));
+		Assertions.assertEquals(3, delegate.calls.get());
+		Assertions.assertTrue(verifier.verify(passwords[0], hashedPasswords[0]));
+		Assertions.assertEquals(4, delegate.calls.get());
+
+		verifier.invalidateAll();
+		Assertions.assertEquals(0, verifier.getSize());
+		Assertions.assertTrue(verifier.verify(passwords[2], hashedPasswords[2]));
+		Assertions.assertEquals(5, delegate.calls.get());
+		log.info("Hits: {}, misses: {}, evictions: {}", verifier.getHitCount(), verifier.getMissCount(), verifier.getEvictionCount());
+	}
+
+	/**
+	 * Verifier that counts the verifications actually computed
+	 */
+	private static final class CountingVerifier implements PasswordVerifier {
+
+		private final PasswordVerifier delegate;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private CountingVerifier(PasswordVerifier delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean verify(String userPassword, String hashedPassword) {
+			calls.incrementAndGet();
+			return delegate.verify(userPassword, hashedPassword);
+		}
+
+		@Override
+		public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+			calls.incrementAndGet();
+			return delegate.verify(userPassword, parsedHash);
+		}
+	}
+
+}
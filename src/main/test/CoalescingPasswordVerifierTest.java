@@ -0,0 +1,138 @@
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.verifiers.CoalescingPasswordVerifier;
+import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class to be used to verify that the {@link CoalescingPasswordVerifier} computes only once the identical verifications in progress at the same time,
+ * and that every request receives the outcome of the computation, including a refused password or an error.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class CoalescingPasswordVerifierTest {
+
+	private static final int REQUESTS = 8;
+
+	@Test
+	public void identicalVerificationsCoalescingTest() throws Exception {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		BlockingVerifier delegate = new BlockingVerifier(PasswordVerifiersFactory.getInstance(hashedPassword));
+		CoalescingPasswordVerifier verifier = new CoalescingPasswordVerifier(delegate);
+
+		List<Future<Boolean>> matching = submit(verifier, "testpassword", hashedPassword);
+		awaitCoalesced(verifier, REQUESTS - 1);
+		// a different password is not coalesced with the others
+		List<Future<Boolean>> notMatching = submit(verifier, "wrongpassword", hashedPassword);
+		awaitCoalesced(verifier, 2 * (REQUESTS - 1));
+		Assertions.assertEquals(2, verifier.getInFlightCount());
+
+		delegate.release.countDown();
+		for (Future<Boolean> result : matching)
+			Assertions.assertTrue(result.get(5, TimeUnit.SECONDS));
+		for (Future<Boolean> result : notMatching)
+			Assertions.assertFalse(result.get(5, TimeUnit.SECONDS));
+		log.info("Delegate calls: {}, coalesced: {}", delegate.calls.get(), verifier.getCoalescedCount());
+		Assertions.assertEquals(2, delegate.calls.get());
+		Assertions.assertEquals(0, verifier.getInFlightCount());
+
+		// the result is not kept, a verification after the previous one has ended is computed again
+		Assertions.assertTrue(verifier.verify("testpassword", hashedPassword));
+		Assertions.assertEquals(3, delegate.calls.get());
+	}
+
+	@Test
+	public void errorPropagationTest() throws Exception {
+		BlockingVerifier delegate = new BlockingVerifier(new PasswordVerifier() {
+			@Override
+			public boolean verify(String userPassword, String hashedPassword) {
+				throw new IllegalArgumentException("Invalid hash");
+			}
+
+			@Override
+			public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+				throw new IllegalArgumentException("Invalid hash");
+			}
+		});
+		CoalescingPasswordVerifier verifier = new CoalescingPasswordVerifier(delegate);
+
+		List<Future<Boolean>> results = submit(verifier, "testpassword", "not a hash");
+		awaitCoalesced(verifier, REQUESTS - 1);
+		delegate.release.countDown();
+
+		// every request receives the exception of the single computation
+		for (Future<Boolean> result : results) {
+			Throwable cause = Assertions.assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS)).getCause();
+			Assertions.assertTrue(cause instanceof IllegalArgumentException);
+		}
+		Assertions.assertEquals(1, delegate.calls.get());
+		Assertions.assertEquals(0, verifier.getInFlightCount());
+	}
+
+	private static List<Future<Boolean>> submit(PasswordVerifier verifier, String userPassword, String hashedPassword) {
+		ExecutorService callers = Executors.newFixedThreadPool(REQUESTS);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++)
+			results.add(callers.submit(() -> verifier.verify(userPassword, hashedPassword)));
+		callers.shutdown();
+		return results;
+	}
+
+	private static void awaitCoalesced(CoalescingPasswordVerifier verifier, long coalesced) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (verifier.getCoalescedCount() < coalesced && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		Assertions.assertEquals(coalesced, verifier.getCoalescedCount());
+	}
+
+	/**
+	 * Verifier that counts the verifications and holds them until released, so the identical requests overlap
+	 */
+	private static final class BlockingVerifier implements PasswordVerifier {
+
+		private final PasswordVerifier delegate;
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private BlockingVerifier(PasswordVerifier delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean verify(String userPassword, String hashedPassword) {
+			calls.incrementAndGet();
+			await();
+			return delegate.verify(userPassword, hashedPassword);
+		}
+
+		@Override
+		public boolean verify(String userPassword, ParsedPasswordHash parsedHash) {
+			calls.incrementAndGet();
+			await();
+			return delegate.verify(userPassword, parsedHash);
+		}
+
+		private void await() {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
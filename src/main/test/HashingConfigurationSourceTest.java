@@ -0,0 +1,74 @@
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Class to be used to verify that the {@link HashingConfigurationSource} reloads a watched file rewritten in place only once it has been written completely,
+ * and keeps the last valid configuration when the file is empty or not valid.
+ * <br> <br>
+ * A half-written file read by the watcher would silently change the cost of the new hashes.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class HashingConfigurationSourceTest {
+
+	@Test
+	public void inPlaceRewriteTest() throws Exception {
+		Path directory = Files.createTempDirectory("hashing-configuration");
+		Path file = directory.resolve("security.properties");
+		write(file, "security.hashing.iterations=7\n");
+
+		HashingConfigurationSource source = new HashingConfigurationSource(TestHashingConfigurations.SMALL);
+		try {
+			source.watch(file);
+			Assertions.assertEquals(7, source.get().getIterations());
+
+			// an invalid value is refused and the last valid configuration is kept
+			write(file, "security.hashing.iterations=abc\n");
+			awaitCondition(() -> source.getFailedReloadCount() == 1);
+			Assertions.assertEquals(7, source.get().getIterations());
+
+			// a file written in two steps is read only when complete
+			write(file, "security.hashing.iter");
+			Thread.sleep(HashingConfigurationSource.QUIET_PERIOD_MILLIS / 4);
+			Files.write(file, "ations=9\n".getBytes(StandardCharsets.ISO_8859_1), StandardOpenOption.APPEND);
+			awaitCondition(() -> source.get().getIterations() == 9);
+			Assertions.assertEquals(1, source.getFailedReloadCount());
+
+			// an empty file does not restore the initial configuration
+			write(file, "");
+			awaitCondition(() -> source.getFailedReloadCount() == 2);
+			Assertions.assertEquals(9, source.get().getIterations());
+
+			Files.delete(file);
+			awaitCondition(() -> source.get().getIterations() == TestHashingConfigurations.SMALL.getIterations());
+			log.info("Reloads: {}, failed: {}", source.getReloadCount(), source.getFailedReloadCount());
+		} finally {
+			source.close();
+			Files.deleteIfExists(file);
+			Files.delete(directory);
+		}
+	}
+
+	private static void write(Path file, String content) throws Exception {
+		Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+			Thread.sleep(10);
+		Assertions.assertTrue(condition.getAsBoolean());
+	}
+
+}
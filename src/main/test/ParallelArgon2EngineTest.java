@@ -0,0 +1,86 @@
+import it.creativeraccoon.password.hashing.sdk.hashers.Argon2BlockPool;
+import it.creativeraccoon.password.hashing.sdk.hashers.ParallelArgon2Engine;
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to be used to verify that the {@link ParallelArgon2Engine} produces exactly the same hash of the BouncyCastle implementation.
+ * <br> <br>
+ * If the two implementations differ, the passwords already saved in the DB would no longer be verified.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class ParallelArgon2EngineTest {
+
+	/**
+	 * Combinations of memory cost, iterations and threads to be compared
+	 */
+	private static final int[][] parameters = { {8, 1, 1}, {64, 3, 4}, {100, 2, 3}, {1000, 3, 4}, {4096, 2, 8} };
+
+	@Test
+	public void parallelEngineMatchesBouncyCastleTest() {
+		ParallelArgon2Engine engine = new ParallelArgon2Engine(new ForkJoinPool(4), Argon2BlockPool.builder().build());
+
+		for (int version : new int[] { Argon2Parameters.ARGON2_VERSION_10, Argon2Parameters.ARGON2_VERSION_13 }) {
+			for (int[] values : parameters) {
+				Argon2Parameters argon2Parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+						.withVersion(version)
+						.withMemoryAsKB(values[0])
+						.withIterations(values[1])
+						.withParallelism(values[2])
+						.withSalt("testsalt12345678".getBytes())
+						.build();
+
+				byte[] expected = new byte[32];
+				Argon2BytesGenerator generator = new Argon2BytesGenerator();
+				generator.init(argon2Parameters);
+				generator.generateBytes("testpassword".toCharArray(), expected, 0, expected.length);
+
+				byte[] result = new byte[32];
+				engine.generateBytes(argon2Parameters, "testpassword".toCharArray(), result, 0, result.length);
+
+				log.info("Comparing version {}, m={}, t={}, p={}", version, values[0], values[1], values[2]);
+				Assertions.assertArrayEquals(expected, result);
+			}
+		}
+	}
+
+	@Test
+	public void rejectedHelpersTest() {
+		// one thread and one queued task: the other helpers of every slice are rejected and their lanes are filled by the calling thread
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+		try {
+			ParallelArgon2Engine engine = new ParallelArgon2Engine(executor, 7, Argon2BlockPool.builder().build());
+			Argon2Parameters argon2Parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+					.withMemoryAsKB(4096)
+					.withIterations(2)
+					.withParallelism(8)
+					.withSalt("testsalt12345678".getBytes())
+					.build();
+
+			byte[] expected = new byte[32];
+			Argon2BytesGenerator generator = new Argon2BytesGenerator();
+			generator.init(argon2Parameters);
+			generator.generateBytes("testpassword".toCharArray(), expected, 0, expected.length);
+
+			for (int i = 0; i < 5; i++) {
+				byte[] result = new byte[32];
+				engine.generateBytes(argon2Parameters, "testpassword".toCharArray(), result, 0, result.length);
+				Assertions.assertArrayEquals(expected, result);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Class to be used to verify that the hashes written in the supported formats are read back without losing any property.
+ * <br> <br>
+ * The saved hashes are read at every login, a format that is not read back identically would lock the users out.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class PasswordEncodingUtilsTest {
+
+	/**
+	 * Strings that are not valid PHC hashes
+	 */
+	private static final String[] invalidPhcHashes = {
+			"",
+			"$argon2id$v=19$m=64,t=2$c29tZXNhbHRzb21lc2FsdA$aGFzaGhhc2hoYXNoaGFzaA",
+			"$argon2id$v=19$m=64,t=2,p=2$c29tZXNhbHRzb21lc2FsdA",
+			"$argon2id$v=19$m=abc,t=2,p=2$c29tZXNhbHRzb21lc2FsdA$aGFzaGhhc2hoYXNoaGFzaA",
+			"$scrypt$v=19$m=64,t=2,p=2$c29tZXNhbHRzb21lc2FsdA$aGFzaGhhc2hoYXNoaGFzaA" };
+
+	@Test
+	public void phcRoundTripTest() throws PasswordHasherInstantiationException {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		log.info("PHC hash: {}", hashedPassword);
+		Assertions.assertTrue(hashedPassword.startsWith("$argon2id$v=19$m=64,t=2,p=1$"));
+
+		ParsedPasswordHash parsedHash = PasswordEncodingUtils.parse(hashedPassword);
+		Assertions.assertEquals(HashEncodingFormat.PHC, parsedHash.getFormat());
+		Assertions.assertEquals(64, parsedHash.getMemoryCost());
+		Assertions.assertEquals(2, parsedHash.getIterations());
+		Assertions.assertEquals(1, parsedHash.getThreads());
+		Assertions.assertEquals(16, parsedHash.getSaltSize());
+		Assertions.assertEquals(hashedPassword, PasswordEncodingUtils.encode(parsedHash, HashEncodingFormat.PHC));
+
+		Assertions.assertTrue(PasswordVerifiersFactory.getInstance(hashedPassword).verify("testpassword", hashedPassword));
+		Assertions.assertFalse(PasswordVerifiersFactory.getInstance(hashedPassword).verify("wrongpassword", hashedPassword));
+	}
+
+	@Test
+	public void binaryRoundTripTest() throws PasswordHasherInstantiationException {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		ParsedPasswordHash parsedHash = PasswordEncodingUtils.parse(hashedPassword);
+
+		byte[] binaryHash = PasswordEncodingUtils.encodeBinary(parsedHash);
+		Assertions.assertEquals(PasswordEncodingUtils.binaryLength(parsedHash), binaryHash.length);
+		ParsedPasswordHash decodedHash = PasswordEncodingUtils.decodeBinary(binaryHash);
+		Assertions.assertEquals(HashEncodingFormat.BINARY, decodedHash.getFormat());
+		Assertions.assertEquals(parsedHash.getMemoryCost(), decodedHash.getMemoryCost());
+		Assertions.assertEquals(parsedHash.getIterations(), decodedHash.getIterations());
+		Assertions.assertEquals(parsedHash.getThreads(), decodedHash.getThreads());
+		Assertions.assertArrayEquals(parsedHash.getSalt(), decodedHash.getSalt());
+		Assertions.assertArrayEquals(parsedHash.getHash(), decodedHash.getHash());
+		Assertions.assertEquals(hashedPassword, PasswordEncodingUtils.fromBinary(binaryHash, HashEncodingFormat.PHC));
+		Assertions.assertTrue(PasswordVerifiersFactory.getInstance(decodedHash).verify("testpassword".toCharArray(), binaryHash));
+
+		// a hash in the middle of a buffer is read from the position of the buffer
+		ByteBuffer buffer = ByteBuffer.allocate(binaryHash.length + 3);
+		buffer.put((byte) 1);
+		PasswordEncodingUtils.encodeBinary(parsedHash, buffer);
+		buffer.flip();
+		buffer.get();
+		Assertions.assertArrayEquals(parsedHash.getHash(), PasswordEncodingUtils.decodeBinary(buffer).getHash());
+		Assertions.assertEquals(binaryHash.length + 1, buffer.position());
+	}
+
+	@Test
+	public void invalidBinaryHashTest() throws PasswordHasherInstantiationException {
+		byte[] binaryHash = PasswordEncodingUtils.toBinary(PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword"));
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> PasswordEncodingUtils.decodeBinary(Arrays.copyOf(binaryHash, binaryHash.length + 1)));
+		byte[] unknownVersion = binaryHash.clone();
+		unknownVersion[0]++;
+		Assertions.assertThrows(IllegalArgumentException.class, () -> PasswordEncodingUtils.decodeBinary(unknownVersion));
+
+		// a truncated hash leaves the position of the buffer where it was (reset through Buffer, that also works on Java 8)
+		ByteBuffer truncated = ByteBuffer.wrap(binaryHash, 0, binaryHash.length - 1);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> PasswordEncodingUtils.decodeBinary(truncated));
+		Assertions.assertEquals(0, truncated.position());
+	}
+
+	@Test
+	public void convertLegacyToPhcToBinaryTest() throws PasswordHasherInstantiationException {
+		String legacyHash = PasswordHashersFactory.getInstance(TestHashingConfigurations.small(HashEncodingFormat.LEGACY).toProperties()).hash("testpassword");
+		Assertions.assertEquals(HashEncodingFormat.LEGACY, PasswordEncodingUtils.parse(legacyHash).getFormat());
+
+		String phcHash = PasswordEncodingUtils.convert(legacyHash, HashEncodingFormat.PHC);
+		log.info("Converted {} to {}", legacyHash, phcHash);
+		Assertions.assertEquals(HashEncodingFormat.PHC, PasswordEncodingUtils.parse(phcHash).getFormat());
+		Assertions.assertTrue(PasswordVerifiersFactory.getInstance(phcHash).verify("testpassword", phcHash));
+
+		byte[] binaryHash = PasswordEncodingUtils.toBinary(phcHash);
+		Assertions.assertEquals(phcHash, PasswordEncodingUtils.fromBinary(binaryHash, HashEncodingFormat.PHC));
+		Assertions.assertEquals(legacyHash, PasswordEncodingUtils.fromBinary(binaryHash, HashEncodingFormat.LEGACY));
+		Assertions.assertTrue(PasswordVerifiersFactory.getInstance(PasswordEncodingUtils.decodeBinary(binaryHash)).verify("testpassword".toCharArray(), binaryHash));
+	}
+
+	@Test
+	public void invalidPhcHashTest() {
+		for (String hashedPassword : invalidPhcHashes) {
+			log.info("Parsing invalid hash '{}'", hashedPassword);
+			Assertions.assertThrows(IllegalArgumentException.class, () -> PasswordEncodingUtils.parse(hashedPassword));
+		}
+	}
+
+}
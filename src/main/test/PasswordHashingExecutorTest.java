@@ -0,0 +1,99 @@
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor;
+import it.creativeraccoon.password.hashing.sdk.engine.PasswordHashingExecutor.RejectionPolicy;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingDeadlineException;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashingOverloadException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to be used to verify that the {@link PasswordHashingExecutor} refuses the operations beyond its queue
+ * and drops the operations that cannot be completed within their deadline.
+ * <br> <br>
+ * Under load the executor must fail fast, otherwise the callers would wait for hashes that nobody reads anymore.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class PasswordHashingExecutorTest {
+
+	@Test
+	public void fullQueueRejectionTest() throws Exception {
+		PasswordHashingExecutor executor = PasswordHashingExecutor.builder()
+				.threads(1)
+				.queueCapacity(1)
+				.rejectionPolicy(RejectionPolicy.ABORT)
+				.build();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			CompletableFuture<String> running = executor.submit(() -> block(started, release));
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+			CompletableFuture<String> queued = executor.submit(() -> "queued");
+			CompletableFuture<String> refused = executor.submit(() -> "refused");
+
+			ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> refused.get(5, TimeUnit.SECONDS));
+			log.info("Refused operation: {}", exception.getCause().getMessage());
+			Assertions.assertTrue(exception.getCause() instanceof PasswordHashingOverloadException);
+			Assertions.assertEquals(1, executor.getRejectedCount());
+
+			release.countDown();
+			Assertions.assertEquals("done", running.get(5, TimeUnit.SECONDS));
+			Assertions.assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void invalidQueueCapacityTest() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> PasswordHashingExecutor.builder().queueCapacity(0));
+	}
+
+	@Test
+	public void deadlineSheddingTest() throws Exception {
+		PasswordHashingExecutor executor = PasswordHashingExecutor.builder()
+				.threads(1)
+				.build();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			CompletableFuture<String> running = executor.submit(() -> block(started, release));
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+			CompletableFuture<String> expiring = executor.submit(() -> "too late", 50, TimeUnit.MILLISECONDS);
+			Assertions.assertThrows(PasswordHashingDeadlineException.class, () -> executor.invoke(() -> "too late", 50, TimeUnit.MILLISECONDS));
+
+			Thread.sleep(100);
+			release.countDown();
+			Assertions.assertEquals("done", running.get(5, TimeUnit.SECONDS));
+
+			// the operation is dropped when taken from the queue, without being computed
+			ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> expiring.get(5, TimeUnit.SECONDS));
+			log.info("Expired operation: {}", exception.getCause().getMessage());
+			Assertions.assertTrue(exception.getCause() instanceof PasswordHashingDeadlineException);
+			Assertions.assertEquals("in time", executor.invoke(() -> "in time", 5, TimeUnit.SECONDS));
+			Assertions.assertEquals(2, executor.getShedCount());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	private static String block(CountDownLatch started, CountDownLatch release) {
+		started.countDown();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "done";
+	}
+
+}
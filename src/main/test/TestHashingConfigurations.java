@@ -0,0 +1,42 @@
+import it.creativeraccoon.password.hashing.sdk.utils.HashEncodingFormat;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfiguration;
+import it.creativeraccoon.password.hashing.sdk.utils.HashingConfigurationProperties;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordAlgorithms;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configurations shared by the tests.
+ * <br> <br>
+ * Apart from {@link PasswordEfficiencyTest}, the tests check the behaviour of the library and not the cost of the hash,
+ * so they hash with the small parameters of {@link #SMALL}: m=64, t=2, p=1, 16 bytes of salt.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+final class TestHashingConfigurations {
+
+	/**
+	 * Small parameters with the PHC encoding
+	 */
+	static final HashingConfiguration SMALL = small(HashEncodingFormat.PHC);
+
+	private TestHashingConfigurations() {}
+
+	/**
+	 * @param encoding encoding of the hashes
+	 * @return the small parameters with the given encoding
+	 */
+	static HashingConfiguration small(HashEncodingFormat encoding) {
+		Map<HashingConfigurationProperties, String> properties = new EnumMap<>(HashingConfigurationProperties.class);
+		properties.put(HashingConfigurationProperties.ALGORITHM, PasswordAlgorithms.ARGON2.getLabel());
+		properties.put(HashingConfigurationProperties.MEMORY_COST, "64");
+		properties.put(HashingConfigurationProperties.ITERATIONS, "2");
+		properties.put(HashingConfigurationProperties.THREADS, "1");
+		properties.put(HashingConfigurationProperties.SALT_SIZE, "16");
+		properties.put(HashingConfigurationProperties.ENCODING, encoding.getLabel());
+		return HashingConfiguration.of(properties);
+	}
+
+}
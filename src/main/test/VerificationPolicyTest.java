@@ -0,0 +1,77 @@
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHashPolicyException;
+import it.creativeraccoon.password.hashing.sdk.exceptions.PasswordHasherInstantiationException;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordHashersFactory;
+import it.creativeraccoon.password.hashing.sdk.factories.PasswordVerifiersFactory;
+import it.creativeraccoon.password.hashing.sdk.utils.ParsedPasswordHash;
+import it.creativeraccoon.password.hashing.sdk.utils.PasswordEncodingUtils;
+import it.creativeraccoon.password.hashing.sdk.utils.VerificationPolicy;
+import it.creativeraccoon.password.hashing.sdk.verifiers.PasswordVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Class to be used to verify that the {@link VerificationPolicy} refuses the saved hashes with excessive parameters before any Argon2 computation.
+ * <br> <br>
+ * A hash written by an attacker with a huge memory cost or number of iterations would otherwise exhaust the memory or the CPU at the first login.
+ *
+ * @author ZeroBrushV2
+ *
+ */
+@Slf4j
+public class VerificationPolicyTest {
+
+	/**
+	 * Parameters refused by the default policy: memory cost, iterations, memory cost multiplied by the iterations, threads
+	 */
+	private static final String[] excessiveParameters = { "m=1048576,t=2,p=1", "m=64,t=5000,p=1", "m=262144,t=1000,p=1", "m=64,t=2,p=64" };
+
+	@Test
+	public void excessiveParametersRejectionTest() throws PasswordHasherInstantiationException {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		PasswordVerifier verifier = PasswordVerifiersFactory.getInstance(hashedPassword);
+
+		for (String parameters : excessiveParameters) {
+			String maliciousHash = hashedPassword.replace("m=64,t=2,p=1", parameters);
+			log.info("Verifying hash with {}", parameters);
+
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> PasswordEncodingUtils.parse(maliciousHash, VerificationPolicy.getDefault()));
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> verifier.verify("testpassword", maliciousHash));
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> verifier.verify("testpassword".toCharArray(), maliciousHash));
+
+			// a hash decoded without a policy is checked against the default one before the computation
+			ParsedPasswordHash uncheckedHash = PasswordEncodingUtils.parse(maliciousHash);
+			Assertions.assertNull(uncheckedHash.getPolicy());
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> verifier.verify("testpassword", uncheckedHash));
+
+			byte[] binaryHash = PasswordEncodingUtils.encodeBinary(uncheckedHash);
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> PasswordEncodingUtils.decodeBinary(binaryHash, VerificationPolicy.getDefault()));
+			Assertions.assertThrows(PasswordHashPolicyException.class, () -> verifier.verify("testpassword".toCharArray(), binaryHash));
+		}
+	}
+
+	@Test
+	public void customPolicyTest() throws PasswordHasherInstantiationException {
+		String hashedPassword = PasswordHashersFactory.getInstance(TestHashingConfigurations.SMALL.toProperties()).hash("testpassword");
+		VerificationPolicy strictPolicy = VerificationPolicy.builder()
+				.maxMemoryCost(32)
+				.build();
+
+		PasswordHashPolicyException exception = Assertions.assertThrows(PasswordHashPolicyException.class,
+				() -> PasswordEncodingUtils.parse(hashedPassword, strictPolicy));
+		log.info("Refused by the strict policy: {}", exception.getMessage());
+
+		// the hash checked by a policy carries it, so the verifier does not check it again
+		ParsedPasswordHash checkedHash = PasswordEncodingUtils.parse(hashedPassword, VerificationPolicy.getDefault());
+		Assertions.assertSame(VerificationPolicy.getDefault(), checkedHash.getPolicy());
+		Assertions.assertTrue(PasswordVerifiersFactory.getInstance(checkedHash).verify("testpassword", checkedHash));
+	}
+
+	@Test
+	public void invalidPolicyTest() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> VerificationPolicy.builder().maxMemoryCost(0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> VerificationPolicy.builder().maxMemoryIterations(-1));
+	}
+
+}